@@ -11,10 +11,19 @@ import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 
+import heuristic.Entropie;
+import heuristic.FiltreParticulaire;
+import heuristic.Heuristic;
+import heuristic.MCMC;
+import heuristic.MonteCarlo;
 import interfacegraphique.GrilleGraphique;
 import interfacegraphique.GrilleNavaleGraphique;
+import interfacegraphique.JournalPartie;
 import joueurs.Bot;
+import joueurs.Joueur;
 import joueurs.JoueurGraphique;
+import joueurs.MatchResult;
+import joueurs.ReglesPartie;
 import joueurs.SmartBot;
 
 /**
@@ -38,6 +47,16 @@ public class BatailleNavale {
      * et la grille du joueur.
      */
     public static void initFenetre(final String titreFenetre, final GrilleGraphique grilleTir, final GrilleGraphique grilleJeu) {
+        initFenetre(titreFenetre, grilleTir, grilleJeu, null);
+    }
+
+    /**
+     * Variante de {@link #initFenetre(String, GrilleGraphique, GrilleGraphique)}
+     * qui affiche en bas de la fenêtre le journal non bloquant de la partie
+     * (ignoré s'il est {@code null}).
+     */
+    public static void initFenetre(final String titreFenetre, final GrilleGraphique grilleTir, final GrilleGraphique grilleJeu,
+            final JournalPartie journal) {
         SwingUtilities.invokeLater(() -> {
             JFrame fenetre = new JFrame(titreFenetre);
             fenetre.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
@@ -91,6 +110,7 @@ public class BatailleNavale {
             principal.add(droite);
 
             fenetre.getContentPane().add(principal);
+            if (journal != null) fenetre.getContentPane().add(journal, BorderLayout.SOUTH);
             fenetre.pack();
             fenetre.setVisible(true);
         });
@@ -104,8 +124,61 @@ public class BatailleNavale {
         GrilleGraphique grilleAttaque = new GrilleGraphique(taille);
         GrilleNavaleGraphique grilleJoueur = new GrilleNavaleGraphique(taille);
         grilleJoueur.placementAuto(flotte);
-        initFenetre(nomJoueur, grilleAttaque, grilleJoueur.getGrilleGraphique());
-        return new JoueurGraphique(grilleJoueur, grilleAttaque);
+        JournalPartie journal = new JournalPartie();
+        initFenetre(nomJoueur, grilleAttaque, grilleJoueur.getGrilleGraphique(), journal);
+        return new JoueurGraphique(grilleJoueur, grilleAttaque, journal);
+    }
+
+    /**
+     * Mode spectateur : deux bots s'affrontent dans une fenêtre montrant
+     * leurs deux grilles et le journal des coups. La partie est jouée sur le
+     * thread appelant à au plus {@code coupsParSeconde} coups par seconde
+     * (0 pour aucune limite). L'affichage passe par des files vidées par
+     * l'EDT : il ne ralentit jamais la boucle de jeu.
+     *
+     * @return résultat du match
+     */
+    public static MatchResult spectateur(int taille, int[] flotte, String typeA, String typeB, double coupsParSeconde) {
+        Bot a = initBot(taille, flotte, typeA);
+        Bot b = initBot(taille, flotte, typeB);
+        JournalPartie journal = new JournalPartie();
+        GrilleGraphique grilleA = a.getGrilleGraphique();
+        GrilleGraphique grilleB = b.getGrilleGraphique();
+        grilleA.setClicActive(false);
+        grilleB.setClicActive(false);
+        SwingUtilities.invokeLater(() -> {
+            JFrame fenetre = new JFrame("Spectateur : " + typeA + " contre " + typeB);
+            fenetre.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+            JPanel principal = new JPanel(new GridLayout(1, 2));
+            grilleA.setBorder(BorderFactory.createTitledBorder("Flotte de " + typeA));
+            grilleB.setBorder(BorderFactory.createTitledBorder("Flotte de " + typeB));
+            principal.add(grilleA);
+            principal.add(grilleB);
+            fenetre.getContentPane().add(principal);
+            fenetre.getContentPane().add(journal, BorderLayout.SOUTH);
+            fenetre.pack();
+            fenetre.setVisible(true);
+        });
+        ReglesPartie regles = ReglesPartie.STANDARD.avecCadence(coupsParSeconde).avecObservateur(
+                (attaquant, c, etat) -> journal.ajouter((attaquant == a ? typeA : typeB) + " tire en " + c + " : "
+                        + nomEtat(etat)));
+        MatchResult res = a.jouerAvec(b, regles);
+        journal.ajouter("PARTIE TERMINÉE : " + (res.getWinner() == a ? typeA : typeB) + " gagne en "
+                + res.getWinnerMoves() + " coups.");
+        return res;
+    }
+
+    private static String nomEtat(int etat) {
+        switch (etat) {
+            case Joueur.TOUCHE:
+                return "touché";
+            case Joueur.COULE:
+                return "coulé";
+            case Joueur.GAMEOVER:
+                return "flotte détruite";
+            default:
+                return "à l'eau";
+        }
     }
 
     /**
@@ -119,16 +192,61 @@ public class BatailleNavale {
 
     /**
      * Initialise un bot à partir d'une étiquette de type : "uniform", "markov",
-     * "montecarlo" ou "smart".
+     * "montecarlo", "particules", "mcmc", "entropie" ou "smart". L'étiquette
+     * peut porter un paramètre après deux-points, par exemple "montecarlo:200"
+     * pour un Monte Carlo limité à 200 échantillons par coup, "particules:500"
+     * pour un filtre particulaire de 500 particules, "mcmc:5000" pour une
+     * chaîne visant une taille d'échantillon effective de 5000, ou
+     * "entropie:200" pour un gain d'information estimé sur 200 flottes.
      */
     public static Bot initBot(int taille, int[] flotte, String botType) {
         GrilleNavaleGraphique grilleBot = new GrilleNavaleGraphique(taille);
         grilleBot.placementAuto(flotte);
         if (botType == null) botType = "uniform";
         String t = botType.trim().toLowerCase();
+        String param = null;
+        int sep = t.indexOf(':');
+        if (sep >= 0) {
+            param = t.substring(sep + 1);
+            t = t.substring(0, sep);
+        }
         switch (t) {
             case "montecarlo":
+                if (param != null) {
+                    try {
+                        return new SmartBot(grilleBot, new MonteCarlo(Integer.parseInt(param)));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Nombre d'échantillons invalide : " + botType);
+                    }
+                }
                 return new SmartBot(grilleBot, "MonteCarlo");
+            case "particules":
+                if (param != null) {
+                    try {
+                        return new SmartBot(grilleBot, new FiltreParticulaire(Integer.parseInt(param), 2));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Taille de population invalide : " + botType);
+                    }
+                }
+                return new SmartBot(grilleBot, "particules");
+            case "mcmc":
+                if (param != null) {
+                    try {
+                        return new SmartBot(grilleBot, new MCMC(Integer.parseInt(param), 50_000));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Taille effective invalide : " + botType);
+                    }
+                }
+                return new SmartBot(grilleBot, "mcmc");
+            case "entropie":
+                if (param != null) {
+                    try {
+                        return new SmartBot(grilleBot, new Entropie(Integer.parseInt(param), 1.0));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Nombre d'échantillons invalide : " + botType);
+                    }
+                }
+                return new SmartBot(grilleBot, "entropie");
             case "markov":
             case "markow":
                 return new SmartBot(grilleBot, "Markov");
@@ -140,6 +258,16 @@ public class BatailleNavale {
         }
     }
 
+    /**
+     * Initialise un {@link SmartBot} utilisant l'instance d'heuristique
+     * fournie (par exemple une heuristique aux réglages non standard).
+     */
+    public static Bot initBot(int taille, int[] flotte, Heuristic heuristic) {
+        GrilleNavaleGraphique grilleBot = new GrilleNavaleGraphique(taille);
+        grilleBot.placementAuto(flotte);
+        return new SmartBot(grilleBot, heuristic);
+    }
+
     /**
      * Point d'entrée principal. Les arguments de la ligne de commande permettent
      * de choisir le mode de jeu et la taille de la grille. Exemples :
@@ -148,6 +276,8 @@ public class BatailleNavale {
      *   java bataillenavale.BatailleNavale 12      # deux humains sur une grille 12x12
      *   java bataillenavale.BatailleNavale bot     # humain vs bot intelligent
      *   java bataillenavale.BatailleNavale bot 8   # humain vs bot sur une grille 8x8
+     *   java bataillenavale.BatailleNavale spectateur 10 20 markov montecarlo
+     *                                              # deux bots, 20 coups/s (0 = illimité)
      * </pre>
      */
     public static void main(String[] args) {
@@ -155,6 +285,19 @@ public class BatailleNavale {
         int[] flotte = DEFAULT_FLOTTE;
         boolean vsBot = true;
         // parse arguments
+        if (args != null && args.length > 0 && args[0].equalsIgnoreCase("spectateur")) {
+            double cadence = 10.0;
+            try {
+                if (args.length > 1) taille = Integer.parseInt(args[1]);
+                if (args.length > 2) cadence = Double.parseDouble(args[2]);
+            } catch (NumberFormatException ex) {
+                System.err.println("Argument numérique invalide, valeurs par défaut utilisées.");
+            }
+            String typeA = args.length > 3 ? args[3] : "markov";
+            String typeB = args.length > 4 ? args[4] : "montecarlo";
+            spectateur(taille, adapteFlottePourTaille(flotte, taille), typeA, typeB, cadence);
+            return;
+        }
         if (args != null && args.length > 0) {
             if (args[0].equalsIgnoreCase("bot")) {
                 vsBot = true;
@@ -178,7 +321,12 @@ public class BatailleNavale {
         if (vsBot) {
             JoueurGraphique joueur = initJoueur("Joueur", taille, flotte);
             Bot bot = initBot(taille, flotte, true); // always use SmartBot
-            joueur.jouerAvec(bot);
+            if (bot instanceof SmartBot) ((SmartBot) bot).activerSpeculation();
+            try {
+                joueur.jouerAvec(bot);
+            } finally {
+                if (bot instanceof SmartBot) ((SmartBot) bot).desactiverSpeculation();
+            }
         } else {
             JoueurGraphique j1 = initJoueur("Joueur 1", taille, flotte);
             JoueurGraphique j2 = initJoueur("Joueur 2", taille, flotte);
@@ -1,6 +1,10 @@
 package bataillenavale;
 
 import java.awt.GridLayout;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
@@ -11,24 +15,31 @@ import javax.swing.SwingUtilities;
 
 import joueurs.Bot;
 import joueurs.JoueurGraphique;
+import joueurs.MatchResult;
+import joueurs.PartieAsynchrone;
+import joueurs.SmartBot;
 
 /**
  * Interface de lancement pour configurer la taille de la grille et
- * choisir le mode de jeu (Humain vs Humain ou Humain vs Ordinateur)
- * avant de démarrer une partie.
+ * choisir le mode de jeu (Humain vs Humain, Humain vs Ordinateur ou
+ * spectateur d'une partie entre deux bots) avant de démarrer une partie.
  */
 public class Main {
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> {
             JTextField tailleField = new JTextField(String.valueOf(10));
-            String[] opponents = {"Humain", "Ordinateur (Uniforme)", "Ordinateur (Markov)", "Ordinateur (MonteCarlo)"};
+            String[] opponents = {"Humain", "Ordinateur (Uniforme)", "Ordinateur (Markov)", "Ordinateur (MonteCarlo)",
+                    "Spectateur (Markov vs MonteCarlo)"};
             JComboBox<String> opponentCombo = new JComboBox<>(opponents);
+            JTextField cadenceField = new JTextField(String.valueOf(10));
 
             JPanel panel = new JPanel(new GridLayout(0, 1));
             panel.add(new JLabel("Taille de la grille (entier) :"));
             panel.add(tailleField);
             panel.add(new JLabel("Adversaire :"));
             panel.add(opponentCombo);
+            panel.add(new JLabel("Vitesse spectateur (coups/s, 0 = illimitée) :"));
+            panel.add(cadenceField);
 
             int res = JOptionPane.showConfirmDialog(null, panel, "Bataille Navale - Configuration",
                     JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
@@ -46,6 +57,13 @@ public class Main {
             }
 
             String opponent = opponentCombo.getSelectedItem().toString();
+            boolean spectateur = opponent.startsWith("Spectateur");
+            double cadence = 10.0;
+            try {
+                cadence = Double.parseDouble(cadenceField.getText().trim());
+            } catch (NumberFormatException ex) {
+                cadence = 10.0;
+            }
             boolean vsBot = !opponent.equalsIgnoreCase("Humain");
             final int[] flotte = {5, 4, 3, 3, 2, 2};
 
@@ -82,23 +100,71 @@ public class Main {
             final boolean vsBotFinal = vsBot;
             final int[] flotteFinal = flotteAdapted;
 
-            // Démarrer la boucle de jeu dans un thread en arrière-plan pour ne pas bloquer l'EDT
-            new Thread(() -> {
-                if (vsBotFinal) {
-                    JoueurGraphique joueur = BatailleNavale.initJoueur("Joueur", tailleFinal, flotteFinal);
-                    // Mapper l'adversaire sélectionné vers un type de bot (chaine interne)
-                    String botType = "smart";
-                    if (opponent.equalsIgnoreCase("Ordinateur (Markov)")) botType = "markov";
-                    else if (opponent.equalsIgnoreCase("Ordinateur (MonteCarlo)")) botType = "montecarlo";
-                    else if (opponent.equalsIgnoreCase("Ordinateur (Uniforme)")) botType = "uniform";
-                    Bot bot = BatailleNavale.initBot(tailleFinal, flotteFinal, botType);
-                    joueur.jouerAvec(bot);
-                } else {
-                    JoueurGraphique j1 = BatailleNavale.initJoueur("Joueur 1", tailleFinal, flotteFinal);
-                    JoueurGraphique j2 = BatailleNavale.initJoueur("Joueur 2", tailleFinal, flotteFinal);
-                    j1.jouerAvec(j2);
+            if (spectateur) {
+                // la partie entre bots tourne sur son propre thread ; l'affichage ne la ralentit pas
+                final double cadenceFinale = cadence;
+                new Thread(() -> BatailleNavale.spectateur(tailleFinal, flotteFinal, "markov", "montecarlo", cadenceFinale),
+                        "BatailleNavale-Spectateur").start();
+                return;
+            }
+
+            // Dérouler la partie de façon asynchrone sur un moteur dédié : ni l'EDT
+            // ni aucun autre thread n'est bloqué en attendant les clics du joueur
+            ExecutorService moteur = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "BatailleNavale-Moteur");
+                t.setDaemon(true);
+                return t;
+            });
+            PartieAsynchrone partie = new PartieAsynchrone(moteur);
+            moteur.execute(() -> {
+                CompletableFuture<MatchResult> fin;
+                try {
+                    fin = lancer(partie, vsBotFinal, opponent, tailleFinal, flotteFinal);
+                } catch (RuntimeException ex) {
+                    fin = CompletableFuture.failedFuture(ex);
                 }
-            }, "BatailleNavale-GameThread").start();
+                // une erreur pendant la partie ne doit pas passer inaperçue
+                fin.whenComplete((resultat, err) -> {
+                    if (err != null) signalerErreur(err);
+                });
+            });
         });
     }
-}
\ No newline at end of file
+
+    /** Crée les joueurs et démarre la partie sur le moteur. */
+    private static CompletableFuture<MatchResult> lancer(PartieAsynchrone partie, boolean vsBot, String opponent,
+            int taille, int[] flotte) {
+        if (vsBot) {
+            JoueurGraphique joueur = BatailleNavale.initJoueur("Joueur", taille, flotte);
+            // Mapper l'adversaire sélectionné vers un type de bot (chaine interne)
+            String botType = "smart";
+            if (opponent.equalsIgnoreCase("Ordinateur (Markov)")) botType = "markov";
+            else if (opponent.equalsIgnoreCase("Ordinateur (MonteCarlo)")) botType = "montecarlo";
+            else if (opponent.equalsIgnoreCase("Ordinateur (Uniforme)")) botType = "uniform";
+            Bot bot = BatailleNavale.initBot(taille, flotte, botType);
+            if (!(bot instanceof SmartBot)) return partie.jouer(joueur, bot);
+            // calculer le coup du bot pendant que l'humain réfléchit ; le thread
+            // de spéculation est libéré en fin de partie, même sur erreur
+            SmartBot smart = (SmartBot) bot;
+            smart.activerSpeculation();
+            try {
+                return partie.jouer(joueur, bot).whenComplete((res, err) -> smart.desactiverSpeculation());
+            } catch (RuntimeException ex) {
+                smart.desactiverSpeculation();
+                throw ex;
+            }
+        }
+        JoueurGraphique j1 = BatailleNavale.initJoueur("Joueur 1", taille, flotte);
+        JoueurGraphique j2 = BatailleNavale.initJoueur("Joueur 2", taille, flotte);
+        return partie.jouer(j1, j2);
+    }
+
+    /** Affiche l'erreur qui a interrompu la partie, sur l'EDT. */
+    private static void signalerErreur(Throwable err) {
+        Throwable cause = (err instanceof CompletionException && err.getCause() != null) ? err.getCause() : err;
+        cause.printStackTrace();
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null,
+                "La partie a été interrompue par une erreur :\n" + cause, "Bataille Navale - Erreur",
+                JOptionPane.ERROR_MESSAGE));
+    }
+}
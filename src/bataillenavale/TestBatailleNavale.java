@@ -1,5 +1,11 @@
 package bataillenavale;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import heuristic.Markov;
+import interfacegraphique.GrilleNavaleGraphique;
 import logique.Coordonnee;
 import logique.GrilleNavale;
 import logique.Navire;
@@ -13,6 +19,7 @@ public class TestBatailleNavale {
     public static void main(String[] args) {
         testCoordonnee();
         testNavire();
+        testMarkov();
         testGrilleNavale();
         System.out.println("Tous les tests réussis !");
     }
@@ -72,4 +79,73 @@ public class TestBatailleNavale {
         assert grille.perdu() : "La grille doit être perdue après que tous les navires soient coulés";
         System.out.println("Tests GrilleNavale réussis !");
     }
+
+    /**
+     * La heatmap de Markov, calculée par plages libres, doit compter les
+     * mêmes placements qu'une énumération exhaustive : placements sans case
+     * tirée, et placements contraints (couvrant au moins une touche, sans
+     * case tirée hors touches), sur de petites grilles aléatoires.
+     */
+    private static void testMarkov() {
+        System.out.println("Test de Markov...");
+        Random alea = new Random(37);
+        // parité v + 1 (cases de parité non nulles), pas de division, renfort 1
+        Markov markov = new Markov(1, 1, 1, 1, 1, 1);
+        for (int essai = 0; essai < 200; essai++) {
+            int n = 4 + alea.nextInt(5);
+            boolean[][] tirs = new boolean[n][n];
+            boolean[][] touche = new boolean[n][n];
+            List<Coordonnee> touches = new ArrayList<>();
+            boolean avecTouches = essai % 2 == 1;
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) {
+                    tirs[r][c] = alea.nextInt(10) < 3;
+                    if (tirs[r][c] && avecTouches && alea.nextInt(10) < 3) {
+                        touche[r][c] = true;
+                        touches.add(new Coordonnee(r, c));
+                    }
+                }
+            }
+            List<Integer> flotte = new ArrayList<>();
+            for (int k = 1 + alea.nextInt(4); k > 0; k--) flotte.add(2 + alea.nextInt(Math.min(4, n - 1)));
+            int minL = flotte.stream().mapToInt(Integer::intValue).min().getAsInt();
+
+            int[][] libres = new int[n][n];
+            int[][] contraints = new int[n][n];
+            for (int L : flotte) {
+                for (int v = 0; v < 2; v++) {
+                    for (int r = 0; r + (v == 1 ? L - 1 : 0) < n; r++) {
+                        for (int c = 0; c + (v == 0 ? L - 1 : 0) < n; c++) {
+                            boolean libre = true, posable = true, couvre = false;
+                            for (int k = 0; k < L; k++) {
+                                int rr = v == 1 ? r + k : r, cc = v == 1 ? c : c + k;
+                                libre &= !tirs[rr][cc];
+                                posable &= !tirs[rr][cc] || touche[rr][cc];
+                                couvre |= touche[rr][cc];
+                            }
+                            for (int k = 0; k < L; k++) {
+                                int rr = v == 1 ? r + k : r, cc = v == 1 ? c : c + k;
+                                if (libre) libres[rr][cc]++;
+                                if (posable && couvre) contraints[rr][cc]++;
+                            }
+                        }
+                    }
+                }
+            }
+
+            double[][] carte = markov.carte(tirs, new GrilleNavaleGraphique(n), flotte, touches);
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) {
+                    int attendu = 0;
+                    if (!tirs[r][c]) {
+                        attendu = libres[r][c] + ((libres[r][c] != 0 && (r + c) % minL == 0) ? 1 : 0)
+                                + contraints[r][c];
+                    }
+                    assert carte[r][c] == attendu : "Heatmap Markov incorrecte en " + new Coordonnee(r, c)
+                            + " (essai " + essai + ") : " + carte[r][c] + " au lieu de " + attendu;
+                }
+            }
+        }
+        System.out.println("Tests Markov réussis !");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,360 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import interfacegraphique.GrilleNavaleGraphique;
+import logique.Coordonnee;
+
+/**
+ * Heuristique par gain d'information : au lieu de la case la plus probable,
+ * elle vise la case dont la réponse (à l'eau, touché, coulé) est la plus
+ * incertaine sous la loi des flottes compatibles avec les observations.
+ *
+ * Le gain d'information espéré d'un tir est l'entropie de sa réponse,
+ * {@code H(x) = -Σ_o p_o log2 p_o} : la réponse étant déterminée par la
+ * flotte, c'est exactement la réduction d'entropie espérée de la loi a
+ * posteriori. Les issues sont « à l'eau », « touché », et une issue
+ * « coulé » par navire que le tir peut couler : couler révèle le navire
+ * entier, et deux navires différents coulés par la même case sont deux
+ * réponses distinctes. Le score
+ * d'une case est {@code H(x) + bonusTouche * p(x)}, où p(x) est la
+ * probabilité de toucher : à information égale, mieux vaut toucher, et les
+ * cases certaines (H nul) finissent par être jouées.
+ *
+ * La loi est estimée par échantillonnage d'importance, comme dans
+ * {@link MonteCarlo} (navires placés d'abord sur les touches en attente,
+ * poids = produit des nombres d'options), mais sur des placements codés en
+ * entiers ({@link GeometrieFlotte}) et des positions précalculées par
+ * longueur. Le calcul naïf (pour chaque case, repartitionner tous les
+ * échantillons) coûterait O(cases x échantillons) ; ici chaque échantillon
+ * accepté met à jour en place les poids des issues « touché » de ses seules
+ * cases de navire non tirées, et le poids « coulé » de chacun de ses
+ * navires à une case du naufrage (indexé par le placement), le poids « à
+ * l'eau » s'en déduisant par différence avec le poids total. Un coup coûte
+ * ainsi O(échantillons x cases de navire + N² + navires coulables).
+ */
+public class Entropie implements Heuristic {
+    private static final double LOG2 = Math.log(2.0);
+
+    private final Random rng = new Random();
+    private final int echantillons;
+    private final double bonusTouche;
+    private final Markov repli = new Markov();
+
+    // observations du coup en cours
+    private int N;
+    private GeometrieFlotte geo = new GeometrieFlotte(0);
+    private boolean[][] touchee = new boolean[0][0];
+    // positions admissibles par longueur (nbPositions[L] premières cases de
+    // positions[L]) et longueurs restantes, dans des tampons réutilisés
+    private int[][] positions = new int[64][];
+    private final int[] nbPositions = new int[64];
+    private int[] longueurs = new int[0];
+    private int nbLongueurs;
+
+    // tampons de l'échantillonnage et des scores
+    private int[] flotte = new int[0];
+    private int[] restantes = new int[0];
+    private int[] options = new int[0];
+    private int[] navireOption = new int[0];    // indice dans restantes du navire de chaque option
+    private double[][] score = new double[0][0];
+
+    // poids des issues par case, mis à jour échantillon par échantillon
+    private double[][] poidsTouche = new double[0][0];
+    private double[][] poidsCoule = new double[0][0];        // toutes issues « coulé » de la case
+    private double[] poidsCouleNavire = new double[0];      // par placement coulé
+    private int[] coulables = new int[0];                   // placements de poids non nul
+    private int nbCoulables;
+    private double poidsTotal;
+    private int derniersAcceptes;
+
+    public Entropie() {
+        this(400, 1.0);
+    }
+
+    /**
+     * @param echantillons nombre de flottes tirées par coup
+     * @param bonusTouche  poids de la probabilité de toucher dans le score
+     */
+    public Entropie(int echantillons, double bonusTouche) {
+        this.echantillons = Math.max(1, echantillons);
+        this.bonusTouche = Math.max(0.0, bonusTouche);
+    }
+
+    /** Nombre d'échantillons acceptés au dernier appel. */
+    public int getDerniersAcceptes() {
+        return derniersAcceptes;
+    }
+
+    @Override
+    public Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+        return choisir(tirsEnvoyes, gng, naviresRestants, currentHits, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, long echeance) {
+        List<Coordonnee> choix = choisirK(tirsEnvoyes, gng, naviresRestants, currentHits, 1, echeance);
+        return choix.isEmpty() ? null : choix.get(0);
+    }
+
+    /** Les k cases de meilleur score d'une seule passe d'échantillonnage. */
+    @Override
+    public List<Coordonnee> choisirK(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, int k, long echeance) {
+        if (naviresRestants == null || naviresRestants.isEmpty()) {
+            return new Uniform().choisirK(tirsEnvoyes, gng, naviresRestants, currentHits, k, echeance);
+        }
+        List<Coordonnee> hits = (currentHits != null) ? currentHits : List.of();
+        preparer(gng.getTaille(), tirsEnvoyes, naviresRestants, hits);
+        if (!echantillonner(hits, echeance)) {
+            return Heuristic.tempsEcoule(echeance) ? new ArrayList<>()
+                    : repli.choisirK(tirsEnvoyes, gng, naviresRestants, currentHits, k, echeance);
+        }
+        double[][] score = scores(tirsEnvoyes);
+        return MeilleuresCases.parmi(N, (r, c) -> score[r][c], tirsEnvoyes, k, rng);
+    }
+
+    /** Le score H(x) + bonusTouche * p(x) de chaque case non tirée. */
+    @Override
+    public double[][] carte(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+        if (naviresRestants == null || naviresRestants.isEmpty()) {
+            return new Uniform().carte(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        List<Coordonnee> hits = (currentHits != null) ? currentHits : List.of();
+        preparer(gng.getTaille(), tirsEnvoyes, naviresRestants, hits);
+        if (!echantillonner(hits, Long.MAX_VALUE)) return repli.carte(tirsEnvoyes, gng, naviresRestants, currentHits);
+        // copie : le tampon des scores est réutilisé au coup suivant
+        double[][] score = scores(tirsEnvoyes);
+        double[][] carte = new double[N][];
+        for (int r = 0; r < N; r++) carte[r] = score[r].clone();
+        return carte;
+    }
+
+    /** Positions admissibles de chaque longueur et remise à zéro des compteurs. */
+    private void preparer(int taille, boolean[][] tirsEnvoyes, List<Integer> naviresRestants, List<Coordonnee> hits) {
+        if (taille != N) {
+            N = taille;
+            geo = new GeometrieFlotte(N);
+            touchee = new boolean[N][N];
+            poidsTouche = new double[N][N];
+            poidsCoule = new double[N][N];
+            poidsCouleNavire = new double[geo.coder(N - 1, N - 1, true, 63) + 1];
+            positions = new int[64][];
+            score = new double[N][N];
+        }
+        for (int i = 0; i < nbCoulables; i++) poidsCouleNavire[coulables[i]] = 0.0;
+        nbCoulables = 0;
+        for (int r = 0; r < N; r++) {
+            Arrays.fill(touchee[r], false);
+            Arrays.fill(poidsTouche[r], 0.0);
+            Arrays.fill(poidsCoule[r], 0.0);
+        }
+        for (Coordonnee h : hits) touchee[h.getLigne()][h.getColonne()] = true;
+        poidsTotal = 0.0;
+
+        nbLongueurs = naviresRestants.size();
+        if (longueurs.length < nbLongueurs) {
+            longueurs = new int[nbLongueurs];
+            flotte = new int[nbLongueurs];
+            restantes = new int[nbLongueurs];
+        }
+        for (int i = 0; i < nbLongueurs; i++) nbPositions[longueurs[i] = naviresRestants.get(i)] = -1;
+        int maxOptions = 0;
+        for (int k = 0; k < nbLongueurs; k++) {
+            int L = longueurs[k];
+            if (nbPositions[L] >= 0) {
+                maxOptions += nbPositions[L];
+                continue;
+            }
+            if (positions[L] == null) positions[L] = new int[2 * N * N];
+            int[] pos = positions[L];
+            int nb = 0;
+            for (int r = 0; r < N; r++) {
+                for (int c = 0; c < N; c++) {
+                    for (int v = 0; v < 2; v++) {
+                        boolean vertical = v == 1;
+                        if ((L == 1 && vertical) || !geo.dansGrille(r, c, vertical, L)) continue;
+                        // hors cases manquées, et pas entièrement sur des touches
+                        boolean valide = true, libre = false;
+                        for (int i = 0; i < L && valide; i++) {
+                            int rr = vertical ? r + i : r, cc = vertical ? c : c + i;
+                            if (tirsEnvoyes[rr][cc] && !touchee[rr][cc]) valide = false;
+                            else if (!touchee[rr][cc]) libre = true;
+                        }
+                        if (valide && libre) pos[nb++] = geo.coder(r, c, vertical, L);
+                    }
+                }
+            }
+            nbPositions[L] = nb;
+            maxOptions += nb;
+        }
+        // une étape de tirage n'a jamais plus d'options que de positions des navires restants
+        if (options.length < maxOptions) {
+            options = new int[maxOptions];
+            navireOption = new int[maxOptions];
+        }
+    }
+
+    /**
+     * Tire les flottes et accumule les poids des issues. Faux si aucune
+     * flotte n'a été acceptée.
+     */
+    private boolean echantillonner(List<Coordonnee> hits, long echeance) {
+        int nb = nbLongueurs;
+        int acceptes = 0;
+        for (int s = 0; s < echantillons; s++) {
+            if (Heuristic.tempsEcoule(echeance)) break;
+            System.arraycopy(longueurs, 0, restantes, 0, nb);
+            int nbRestantes = nb;
+            int places = 0;
+            double poids = 1.0;
+            boolean ok = true;
+
+            // touches d'abord : un couple (navire restant, position) couvrant
+            // la première touche non couverte, tiré uniformément ; les navires
+            // de même longueur comptent chacun pour un, comme dans MonteCarlo
+            Coordonnee h;
+            while (ok && (h = toucheLibre(hits, flotte, places)) != null) {
+                int n = 0;
+                for (int i = 0; i < nbRestantes; i++) {
+                    int[] pos = positions[restantes[i]];
+                    for (int p = 0, fin = nbPositions[restantes[i]]; p < fin; p++) {
+                        int nav = pos[p];
+                        if (geo.couvre(nav, h.getLigne(), h.getColonne()) && libre(nav, flotte, places)) {
+                            navireOption[n] = i;
+                            options[n++] = nav;
+                        }
+                    }
+                }
+                if (n == 0) {
+                    ok = false;
+                    break;
+                }
+                int k = rng.nextInt(n);
+                poids *= n;
+                flotte[places++] = options[k];
+                restantes[navireOption[k]] = restantes[--nbRestantes];
+            }
+
+            // puis les autres navires, dans un ordre aléatoire
+            while (ok && nbRestantes > 0) {
+                int i = rng.nextInt(nbRestantes);
+                int L = restantes[i];
+                int n = 0;
+                int[] pos = positions[L];
+                for (int p = 0, fin = nbPositions[L]; p < fin; p++) {
+                    int nav = pos[p];
+                    if (libre(nav, flotte, places)) {
+                        options[n++] = nav;
+                    }
+                }
+                if (n == 0) {
+                    ok = false;
+                    break;
+                }
+                poids *= n;
+                flotte[places++] = options[rng.nextInt(n)];
+                restantes[i] = restantes[--nbRestantes];
+            }
+            if (!ok) continue;
+            enregistrer(flotte, places, poids);
+            acceptes++;
+        }
+        derniersAcceptes = acceptes;
+        return acceptes > 0;
+    }
+
+    /**
+     * Mise à jour incrémentale des issues : sur chaque navire de la flotte,
+     * la dernière case non tirée coule le navire, les autres le touchent.
+     */
+    private void enregistrer(int[] flotte, int places, double poids) {
+        poidsTotal += poids;
+        for (int j = 0; j < places; j++) {
+            int nav = flotte[j];
+            int r0 = geo.ligne(nav), c0 = geo.colonne(nav), L = geo.longueur(nav);
+            boolean v = geo.vertical(nav);
+            int libres = 0, rl = -1, cl = -1;
+            for (int i = 0; i < L; i++) {
+                int r = v ? r0 + i : r0, c = v ? c0 : c0 + i;
+                if (!touchee[r][c]) {
+                    libres++;
+                    rl = r;
+                    cl = c;
+                }
+            }
+            if (libres == 1) {
+                poidsCoule[rl][cl] += poids;
+                if (poidsCouleNavire[nav] == 0.0) {
+                    if (nbCoulables == coulables.length) coulables = Arrays.copyOf(coulables, Math.max(16, 2 * nbCoulables));
+                    coulables[nbCoulables++] = nav;
+                }
+                poidsCouleNavire[nav] += poids;
+                continue;
+            }
+            for (int i = 0; i < L; i++) {
+                int r = v ? r0 + i : r0, c = v ? c0 : c0 + i;
+                if (!touchee[r][c]) poidsTouche[r][c] += poids;
+            }
+        }
+    }
+
+    /** H(x) + bonusTouche * p(x) pour chaque case non tirée. */
+    private double[][] scores(boolean[][] tirsEnvoyes) {
+        for (double[] ligne : score) Arrays.fill(ligne, 0.0);
+        // entropie des issues « coulé », navire par navire, portée sur la case qui le coule
+        for (int i = 0; i < nbCoulables; i++) {
+            int nav = coulables[i];
+            int r0 = geo.ligne(nav), c0 = geo.colonne(nav);
+            boolean v = geo.vertical(nav);
+            for (int j = 0; j < geo.longueur(nav); j++) {
+                int r = v ? r0 + j : r0, c = v ? c0 : c0 + j;
+                if (!touchee[r][c]) score[r][c] += h(poidsCouleNavire[nav] / poidsTotal);
+            }
+        }
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (tirsEnvoyes[r][c]) {
+                    score[r][c] = 0.0;
+                    continue;
+                }
+                double pt = poidsTouche[r][c] / poidsTotal;
+                double pc = poidsCoule[r][c] / poidsTotal;
+                double pe = Math.max(0.0, 1.0 - pt - pc);
+                score[r][c] = (h(pt) + score[r][c] + h(pe)) / LOG2 + bonusTouche * (pt + pc);
+            }
+        }
+        return score;
+    }
+
+    private static double h(double p) {
+        return p > 0.0 ? -p * Math.log(p) : 0.0;
+    }
+
+    private boolean libre(int nav, int[] flotte, int places) {
+        for (int j = 0; j < places; j++) if (geo.conflit(nav, flotte[j])) return false;
+        return true;
+    }
+
+    /** Première touche qu'aucun navire placé ne couvre. */
+    private Coordonnee toucheLibre(List<Coordonnee> hits, int[] flotte, int places) {
+        for (Coordonnee h : hits) {
+            boolean couverte = false;
+            for (int j = 0; j < places && !couverte; j++) couverte = geo.couvre(flotte[j], h.getLigne(), h.getColonne());
+            if (!couverte) return h;
+        }
+        return null;
+    }
+
+    @Override
+    public void reinitialiser(long graine) {
+        rng.setSeed(graine);
+        repli.reinitialiser(graine ^ 0x5DEECE66DL);
+    }
+}
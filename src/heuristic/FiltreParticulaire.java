@@ -0,0 +1,444 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import interfacegraphique.GrilleNavaleGraphique;
+import logique.Coordonnee;
+
+/**
+ * Heuristique Monte Carlo persistante (filtre particulaire).
+ *
+ * Contrairement à {@link MonteCarlo}, qui régénère tous ses échantillons à
+ * chaque coup, cette heuristique conserve d'un coup à l'autre une population
+ * de « particules » : des placements complets des navires restants,
+ * compatibles avec tout ce qui a été observé. À chaque appel, seules les
+ * nouvelles informations sont examinées :
+ * <ul>
+ * <li>une case nouvellement tirée et manquée élimine les particules qui y
+ *     placent un navire ;</li>
+ * <li>une nouvelle touche élimine celles qui ne la couvrent pas ;</li>
+ * <li>un navire coulé est retiré de chaque particule (celui de la bonne
+ *     longueur qui couvre les cases coulées) ; à défaut la particule est
+ *     éliminée.</li>
+ * </ul>
+ * Les observations étant certaines, la repondération se réduit à garder
+ * (poids 1) ou éliminer (poids 0). Les places libérées sont comblées par des
+ * copies de particules survivantes auxquelles on applique un pas MCMC (un
+ * navire est replacé uniformément parmi ses positions compatibles, pas de
+ * Gibbs) ; si aucune particule n'a survécu, de nouveaux placements sont tirés
+ * comme dans {@link MonteCarlo}. Le coût d'un coup est donc proportionnel au
+ * nombre de particules invalidées.
+ *
+ * La case choisie est la case non tirée la plus souvent occupée dans la
+ * population (ex aequo départagés au hasard). Une instance suit une seule
+ * partie à la fois : elle détecte une nouvelle partie (grille vide, taille
+ * différente) et repart alors d'une population neuve.
+ */
+public class FiltreParticulaire implements Heuristic {
+    private static final int ESSAIS_PAR_TIRAGE = 50;
+
+    private final Random rng = new Random();
+    private final int population;
+    private final int pasMcmc;
+
+    // Particules : navires codés (case de départ, orientation, longueur)
+    private int[][] particules;
+    private int nbParticules = 0;
+    private int nbNavires = 0;
+    private int dernieresInvalidees = 0;
+
+    // Observations déjà intégrées à la population
+    private int N = -1;
+    private boolean[][] vus = new boolean[0][0];     // cases tirées déjà prises en compte
+    private boolean[][] bloquees = new boolean[0][0]; // tirées sans être une touche en cours
+    private boolean[][] touches = new boolean[0][0];  // touches non coulées
+    private final List<Coordonnee> touchesConnues = new ArrayList<>();
+    private final List<Integer> flotteConnue = new ArrayList<>();
+
+    // tampons
+    private GeometrieFlotte geo = new GeometrieFlotte(0);
+    private int[][] compteurs = new int[0][0];
+    private int[] positions = new int[0];
+    private final Markov repli = new Markov();
+
+    public FiltreParticulaire() {
+        this(1000, 2);
+    }
+
+    /**
+     * @param population nombre de particules maintenues
+     * @param pasMcmc    pas MCMC appliqués à chaque copie de particule
+     */
+    public FiltreParticulaire(int population, int pasMcmc) {
+        this.population = Math.max(1, population);
+        this.pasMcmc = Math.max(0, pasMcmc);
+        this.particules = new int[this.population][];
+    }
+
+    @Override
+    public Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+        return choisir(tirsEnvoyes, gng, naviresRestants, currentHits, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, long echeance) {
+        if (naviresRestants == null || naviresRestants.isEmpty()) {
+            return new Uniform().choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        if (!mettreAJour(tirsEnvoyes, gng.getTaille(), naviresRestants, currentHits, echeance)) {
+            // aucun placement compatible trouvé à temps : heatmap analytique
+            return Heuristic.tempsEcoule(echeance) ? null
+                    : repli.choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        return meilleureCase(tirsEnvoyes);
+    }
+
+    /**
+     * Les k cases les plus occupées dans la population. Les cases d'une
+     * salve ne sont pas marquées comme tirées ici : elles le seront à l'appel
+     * suivant, avec leur résultat.
+     */
+    @Override
+    public List<Coordonnee> choisirK(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, int k, long echeance) {
+        if (naviresRestants == null || naviresRestants.isEmpty()) {
+            return new Uniform().choisirK(tirsEnvoyes, gng, naviresRestants, currentHits, k, echeance);
+        }
+        if (!mettreAJour(tirsEnvoyes, gng.getTaille(), naviresRestants, currentHits, echeance)) {
+            return Heuristic.tempsEcoule(echeance) ? new ArrayList<>()
+                    : repli.choisirK(tirsEnvoyes, gng, naviresRestants, currentHits, k, echeance);
+        }
+        compter();
+        int[][] occupation = compteurs;
+        return MeilleuresCases.parmi(N, (r, c) -> occupation[r][c], tirsEnvoyes, k, rng);
+    }
+
+    /** Nombre de particules de la population où chaque case non tirée est occupée. */
+    @Override
+    public double[][] carte(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+        if (naviresRestants == null || naviresRestants.isEmpty()) {
+            return new Uniform().carte(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        if (!mettreAJour(tirsEnvoyes, gng.getTaille(), naviresRestants, currentHits, Long.MAX_VALUE)) {
+            return repli.carte(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        compter();
+        double[][] carte = new double[N][N];
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (!tirsEnvoyes[r][c]) carte[r][c] = compteurs[r][c];
+            }
+        }
+        return carte;
+    }
+
+    /** Intègre les nouvelles observations puis comble la population ; faux si elle reste vide. */
+    private boolean mettreAJour(boolean[][] tirsEnvoyes, int taille, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, long echeance) {
+        List<Coordonnee> hits = (currentHits != null) ? currentHits : List.of();
+        if (nouvellePartie(taille, tirsEnvoyes, naviresRestants)) demarrer(taille, naviresRestants);
+        integrer(tirsEnvoyes, naviresRestants, hits);
+        completer(echeance);
+        return nbParticules > 0;
+    }
+
+    @Override
+    public void reinitialiser(long graine) {
+        rng.setSeed(graine);
+        repli.reinitialiser(graine ^ 0x5DEECE66DL);
+        N = -1;
+        nbParticules = 0;
+    }
+
+    /** Nombre de particules actuellement en population. */
+    public int getNbParticules() {
+        return nbParticules;
+    }
+
+    /** Nombre de particules éliminées (puis remplacées) lors du dernier appel. */
+    public int getDernieresInvalidees() {
+        return dernieresInvalidees;
+    }
+
+    /* ===================== Suivi des observations ===================== */
+
+    private boolean nouvellePartie(int taille, boolean[][] tirsEnvoyes, List<Integer> naviresRestants) {
+        if (taille != N) return true;
+        if (naviresRestants.size() > flotteConnue.size()) return true;
+        // une case vue comme tirée ne peut pas redevenir libre dans une même partie
+        for (int r = 0; r < N; r++)
+            for (int c = 0; c < N; c++)
+                if (vus[r][c] && !tirsEnvoyes[r][c]) return true;
+        return false;
+    }
+
+    private void demarrer(int taille, List<Integer> naviresRestants) {
+        if (taille != N) {
+            vus = new boolean[taille][taille];
+            bloquees = new boolean[taille][taille];
+            touches = new boolean[taille][taille];
+            compteurs = new int[taille][taille];
+            positions = new int[2 * taille * taille];
+            geo = new GeometrieFlotte(taille);
+        } else {
+            for (int r = 0; r < taille; r++) {
+                Arrays.fill(vus[r], false);
+                Arrays.fill(bloquees[r], false);
+                Arrays.fill(touches[r], false);
+            }
+        }
+        N = taille;
+        touchesConnues.clear();
+        flotteConnue.clear();
+        flotteConnue.addAll(naviresRestants);
+        nbNavires = flotteConnue.size();
+        nbParticules = 0;
+    }
+
+    /**
+     * Intègre les observations apparues depuis l'appel précédent et élimine
+     * les particules qu'elles contredisent.
+     */
+    private void integrer(boolean[][] tirsEnvoyes, List<Integer> naviresRestants, List<Coordonnee> hits) {
+        // navires coulés : longueurs disparues de la flotte ; les touches
+        // sorties de la liste deviennent des cases interdites aux navires
+        // encore à flot
+        List<Integer> coules = new ArrayList<>(flotteConnue);
+        for (Integer L : naviresRestants) coules.remove(L);
+        List<Coordonnee> nouvellesTouches = new ArrayList<>();
+        List<Coordonnee> nouvellesBloquees = new ArrayList<>();
+        for (Coordonnee h : touchesConnues) {
+            if (!hits.contains(h)) {
+                touches[h.getLigne()][h.getColonne()] = false;
+                bloquees[h.getLigne()][h.getColonne()] = true;
+                nouvellesBloquees.add(h);
+            }
+        }
+        // nouvelles cases tirées : touche en cours ou case désormais interdite
+        for (Coordonnee h : hits) {
+            if (!touches[h.getLigne()][h.getColonne()]) {
+                touches[h.getLigne()][h.getColonne()] = true;
+                bloquees[h.getLigne()][h.getColonne()] = false;
+                nouvellesTouches.add(h);
+            }
+        }
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (tirsEnvoyes[r][c] && !vus[r][c]) {
+                    vus[r][c] = true;
+                    if (!touches[r][c]) {
+                        bloquees[r][c] = true;
+                        nouvellesBloquees.add(new Coordonnee(r, c));
+                    }
+                }
+            }
+        }
+        touchesConnues.clear();
+        touchesConnues.addAll(hits);
+        flotteConnue.clear();
+        flotteConnue.addAll(naviresRestants);
+        nbNavires = flotteConnue.size();
+
+        dernieresInvalidees = 0;
+        if (coules.isEmpty() && nouvellesTouches.isEmpty() && nouvellesBloquees.isEmpty()) return;
+
+        // filtrage : compacter les survivantes en tête de population
+        int survivantes = 0;
+        for (int p = 0; p < nbParticules; p++) {
+            int[] part = particules[p];
+            int[] reste = retirerCoules(part, coules, tirsEnvoyes);
+            if (reste == null || !compatible(reste, nouvellesTouches, nouvellesBloquees)) continue;
+            particules[survivantes++] = reste;
+        }
+        dernieresInvalidees = nbParticules - survivantes;
+        nbParticules = survivantes;
+    }
+
+    /**
+     * Retire de la particule les navires coulés : pour chaque longueur
+     * disparue, un navire de cette longueur dont toutes les cases ont été
+     * tirées sans être des touches en cours (il a pu être coulé entre deux
+     * appels, sans que ses touches ne soient jamais vues ici). Retourne null
+     * si la particule n'explique pas le naufrage.
+     *
+     * Avec plusieurs navires de même longueur, le navire retiré peut ne pas
+     * être celui qui a coulé ; le navire coulé reste alors dans la particule
+     * sur des cases interdites (anciennes touches ou nouveaux tirs hors
+     * touches) et {@link #compatible} l'élimine.
+     */
+    private int[] retirerCoules(int[] part, List<Integer> coules, boolean[][] tirsEnvoyes) {
+        if (coules.isEmpty()) return part;
+        int[] reste = part.clone();
+        int n = reste.length;
+        for (int L : coules) {
+            int trouve = -1;
+            for (int i = 0; i < n && trouve < 0; i++) {
+                if (geo.longueur(reste[i]) == L && estCoule(reste[i], tirsEnvoyes)) trouve = i;
+            }
+            if (trouve < 0) return null;
+            reste[trouve] = reste[--n];
+        }
+        return Arrays.copyOf(reste, n);
+    }
+
+    private boolean estCoule(int nav, boolean[][] tirsEnvoyes) {
+        int r0 = geo.ligne(nav), c0 = geo.colonne(nav), L = geo.longueur(nav);
+        boolean v = geo.vertical(nav);
+        for (int k = 0; k < L; k++) {
+            int r = v ? r0 + k : r0, c = v ? c0 : c0 + k;
+            if (!tirsEnvoyes[r][c] || touches[r][c]) return false;
+        }
+        return true;
+    }
+
+    private boolean compatible(int[] part, List<Coordonnee> nouvellesTouches, List<Coordonnee> nouvellesBloquees) {
+        for (Coordonnee b : nouvellesBloquees) {
+            for (int nav : part) if (geo.couvre(nav, b.getLigne(), b.getColonne())) return false;
+        }
+        for (Coordonnee h : nouvellesTouches) {
+            boolean ok = false;
+            for (int nav : part) if (geo.couvre(nav, h.getLigne(), h.getColonne())) { ok = true; break; }
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    /* ===================== Régénération ===================== */
+
+    /**
+     * Comble la population : copies de survivantes rajeunies par des pas
+     * MCMC, ou tirages neufs s'il n'y a aucune survivante.
+     */
+    private void completer(long echeance) {
+        int survivantes = nbParticules;
+        // sans survivante, une amorce de tirages neufs suffit : la suite est
+        // obtenue par pas MCMC, bien moins coûteux qu'un tirage par rejet
+        int amorce = Math.max(1, population / 10);
+        int echecs = 0;
+        while (nbParticules < population && !Heuristic.tempsEcoule(echeance)) {
+            int[] nouvelle;
+            if (survivantes > 0) {
+                nouvelle = particules[rng.nextInt(survivantes)].clone();
+                for (int k = 0; k < pasMcmc; k++) deplacer(nouvelle);
+            } else {
+                nouvelle = tirer();
+                if (nouvelle == null) {
+                    if (++echecs < ESSAIS_PAR_TIRAGE) continue;
+                    if (nbParticules == 0) break; // aucun placement compatible trouvé
+                    survivantes = nbParticules;
+                    continue;
+                }
+            }
+            particules[nbParticules++] = nouvelle;
+            if (survivantes == 0 && nbParticules >= amorce) survivantes = nbParticules;
+        }
+    }
+
+    /**
+     * Pas de Gibbs : le navire i est retiré puis replacé uniformément parmi
+     * les positions compatibles avec les autres navires et les observations.
+     */
+    private void deplacer(int[] part) {
+        if (part.length == 0) return;
+        int i = rng.nextInt(part.length);
+        int L = geo.longueur(part[i]);
+        int n = 0;
+        for (int v = 0; v < 2; v++) {
+            boolean vertical = v == 1;
+            for (int r = 0; r + (vertical ? L - 1 : 0) < N; r++) {
+                for (int c = 0; c + (vertical ? 0 : L - 1) < N; c++) {
+                    int nav = geo.coder(r, c, vertical, L);
+                    if (geo.positionLibre(nav, part, part.length, i, bloquees) && touchesCouvertes(part, i, nav)) positions[n++] = nav;
+                }
+            }
+        }
+        // la position actuelle est toujours compatible : n >= 1
+        if (n > 0) part[i] = positions[rng.nextInt(n)];
+    }
+
+    /** Tirage neuf par placements successifs aléatoires, rejeté s'il ne couvre pas toutes les touches. */
+    private int[] tirer() {
+        int[] part = new int[nbNavires];
+        int[] ordre = new int[nbNavires];
+        for (int i = 0; i < nbNavires; i++) ordre[i] = flotteConnue.get(i);
+        for (int i = nbNavires - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int t = ordre[i]; ordre[i] = ordre[j]; ordre[j] = t;
+        }
+        for (int k = 0; k < nbNavires; k++) {
+            int L = ordre[k];
+            int n = 0;
+            for (int v = 0; v < 2; v++) {
+                boolean vertical = v == 1;
+                for (int r = 0; r + (vertical ? L - 1 : 0) < N; r++) {
+                    for (int c = 0; c + (vertical ? 0 : L - 1) < N; c++) {
+                        int nav = geo.coder(r, c, vertical, L);
+                        if (geo.positionLibre(nav, part, k, -1, bloquees)) positions[n++] = nav;
+                    }
+                }
+            }
+            if (n == 0) return null;
+            part[k] = positions[rng.nextInt(n)];
+        }
+        for (Coordonnee h : touchesConnues) {
+            boolean ok = false;
+            for (int nav : part) if (geo.couvre(nav, h.getLigne(), h.getColonne())) { ok = true; break; }
+            if (!ok) return null;
+        }
+        return part;
+    }
+
+    /* ===================== Sélection ===================== */
+
+    private Coordonnee meilleureCase(boolean[][] tirsEnvoyes) {
+        compter();
+        int best = -1, ex = 0;
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (tirsEnvoyes[r][c]) continue;
+                int v = compteurs[r][c];
+                if (v > best) { best = v; ex = 1; } else if (v == best) ex++;
+            }
+        }
+        if (ex == 0) return null;
+        int k = rng.nextInt(ex);
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (!tirsEnvoyes[r][c] && compteurs[r][c] == best && k-- == 0) return new Coordonnee(r, c);
+            }
+        }
+        return null;
+    }
+
+    /** Occupation de chaque case dans la population. */
+    private void compter() {
+        for (int[] ligne : compteurs) Arrays.fill(ligne, 0);
+        for (int p = 0; p < nbParticules; p++) {
+            for (int nav : particules[p]) {
+                int r = geo.ligne(nav), c = geo.colonne(nav), L = geo.longueur(nav);
+                boolean vertical = geo.vertical(nav);
+                for (int k = 0; k < L; k++) {
+                    if (vertical) compteurs[r + k][c]++; else compteurs[r][c + k]++;
+                }
+            }
+        }
+    }
+
+    /** Vrai si toutes les touches restent couvertes quand le navire i est remplacé par nav. */
+    private boolean touchesCouvertes(int[] part, int i, int nav) {
+        for (Coordonnee h : touchesConnues) {
+            int r = h.getLigne(), c = h.getColonne();
+            if (geo.couvre(nav, r, c)) continue;
+            boolean ok = false;
+            for (int j = 0; j < part.length && !ok; j++) ok = j != i && geo.couvre(part[j], r, c);
+            if (!ok) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,610 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+import logique.Coordonnee;
+
+/**
+ * Solveur exact de fin de partie : quand il ne reste que peu de flottes
+ * compatibles avec les observations, il joue le coup qui minimise
+ * l'espérance du nombre de tirs restants avant la victoire, au lieu du coup
+ * le plus probable.
+ *
+ * Les flottes compatibles (navires restants hors des cases connues, sans
+ * contact entre eux, couvrant toutes les touches non coulées, aucun n'étant
+ * entièrement touché) sont énumérées, puis supposées équiprobables. Un tir
+ * partage l'ensemble courant selon la réponse qu'il recevrait : à l'eau,
+ * touché, coulé (avec les cases du navire coulé, que la partie révèle) ou
+ * fin de partie. L'espérance se calcule alors par expectimax :
+ * {@code V(S) = 1 + min_x Σ_o P(o | S, x) V(S_o)}, nulle en fin de partie.
+ *
+ * Les états sont identifiés de façon canonique par les cases tirées et
+ * l'ensemble des flottes encore possibles, et mémorisés dans une table
+ * bornée. La recherche est élaguée par la borne inférieure « nombre moyen de
+ * cases de navire non tirées », et les coups de la racine sont évalués en
+ * parallèle (fork/join) en partageant la meilleure valeur trouvée.
+ *
+ * Le solveur ne se déclenche que sous un seuil de taille d'état (nombre de
+ * flottes compatibles) ; au-delà, ou si l'échéance du coup est atteinte
+ * avant la fin du calcul, {@link #choisir} retourne {@code null} et
+ * l'appelant garde sa stratégie habituelle.
+ */
+public class FinDePartie {
+    /** Seuil par défaut du nombre de flottes compatibles. */
+    public static final int CONFIGURATIONS_MAX = 16;
+    private static final int MEMO_MAX = 500_000;
+    private static final int NOEUDS_MAX = 200_000;
+    private static final long RECHERCHE_MAX = 300_000L;
+    private static final int CASES_MAX = 64;
+
+    private static final long A_L_EAU = -1L;
+    private static final long TOUCHE = 0L;
+
+    private final int configurationsMax;
+    private final ForkJoinPool pool;
+
+    // tables de l'énumération, réutilisées d'un coup à l'autre (taille n)
+    private GeometrieFlotte geo = new GeometrieFlotte(0);
+    private boolean[][] touchee = new boolean[0][0];
+    private boolean[][] interdites = new boolean[0][0];
+    private int[] tampon = new int[0];
+
+    // statistiques cumulées
+    private long appels = 0;
+    private long declenchements = 0;
+    private long nanosResolution = 0;
+
+    public FinDePartie() {
+        this(CONFIGURATIONS_MAX);
+    }
+
+    /**
+     * @param configurationsMax nombre maximal de flottes compatibles pour
+     *        lequel le solveur prend la main
+     */
+    public FinDePartie(int configurationsMax) {
+        if (configurationsMax < 1) {
+            throw new IllegalArgumentException("Seuil invalide : " + configurationsMax);
+        }
+        this.configurationsMax = configurationsMax;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    public int getConfigurationsMax() {
+        return configurationsMax;
+    }
+
+    /** Nombre de coups soumis au solveur. */
+    public long getAppels() {
+        return appels;
+    }
+
+    /** Nombre de coups effectivement joués par le solveur. */
+    public long getDeclenchements() {
+        return declenchements;
+    }
+
+    /** Temps moyen d'une résolution aboutie, en millisecondes. */
+    public double getTempsMoyenMillis() {
+        return declenchements == 0 ? 0.0 : nanosResolution / 1e6 / declenchements;
+    }
+
+    /**
+     * Coup optimal si l'état est assez petit pour être résolu avant
+     * l'échéance.
+     *
+     * @param connues cases tirées ou connues comme eau (touches comprises)
+     * @param naviresRestants longueurs des navires non coulés
+     * @param touches touches n'appartenant à aucun navire coulé
+     * @param echeance instant limite ({@link System#nanoTime()}),
+     *        {@link Long#MAX_VALUE} si aucun
+     * @return la case à tirer, ou {@code null} si le solveur ne prend pas la main
+     */
+    public Coordonnee choisir(boolean[][] connues, List<Integer> naviresRestants, List<Coordonnee> touches,
+            long echeance) {
+        appels++;
+        if (naviresRestants == null || naviresRestants.isEmpty()) return null;
+        long debut = System.nanoTime();
+        List<int[]> flottes = enumerer(connues, naviresRestants, touches);
+        if (flottes == null || flottes.isEmpty()) return null;
+
+        Resolution res = new Resolution(connues.length, flottes, touches, echeance);
+        if (!res.indexer()) return null;
+        int coup = res.resoudre();
+        if (coup < 0) return null;
+        declenchements++;
+        nanosResolution += System.nanoTime() - debut;
+        int cell = res.cases[coup];
+        return new Coordonnee(cell / connues.length, cell % connues.length);
+    }
+
+    /* ===================== Énumération des flottes ===================== */
+
+    /**
+     * Toutes les flottes compatibles, ou {@code null} s'il y en a plus que le
+     * seuil (ou si la recherche est trop longue pour le dire).
+     */
+    private List<int[]> enumerer(boolean[][] connues, List<Integer> naviresRestants, List<Coordonnee> touches) {
+        int n = connues.length;
+        if (geo.N != n) {
+            geo = new GeometrieFlotte(n);
+            touchee = new boolean[n][n];
+            interdites = new boolean[n][n];
+            tampon = new int[2 * n * n];
+        }
+        for (int r = 0; r < n; r++) Arrays.fill(touchee[r], false);
+        for (Coordonnee h : touches) touchee[h.getLigne()][h.getColonne()] = true;
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) interdites[r][c] = connues[r][c] && !touchee[r][c];
+        }
+
+        // longueurs par ordre décroissant
+        int[] longueurs = new int[naviresRestants.size()];
+        for (int i = 0; i < longueurs.length; i++) longueurs[i] = naviresRestants.get(i);
+        Arrays.sort(longueurs);
+        int maxL = longueurs[longueurs.length - 1];
+        for (int i = 0, j = longueurs.length - 1; i < j; i++, j--) {
+            int t = longueurs[i];
+            longueurs[i] = longueurs[j];
+            longueurs[j] = t;
+        }
+
+        // positions admissibles par longueur : hors cases interdites, pas
+        // entièrement sur des touches (le navire aurait été annoncé coulé)
+        int[][] positions = new int[maxL + 1][];
+        for (int L : longueurs) {
+            if (positions[L] != null) continue;
+            int nb = 0;
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) {
+                    for (int v = 0; v < 2; v++) {
+                        boolean vertical = v == 1;
+                        if (L == 1 && vertical) continue;
+                        if (!geo.dansGrille(r, c, vertical, L)) continue;
+                        int nav = geo.coder(r, c, vertical, L);
+                        if (geo.surCaseInterdite(nav, interdites)) continue;
+                        boolean libre = false;
+                        for (int k = 0; k < L && !libre; k++) {
+                            libre = vertical ? !touchee[r + k][c] : !touchee[r][c + k];
+                        }
+                        if (libre) tampon[nb++] = nav;
+                    }
+                }
+            }
+            positions[L] = Arrays.copyOf(tampon, nb);
+        }
+
+        Enumeration e = new Enumeration(geo, longueurs, positions, touches);
+        e.parcourir(0, 0);
+        return e.debordement ? null : e.flottes;
+    }
+
+    /**
+     * Recherche en profondeur des flottes. Tant qu'une touche n'est couverte
+     * par aucun navire placé, le navire suivant doit la couvrir (la première
+     * dans l'ordre des touches) : chaque flotte n'est produite qu'une fois et
+     * les branches sans issue sont coupées tôt. Les navires restants sont
+     * ensuite placés par longueur décroissante, dans l'ordre des positions
+     * pour ceux de même longueur.
+     */
+    private final class Enumeration {
+        final GeometrieFlotte geo;
+        final int[] longueurs;
+        final int[][] positions;      // positions admissibles par longueur
+        final List<Coordonnee> touches;
+        final boolean[] places;
+        final int[] flotte;
+        final List<int[]> flottes = new ArrayList<>();
+        int noeuds = 0;
+        boolean debordement = false;
+
+        Enumeration(GeometrieFlotte geo, int[] longueurs, int[][] positions, List<Coordonnee> touches) {
+            this.geo = geo;
+            this.longueurs = longueurs;
+            this.positions = positions;
+            this.touches = touches;
+            this.places = new boolean[longueurs.length];
+            this.flotte = new int[longueurs.length];
+        }
+
+        /**
+         * Place le navire suivant, {@code n} navires étant déjà placés ;
+         * {@code debut} est la position minimale d'un navire libre de même
+         * longueur que le précédent.
+         */
+        void parcourir(int n, int debut) {
+            if (debordement) return;
+            if (++noeuds > NOEUDS_MAX) {
+                debordement = true;
+                return;
+            }
+            if (n == longueurs.length) {
+                if (flottes.size() >= configurationsMax) {
+                    debordement = true;
+                    return;
+                }
+                flottes.add(flotte.clone());
+                return;
+            }
+            Coordonnee h = toucheLibre(n);
+            if (h != null) {
+                for (int i = 0; i < longueurs.length && !debordement; i++) {
+                    // une seule branche par longueur distincte
+                    if (places[i] || (i > 0 && longueurs[i] == longueurs[i - 1] && !places[i - 1])) continue;
+                    for (int nav : positions[longueurs[i]]) {
+                        if (!geo.couvre(nav, h.getLigne(), h.getColonne()) || !libre(nav, n)) continue;
+                        poser(i, nav, n, 0);
+                        if (debordement) break;
+                    }
+                }
+                return;
+            }
+            int i = 0;
+            while (places[i]) i++;
+            int[] pos = positions[longueurs[i]];
+            int depart = (n > 0 && geo.longueur(flotte[n - 1]) == longueurs[i]) ? debut : 0;
+            for (int p = depart; p < pos.length && !debordement; p++) {
+                if (libre(pos[p], n)) poser(i, pos[p], n, p + 1);
+            }
+        }
+
+        private void poser(int i, int nav, int n, int suivant) {
+            places[i] = true;
+            flotte[n] = nav;
+            parcourir(n + 1, suivant);
+            places[i] = false;
+        }
+
+        private boolean libre(int nav, int n) {
+            for (int j = 0; j < n; j++) if (geo.conflit(nav, flotte[j])) return false;
+            return true;
+        }
+
+        /** Première touche qu'aucun des n navires placés ne couvre. */
+        private Coordonnee toucheLibre(int n) {
+            for (Coordonnee h : touches) {
+                boolean couverte = false;
+                for (int j = 0; j < n && !couverte; j++) couverte = geo.couvre(flotte[j], h.getLigne(), h.getColonne());
+                if (!couverte) return h;
+            }
+            return null;
+        }
+    }
+
+    /* ===================== Expectimax ===================== */
+
+    /** État de recherche canonique : cases tirées et flottes encore possibles. */
+    private static final class Etat {
+        final long tirs;
+        final long[] flottes;
+        final int hash;
+
+        Etat(long tirs, long[] flottes) {
+            this.tirs = tirs;
+            this.flottes = flottes;
+            this.hash = 31 * Long.hashCode(tirs) + Arrays.hashCode(flottes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Etat)) return false;
+            Etat e = (Etat) o;
+            return tirs == e.tirs && Arrays.equals(flottes, e.flottes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** Une résolution : flottes codées en masques sur les cases utiles. */
+    private final class Resolution {
+        final int n;
+        final List<int[]> flottesGrille;
+        final List<Coordonnee> touches;
+        final long echeance;
+        final Map<Etat, Double> memo = new ConcurrentHashMap<>();      // valeurs exactes
+        final Map<Etat, Double> minorants = new ConcurrentHashMap<>(); // bornes inférieures
+        final AtomicLong noeuds = new AtomicLong();
+        volatile boolean interrompu = false;
+
+        int[] cases;          // indice local -> case de la grille (r * n + c)
+        long[][] navires;     // navires[f][i] : masque du navire i de la flotte f
+        long[] occupees;      // occupees[f] : réunion des navires de la flotte f
+        long tirsInitiaux;
+
+        Resolution(int n, List<int[]> flottes, List<Coordonnee> touches, long echeance) {
+            this.n = n;
+            this.flottesGrille = flottes;
+            this.touches = touches;
+            this.echeance = echeance;
+        }
+
+        /** Numérote les cases couvertes par au moins une flotte ; faux s'il y en a trop. */
+        boolean indexer() {
+            GeometrieFlotte geo = new GeometrieFlotte(n);
+            int[] local = new int[n * n];
+            Arrays.fill(local, -1);
+            List<Integer> liste = new ArrayList<>();
+            for (int[] f : flottesGrille) {
+                for (int nav : f) {
+                    int r0 = geo.ligne(nav), c0 = geo.colonne(nav);
+                    for (int k = 0; k < geo.longueur(nav); k++) {
+                        int cell = geo.vertical(nav) ? (r0 + k) * n + c0 : r0 * n + c0 + k;
+                        if (local[cell] < 0) {
+                            if (liste.size() == CASES_MAX) return false;
+                            local[cell] = liste.size();
+                            liste.add(cell);
+                        }
+                    }
+                }
+            }
+            cases = liste.stream().mapToInt(Integer::intValue).toArray();
+            int nf = flottesGrille.size();
+            navires = new long[nf][];
+            occupees = new long[nf];
+            for (int f = 0; f < nf; f++) {
+                int[] flotte = flottesGrille.get(f);
+                navires[f] = new long[flotte.length];
+                for (int i = 0; i < flotte.length; i++) {
+                    int nav = flotte[i];
+                    int r0 = geo.ligne(nav), c0 = geo.colonne(nav);
+                    long m = 0L;
+                    for (int k = 0; k < geo.longueur(nav); k++) {
+                        int cell = geo.vertical(nav) ? (r0 + k) * n + c0 : r0 * n + c0 + k;
+                        m |= 1L << local[cell];
+                    }
+                    navires[f][i] = m;
+                    occupees[f] |= m;
+                }
+            }
+            tirsInitiaux = 0L;
+            for (Coordonnee h : touches) {
+                int l = local[h.getLigne() * n + h.getColonne()];
+                if (l >= 0) tirsInitiaux |= 1L << l;
+            }
+            return true;
+        }
+
+        /** Indice local du meilleur coup, ou -1 si le calcul a été interrompu. */
+        int resoudre() {
+            int nf = occupees.length;
+            int[] toutes = new int[nf];
+            for (int f = 0; f < nf; f++) toutes[f] = f;
+            long sures = certaines(tirsInitiaux, toutes);
+            if (sures != 0) return Long.numberOfTrailingZeros(sures);
+            long candidats = 0L;
+            for (long occ : occupees) candidats |= occ;
+            candidats &= ~tirsInitiaux;
+
+            DoubleAccumulator meilleure = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+            List<Coup> coups = new ArrayList<>();
+            for (long m = candidats; m != 0; m &= m - 1) {
+                coups.add(new Coup(Long.numberOfTrailingZeros(m), toutes, meilleure));
+            }
+            // les cases les plus souvent occupées d'abord : bonnes bornes tôt
+            coups.sort((a, b) -> Integer.compare(occupation(b.x, toutes), occupation(a.x, toutes)));
+            pool.invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    invokeAll(coups);
+                    return null;
+                }
+            });
+            if (interrompu) return -1;
+            int best = -1;
+            double v = Double.POSITIVE_INFINITY;
+            for (Coup c : coups) {
+                double cv = c.join();
+                if (cv < v) {
+                    v = cv;
+                    best = c.x;
+                }
+            }
+            return best;
+        }
+
+        /** Évaluation d'un coup de la racine, élaguée par la meilleure valeur partagée. */
+        private final class Coup extends RecursiveTask<Double> {
+            private static final long serialVersionUID = 1L;
+
+            final int x;
+            final int[] ensemble;
+            final DoubleAccumulator meilleure;
+
+            Coup(int x, int[] ensemble, DoubleAccumulator meilleure) {
+                this.x = x;
+                this.ensemble = ensemble;
+                this.meilleure = meilleure;
+            }
+
+            @Override
+            protected Double compute() {
+                // borne stricte : un ex aequo reste exact, le choix ne dépend
+                // donc pas de l'ordre d'exécution des tâches
+                double borne = Math.nextUp(meilleure.get());
+                double v = valeurCoup(tirsInitiaux, ensemble, x, borne);
+                if (v >= borne) return Double.POSITIVE_INFINITY; // élagué : pas meilleur
+                meilleure.accumulate(v);
+                return v;
+            }
+        }
+
+        /** Cases non tirées occupées dans toutes les flottes de l'ensemble. */
+        private long certaines(long tirs, int[] ensemble) {
+            long m = ~tirs;
+            for (int f : ensemble) m &= occupees[f];
+            return m;
+        }
+
+        private int occupation(int x, int[] ensemble) {
+            int k = 0;
+            for (int f : ensemble) if ((occupees[f] >>> x & 1L) != 0) k++;
+            return k;
+        }
+
+        /** Borne inférieure : nombre moyen de cases de navire non tirées. */
+        private double borneInf(long tirs, int[] ensemble) {
+            long s = 0;
+            for (int f : ensemble) s += Long.bitCount(occupees[f] & ~tirs);
+            return s / (double) ensemble.length;
+        }
+
+        /**
+         * Espérance des tirs restants dans l'état (tirs, ensemble). Exacte si
+         * elle est inférieure à {@code borne} ; sinon, une valeur au moins
+         * égale à {@code borne}.
+         */
+        private double valeur(long tirs, int[] ensemble, double borne) {
+            if (interrompu) return Double.POSITIVE_INFINITY;
+            if (noeuds.incrementAndGet() > RECHERCHE_MAX || Heuristic.tempsEcoule(echeance)) {
+                interrompu = true;
+                return Double.POSITIVE_INFINITY;
+            }
+            // seules comptent les cases tirées qu'une flotte possible occupe
+            long union = 0L;
+            for (int f : ensemble) union |= occupees[f];
+            Etat etat = new Etat(tirs & union, appartenance(ensemble));
+            Double connue = memo.get(etat);
+            if (connue != null) return connue;
+            double inf = borneInf(tirs, ensemble);
+            Double minorant = minorants.get(etat);
+            if (minorant != null && minorant > inf) inf = minorant;
+            if (inf >= borne) return inf;
+
+            double meilleure = Double.POSITIVE_INFINITY;
+            long certaines = certaines(tirs, ensemble);
+            if (certaines != 0) {
+                // une case occupée dans toutes les flottes sera tirée de toute
+                // façon : la tirer tout de suite ne coûte rien et informe plus tôt
+                meilleure = valeurCoup(tirs, ensemble, Long.numberOfTrailingZeros(certaines), borne);
+            } else {
+                int[] ordre = ordonner(union & ~tirs, ensemble);
+                // sans case certaine, le premier tir manque au moins avec
+                // probabilité 1 - max p(x)
+                inf += 1.0 - occupation(ordre[0], ensemble) / (double) ensemble.length;
+                if (inf >= borne) {
+                    meilleure = inf;
+                } else {
+                    for (int x : ordre) {
+                        double v = valeurCoup(tirs, ensemble, x, Math.min(meilleure, borne));
+                        if (v < meilleure) meilleure = v;
+                    }
+                }
+            }
+            if (!interrompu && memo.size() + minorants.size() < MEMO_MAX) {
+                // sous la borne la valeur est exacte, sinon c'est un minorant
+                if (meilleure < borne) memo.put(etat, meilleure);
+                else minorants.merge(etat, meilleure, Math::max);
+            }
+            return meilleure;
+        }
+
+        /** 1 + espérance après le tir x ; élaguée dès qu'elle atteint {@code borne}. */
+        private double valeurCoup(long tirs, int[] ensemble, int x, double borne) {
+            long apres = tirs | (1L << x);
+            List<int[]> issues = partager(apres, ensemble, x);
+            int total = ensemble.length;
+            // somme des bornes inférieures des issues non encore évaluées
+            double reste = 0.0;
+            double[] bornes = new double[issues.size()];
+            for (int o = 0; o < issues.size(); o++) {
+                int[] s = issues.get(o);
+                bornes[o] = (s.length / (double) total) * borneInf(apres, s);
+                reste += bornes[o];
+            }
+            double acc = 1.0;
+            if (acc + reste >= borne) return Math.max(borne, acc + reste);
+            for (int o = 0; o < issues.size(); o++) {
+                int[] s = issues.get(o);
+                reste -= bornes[o];
+                double p = s.length / (double) total;
+                double v = valeur(apres, s, (borne - acc - reste) / p);
+                acc += p * v;
+                if (acc + reste >= borne) return Math.max(borne, acc + reste);
+            }
+            return acc;
+        }
+
+        /**
+         * Partage l'ensemble selon la réponse au tir x : à l'eau, touché, ou
+         * coulé (une issue par navire coulé possible). Les flottes pour
+         * lesquelles le tir termine la partie sont omises : leur valeur est nulle.
+         */
+        private List<int[]> partager(long apres, int[] ensemble, int x) {
+            // peu d'issues distinctes : recherche linéaire des clés
+            long[] cles = new long[ensemble.length];
+            int[] issue = new int[ensemble.length];
+            int[] tailles = new int[ensemble.length];
+            int nIssues = 0;
+            for (int k = 0; k < ensemble.length; k++) {
+                int f = ensemble[k];
+                long cle;
+                if ((occupees[f] >>> x & 1L) == 0) {
+                    cle = A_L_EAU;
+                } else if ((occupees[f] & ~apres) == 0) {
+                    issue[k] = -1;
+                    continue;
+                } else {
+                    cle = TOUCHE;
+                    for (long nav : navires[f]) {
+                        if ((nav >>> x & 1L) != 0 && (nav & ~apres) == 0) cle = nav;
+                    }
+                }
+                int o = 0;
+                while (o < nIssues && cles[o] != cle) o++;
+                if (o == nIssues) cles[nIssues++] = cle;
+                issue[k] = o;
+                tailles[o]++;
+            }
+            List<int[]> issues = new ArrayList<>(nIssues);
+            for (int o = 0; o < nIssues; o++) issues.add(new int[tailles[o]]);
+            int[] remplis = new int[nIssues];
+            for (int k = 0; k < ensemble.length; k++) {
+                int o = issue[k];
+                if (o >= 0) issues.get(o)[remplis[o]++] = ensemble[k];
+            }
+            return issues;
+        }
+
+        private int[] ordonner(long candidats, int[] ensemble) {
+            int nc = Long.bitCount(candidats);
+            int[] xs = new int[nc];
+            int[] occ = new int[nc];
+            int i = 0;
+            for (long m = candidats; m != 0; m &= m - 1) {
+                int x = Long.numberOfTrailingZeros(m);
+                xs[i] = x;
+                occ[i] = occupation(x, ensemble);
+                i++;
+            }
+            // tri par insertion, occupation décroissante (nc <= 64)
+            for (int a = 1; a < nc; a++) {
+                int kx = xs[a], ko = occ[a], b = a - 1;
+                while (b >= 0 && occ[b] < ko) {
+                    xs[b + 1] = xs[b];
+                    occ[b + 1] = occ[b];
+                    b--;
+                }
+                xs[b + 1] = kx;
+                occ[b + 1] = ko;
+            }
+            return xs;
+        }
+
+        private long[] appartenance(int[] ensemble) {
+            long[] bits = new long[(occupees.length + 63) >>> 6];
+            for (int f : ensemble) bits[f >>> 6] |= 1L << (f & 63);
+            return bits;
+        }
+    }
+}
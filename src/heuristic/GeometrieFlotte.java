@@ -0,0 +1,73 @@
+package heuristic;
+
+/**
+ * Géométrie des placements de navires sur une grille N x N, partagée par
+ * les heuristiques par échantillonnage. Un navire est codé dans un
+ * {@code int} : {@code ((ligne * N + colonne) * 2 + vertical) * 64 + longueur},
+ * ce qui permet de stocker des flottes entières dans des tableaux primitifs.
+ * Les règles sont celles de {@code GrilleNavale.ajouteNavire} : pas de
+ * chevauchement ni de contact orthogonal entre deux navires (les diagonales
+ * sont permises).
+ */
+final class GeometrieFlotte {
+    final int N;
+
+    GeometrieFlotte(int taille) {
+        this.N = taille;
+    }
+
+    int coder(int r, int c, boolean vertical, int L) {
+        return ((r * N + c) * 2 + (vertical ? 1 : 0)) * 64 + L;
+    }
+
+    int longueur(int nav) { return nav & 63; }
+    boolean vertical(int nav) { return ((nav >> 6) & 1) == 1; }
+    int ligne(int nav) { return (nav >> 7) / N; }
+    int colonne(int nav) { return (nav >> 7) % N; }
+
+    /** Vrai si le placement (r, c, orientation, L) tient dans la grille. */
+    boolean dansGrille(int r, int c, boolean vertical, int L) {
+        if (r < 0 || c < 0 || r >= N || c >= N) return false;
+        return vertical ? r + L <= N : c + L <= N;
+    }
+
+    boolean couvre(int nav, int r, int c) {
+        int r0 = ligne(nav), c0 = colonne(nav), L = longueur(nav);
+        return vertical(nav) ? (c == c0 && r >= r0 && r < r0 + L) : (r == r0 && c >= c0 && c < c0 + L);
+    }
+
+    /** Vrai si le navire passe par une case interdite. */
+    boolean surCaseInterdite(int nav, boolean[][] interdites) {
+        int r0 = ligne(nav), c0 = colonne(nav), L = longueur(nav);
+        boolean v = vertical(nav);
+        for (int k = 0; k < L; k++) {
+            if (v ? interdites[r0 + k][c0] : interdites[r0][c0 + k]) return true;
+        }
+        return false;
+    }
+
+    /** Chevauchement ou contact orthogonal entre deux navires. */
+    boolean conflit(int a, int b) {
+        int ar0 = ligne(a), ac0 = colonne(a), ar1 = ar0, ac1 = ac0;
+        if (vertical(a)) ar1 += longueur(a) - 1; else ac1 += longueur(a) - 1;
+        int br0 = ligne(b), bc0 = colonne(b), br1 = br0, bc1 = bc0;
+        if (vertical(b)) br1 += longueur(b) - 1; else bc1 += longueur(b) - 1;
+        boolean lignes = ar0 <= br1 && ar1 >= br0;
+        boolean colonnes = ac0 <= bc1 && ac1 >= bc0;
+        boolean lignesElargies = ar0 - 1 <= br1 && ar1 + 1 >= br0;
+        boolean colonnesElargies = ac0 - 1 <= bc1 && ac1 + 1 >= bc0;
+        return (lignes && colonnesElargies) || (colonnes && lignesElargies);
+    }
+
+    /**
+     * Position hors des cases interdites et sans conflit avec les navires
+     * {@code flotte[0..fin)}, hormis celui d'indice {@code ignore}.
+     */
+    boolean positionLibre(int nav, int[] flotte, int fin, int ignore, boolean[][] interdites) {
+        if (surCaseInterdite(nav, interdites)) return false;
+        for (int j = 0; j < fin; j++) {
+            if (j != ignore && conflit(nav, flotte[j])) return false;
+        }
+        return true;
+    }
+}
@@ -1,5 +1,6 @@
 package heuristic;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import interfacegraphique.GrilleNavaleGraphique;
@@ -20,4 +21,89 @@ public interface Heuristic {
          */
         Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
             List<Coordonnee> currentHits);
+
+        /**
+         * Variante bornée dans le temps : l'heuristique doit rendre la main
+         * au plus tard à {@code echeance} (au sens de {@link System#nanoTime()})
+         * ou lorsque le thread est interrompu, en retournant le meilleur coup
+         * trouvé jusque-là, ou {@code null} si elle n'a rien d'exploitable
+         * (l'appelant joue alors un coup de repli). Par défaut l'échéance est
+         * ignorée : les heuristiques rapides n'ont rien à redéfinir.
+         *
+         * @param echeance instant limite, {@link Long#MAX_VALUE} si aucun
+         */
+        default Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, long echeance) {
+                return choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+
+        /**
+         * Sélectionne les {@code k} cases d'une salve (variante à plusieurs
+         * tirs par tour), par intérêt décroissant. Les implémentations
+         * fondées sur une heatmap ou un échantillonnage la redéfinissent pour
+         * classer toutes les cases en une seule passe. Par défaut,
+         * {@link #choisir(boolean[][], GrilleNavaleGraphique, List, List, long)}
+         * est appelée {@code k} fois, chaque case choisie étant marquée comme
+         * tirée sur une copie de {@code tirsEnvoyes}.
+         *
+         * @return au plus {@code k} cases distinctes non tirées ; moins si
+         *         l'échéance est atteinte ou si la grille est pleine
+         */
+        default List<Coordonnee> choisirK(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng,
+            List<Integer> naviresRestants, List<Coordonnee> currentHits, int k, long echeance) {
+                boolean[][] tirs = new boolean[tirsEnvoyes.length][];
+                for (int r = 0; r < tirs.length; r++) tirs[r] = tirsEnvoyes[r].clone();
+                List<Coordonnee> choix = new ArrayList<>(k);
+                while (choix.size() < k && !tempsEcoule(echeance)) {
+                        Coordonnee c = choisir(tirs, gng, naviresRestants, currentHits, echeance);
+                        if (c == null || tirs[c.getLigne()][c.getColonne()]) break;
+                        tirs[c.getLigne()][c.getColonne()] = true;
+                        choix.add(c);
+                }
+                return choix;
+        }
+
+        /**
+         * Carte d'intérêt des cases : un tableau N x N de valeurs positives
+         * ou nulles, nulles sur les cases tirées, d'autant plus grandes que
+         * l'heuristique préfère la case. Les heuristiques fondées sur une
+         * heatmap ou un échantillonnage rendent la grandeur qu'elles
+         * maximisent ; par défaut la carte est déduite du classement de
+         * {@link #choisirK} sur toutes les cases libres, la i-ème case
+         * classée valant {@code (n - i) / n}.
+         */
+        default double[][] carte(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+                int N = gng.getTaille();
+                int libres = 0;
+                for (int r = 0; r < N; r++)
+                        for (int c = 0; c < N; c++)
+                                if (!tirsEnvoyes[r][c]) libres++;
+                double[][] carte = new double[N][N];
+                List<Coordonnee> classement = choisirK(tirsEnvoyes, gng, naviresRestants, currentHits, libres,
+                    Long.MAX_VALUE);
+                int n = classement.size();
+                for (int i = 0; i < n; i++) {
+                        Coordonnee c = classement.get(i);
+                        carte[c.getLigne()][c.getColonne()] = (n - i) / (double) n;
+                }
+                return carte;
+        }
+
+        /**
+         * Prépare l'heuristique pour une nouvelle partie : les générateurs
+         * aléatoires sont réensemencés et tout état propre à la partie est
+         * effacé. Par défaut rien n'est à faire.
+         */
+        default void reinitialiser(long graine) {
+        }
+
+        /**
+         * Vrai si l'échéance est passée ou si le thread courant a été
+         * interrompu.
+         */
+        static boolean tempsEcoule(long echeance) {
+                return Thread.currentThread().isInterrupted()
+                    || (echeance != Long.MAX_VALUE && System.nanoTime() - echeance >= 0);
+        }
 }
@@ -0,0 +1,539 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import interfacegraphique.GrilleNavaleGraphique;
+import logique.Coordonnee;
+
+/**
+ * Heuristique par chaîne de Markov Monte Carlo (Metropolis), destinée aux
+ * fins de partie très contraintes.
+ *
+ * Lorsque beaucoup de cases ont été tirées, {@link MonteCarlo} rejette la
+ * quasi-totalité de ses tirages et décide sur quelques dizaines
+ * d'échantillons. Ici, on part d'une flotte cohérente avec les observations
+ * (trouvée par recherche en profondeur, les touches d'abord) puis on la fait
+ * évoluer par petits pas : un navire est choisi au hasard et l'on propose de
+ * le déplacer d'une case le long de son axe, de le pivoter autour d'une de
+ * ses cases, ou de le replacer n'importe où (tirage répété tant qu'il est
+ * invalide, dans la limite de quelques dizaines d'essais). Toutes ces propositions sont
+ * symétriques ; le pas est accepté si la flotte obtenue reste valide (dans
+ * la grille, hors des cases manquées, sans contact entre navires, toutes les
+ * touches couvertes). La chaîne échantillonne ainsi uniformément les flottes
+ * compatibles, sans rejet global. Ces pas ne déplaçant qu'un navire, ils ne
+ * peuvent pas changer le navire qui couvre une touche (l'ancien ne peut pas
+ * partir, le nouveau ne peut pas le chevaucher) : à chaque balayage, deux
+ * navires sont donc en outre retirés puis replacés conjointement, uniformément
+ * parmi les paires de positions compatibles avec le reste de la flotte (pas
+ * de Gibbs par bloc), ce qui rend la chaîne irréductible.
+ *
+ * Les échantillons successifs étant corrélés, la chaîne tourne par lots
+ * jusqu'à ce que la taille d'échantillon effective (ESS, estimateur de Geyer
+ * par séquence initiale positive) de l'indicatrice « la case choisie est
+ * occupée » atteigne la cible, ou jusqu'à l'échéance du coup. La case jouée
+ * est la case non tirée la plus souvent occupée.
+ */
+public class MCMC implements Heuristic {
+    private static final int BALAYAGES_CHAUFFE = 100;
+    private static final int PREMIER_LOT = 500;
+    private static final int DECALAGE_MAX = 2 * PREMIER_LOT;
+    private static final int NOEUDS_MAX = 200_000;
+    private static final int ESSAIS_REPLACEMENT = 64;
+
+    private final Random rng = new Random();
+    private final int essCible;
+    private final int echantillonsMax;
+    private final Markov repli = new Markov();
+
+    // observations du coup en cours
+    private int N;
+    private GeometrieFlotte geo = new GeometrieFlotte(0);
+    private boolean[][] bloquees = new boolean[0][0];
+    private int[] touchesR = new int[0];
+    private int[] touchesC = new int[0];
+    private int nbTouches;
+
+    // tampons réutilisés d'un coup à l'autre
+    private int[][] compteurs = new int[0][0];
+    private int[] positionsA = new int[0];
+    private int[] positionsB = new int[0];
+    private boolean[] couvertesAutres = new boolean[0];
+    private int[] historique = new int[0];
+    private double[] serie = new double[0];
+    private int noeuds;
+
+    // statistiques du dernier appel
+    private double derniereESS;
+    private double dernierTauxAcceptation;
+    private int derniersEchantillons;
+
+    public MCMC() {
+        this(2000, 50_000);
+    }
+
+    /**
+     * @param essCible        taille d'échantillon effective visée par coup
+     * @param echantillonsMax nombre maximal d'échantillons enregistrés par coup
+     */
+    public MCMC(int essCible, int echantillonsMax) {
+        this.essCible = Math.max(1, essCible);
+        this.echantillonsMax = Math.max(PREMIER_LOT, echantillonsMax);
+    }
+
+    @Override
+    public Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+        return choisir(tirsEnvoyes, gng, naviresRestants, currentHits, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, long echeance) {
+        if (naviresRestants == null || naviresRestants.isEmpty()) {
+            return new Uniform().choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        if (!echantillonner(gng.getTaille(), tirsEnvoyes, naviresRestants, currentHits, echeance)) {
+            // aucune flotte cohérente trouvée à temps : heatmap analytique
+            return Heuristic.tempsEcoule(echeance) ? null
+                    : repli.choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        int meilleure = meilleureCase(tirsEnvoyes);
+        return meilleure < 0 ? null : new Coordonnee(meilleure / N, meilleure % N);
+    }
+
+    /** Les k cases les plus souvent occupées sur une seule exécution de la chaîne. */
+    @Override
+    public List<Coordonnee> choisirK(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, int k, long echeance) {
+        if (naviresRestants == null || naviresRestants.isEmpty()) {
+            return new Uniform().choisirK(tirsEnvoyes, gng, naviresRestants, currentHits, k, echeance);
+        }
+        if (!echantillonner(gng.getTaille(), tirsEnvoyes, naviresRestants, currentHits, echeance)) {
+            return Heuristic.tempsEcoule(echeance) ? new ArrayList<>()
+                    : repli.choisirK(tirsEnvoyes, gng, naviresRestants, currentHits, k, echeance);
+        }
+        int[][] occupation = compteurs;
+        return MeilleuresCases.parmi(N, (r, c) -> occupation[r][c], tirsEnvoyes, k, rng);
+    }
+
+    /** Nombre d'échantillons de la chaîne où chaque case non tirée est occupée. */
+    @Override
+    public double[][] carte(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+        if (naviresRestants == null || naviresRestants.isEmpty()) {
+            return new Uniform().carte(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        if (!echantillonner(gng.getTaille(), tirsEnvoyes, naviresRestants, currentHits, Long.MAX_VALUE)) {
+            return repli.carte(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        double[][] carte = new double[N][N];
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (!tirsEnvoyes[r][c]) carte[r][c] = compteurs[r][c];
+            }
+        }
+        return carte;
+    }
+
+    /**
+     * Fait tourner la chaîne et remplit {@link #compteurs}. Retourne faux si
+     * aucune flotte cohérente n'a été trouvée ou si l'échéance est atteinte
+     * avant le premier échantillon.
+     */
+    private boolean echantillonner(int taille, boolean[][] tirsEnvoyes, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, long echeance) {
+        derniereESS = 0.0;
+        dernierTauxAcceptation = 0.0;
+        derniersEchantillons = 0;
+        observer(taille, tirsEnvoyes, currentHits != null ? currentHits : List.of());
+
+        int[] flotte = flotteInitiale(naviresRestants, echeance);
+        if (flotte == null) return false;
+        int n = flotte.length;
+        for (int b = 0; b < BALAYAGES_CHAUFFE && !Heuristic.tempsEcoule(echeance); b++) {
+            for (int k = 0; k < n; k++) pas(flotte);
+            reechantillonnerPaire(flotte);
+        }
+
+        for (int[] ligne : compteurs) Arrays.fill(ligne, 0);
+        long proposes = 0, acceptes = 0;
+        int echantillons = 0;
+        int meilleure = -1;
+        while (echantillons < echantillonsMax && !Heuristic.tempsEcoule(echeance)) {
+            // lot suivant dimensionné d'après l'ESS obtenue, au plus doublé :
+            // le calcul de l'ESS, en O(échantillons x DECALAGE_MAX), reste
+            // proportionnel au coût de la chaîne
+            int lot = PREMIER_LOT;
+            if (echantillons > 0) {
+                double manquants = echantillons * (essCible / Math.max(1.0, derniereESS) - 1.0);
+                lot = (int) Math.min(echantillons, Math.max(PREMIER_LOT, 1.1 * manquants));
+            }
+            int fin = Math.min(echantillonsMax, echantillons + lot);
+            if (historique.length < fin * n) historique = Arrays.copyOf(historique, Math.max(fin * n, 2 * historique.length));
+            while (echantillons < fin && !Heuristic.tempsEcoule(echeance)) {
+                for (int k = 0; k < n; k++) {
+                    proposes++;
+                    if (pas(flotte)) acceptes++;
+                }
+                reechantillonnerPaire(flotte);
+                enregistrer(flotte, echantillons++);
+            }
+            meilleure = meilleureCase(tirsEnvoyes);
+            if (meilleure < 0) break;
+            derniereESS = tailleEffective(meilleure, echantillons, n);
+            if (derniereESS >= essCible) break;
+        }
+        derniersEchantillons = echantillons;
+        dernierTauxAcceptation = proposes > 0 ? (double) acceptes / proposes : 0.0;
+        return echantillons > 0;
+    }
+
+    @Override
+    public void reinitialiser(long graine) {
+        rng.setSeed(graine);
+        repli.reinitialiser(graine ^ 0x5DEECE66DL);
+    }
+
+    /** Taille d'échantillon effective obtenue pour la case jouée au dernier appel. */
+    public double getDerniereESS() {
+        return derniereESS;
+    }
+
+    /** Proportion de pas Metropolis acceptés au dernier appel. */
+    public double getDernierTauxAcceptation() {
+        return dernierTauxAcceptation;
+    }
+
+    /** Nombre d'échantillons (un par balayage de la flotte) enregistrés au dernier appel. */
+    public int getDerniersEchantillons() {
+        return derniersEchantillons;
+    }
+
+    /* ===================== Observations ===================== */
+
+    private void observer(int taille, boolean[][] tirsEnvoyes, List<Coordonnee> hits) {
+        if (taille != N) {
+            N = taille;
+            geo = new GeometrieFlotte(taille);
+            bloquees = new boolean[taille][taille];
+            compteurs = new int[taille][taille];
+            positionsA = new int[2 * taille * taille];
+            positionsB = new int[2 * taille * taille];
+        }
+        for (int r = 0; r < N; r++)
+            for (int c = 0; c < N; c++) bloquees[r][c] = tirsEnvoyes[r][c];
+        if (touchesR.length < hits.size()) {
+            touchesR = new int[hits.size()];
+            touchesC = new int[hits.size()];
+            couvertesAutres = new boolean[hits.size()];
+        }
+        nbTouches = 0;
+        for (Coordonnee h : hits) {
+            bloquees[h.getLigne()][h.getColonne()] = false;
+            touchesR[nbTouches] = h.getLigne();
+            touchesC[nbTouches++] = h.getColonne();
+        }
+    }
+
+    /** Vrai si toutes les touches restent couvertes quand le navire i est remplacé par nav. */
+    private boolean touchesCouvertes(int[] flotte, int fin, int i, int nav) {
+        for (int t = 0; t < nbTouches; t++) {
+            int r = touchesR[t], c = touchesC[t];
+            if (geo.couvre(nav, r, c)) continue;
+            boolean ok = false;
+            for (int j = 0; j < fin && !ok; j++) ok = j != i && geo.couvre(flotte[j], r, c);
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    /* ===================== Flotte initiale ===================== */
+
+    /**
+     * Recherche en profondeur aléatoire d'une flotte cohérente : tant qu'une
+     * touche n'est pas couverte, on essaie les navires non placés sur les
+     * positions qui la couvrent ; ensuite les navires restants sont placés
+     * n'importe où, du plus long au plus court. La recherche est bornée en
+     * nombre de nœuds ; retourne null en cas d'échec.
+     */
+    private int[] flotteInitiale(List<Integer> naviresRestants, long echeance) {
+        int n = naviresRestants.size();
+        int[] longueurs = new int[n];
+        for (int i = 0; i < n; i++) longueurs[i] = naviresRestants.get(i);
+        Arrays.sort(longueurs);
+        for (int i = 0; i < n / 2; i++) {
+            int t = longueurs[i]; longueurs[i] = longueurs[n - 1 - i]; longueurs[n - 1 - i] = t;
+        }
+        int[] flotte = new int[n];
+        noeuds = 0;
+        return placer(flotte, 0, longueurs, new boolean[n], echeance) ? flotte : null;
+    }
+
+    private boolean placer(int[] flotte, int k, int[] longueurs, boolean[] utilises, long echeance) {
+        if (++noeuds > NOEUDS_MAX || ((noeuds & 1023) == 0 && Heuristic.tempsEcoule(echeance))) return false;
+        int n = longueurs.length;
+        int libre = premiereToucheLibre(flotte, k);
+        if (k == n) return libre < 0;
+        if (libre >= 0) {
+            int r = touchesR[libre], c = touchesC[libre];
+            for (int i = 0; i < n; i++) {
+                if (utilises[i] || (i > 0 && !utilises[i - 1] && longueurs[i - 1] == longueurs[i])) continue;
+                int L = longueurs[i];
+                int[] candidats = new int[2 * L];
+                int m = 0;
+                for (int v = 0; v < 2; v++) {
+                    boolean vertical = v == 1;
+                    for (int o = 0; o < L; o++) {
+                        int r0 = vertical ? r - o : r, c0 = vertical ? c : c - o;
+                        if (!geo.dansGrille(r0, c0, vertical, L)) continue;
+                        int nav = geo.coder(r0, c0, vertical, L);
+                        if (geo.positionLibre(nav, flotte, k, -1, bloquees)) candidats[m++] = nav;
+                    }
+                }
+                if (essayer(flotte, k, longueurs, utilises, i, candidats, m, echeance)) return true;
+                if (noeuds > NOEUDS_MAX) return false;
+            }
+            return false;
+        }
+        int i = 0;
+        while (utilises[i]) i++;
+        int L = longueurs[i];
+        int[] candidats = new int[2 * N * N];
+        int m = 0;
+        for (int v = 0; v < 2; v++) {
+            boolean vertical = v == 1;
+            for (int r = 0; r + (vertical ? L - 1 : 0) < N; r++) {
+                for (int c = 0; c + (vertical ? 0 : L - 1) < N; c++) {
+                    int nav = geo.coder(r, c, vertical, L);
+                    if (geo.positionLibre(nav, flotte, k, -1, bloquees)) candidats[m++] = nav;
+                }
+            }
+        }
+        return essayer(flotte, k, longueurs, utilises, i, candidats, m, echeance);
+    }
+
+    /** Essaie les candidats dans un ordre aléatoire (Fisher-Yates paresseux). */
+    private boolean essayer(int[] flotte, int k, int[] longueurs, boolean[] utilises, int i,
+            int[] candidats, int m, long echeance) {
+        utilises[i] = true;
+        for (int restants = m; restants > 0; restants--) {
+            int j = rng.nextInt(restants);
+            int nav = candidats[j];
+            candidats[j] = candidats[restants - 1];
+            flotte[k] = nav;
+            if (placer(flotte, k + 1, longueurs, utilises, echeance)) return true;
+            if (noeuds > NOEUDS_MAX) break;
+        }
+        utilises[i] = false;
+        return false;
+    }
+
+    private int premiereToucheLibre(int[] flotte, int k) {
+        for (int t = 0; t < nbTouches; t++) {
+            boolean ok = false;
+            for (int j = 0; j < k && !ok; j++) ok = geo.couvre(flotte[j], touchesR[t], touchesC[t]);
+            if (!ok) return t;
+        }
+        return -1;
+    }
+
+    /* ===================== Chaîne ===================== */
+
+    /**
+     * Un pas de Metropolis : proposition symétrique pour un navire tiré au
+     * hasard, acceptée si la flotte reste valide (la loi cible est uniforme
+     * sur les flottes compatibles).
+     */
+    private boolean pas(int[] flotte) {
+        int n = flotte.length;
+        int i = rng.nextInt(n);
+        int nav = flotte[i];
+        int L = geo.longueur(nav), r = geo.ligne(nav), c = geo.colonne(nav);
+        boolean v = geo.vertical(nav);
+        int nr, nc;
+        boolean nv;
+        switch (rng.nextInt(3)) {
+            case 0: { // glissement d'une case le long de l'axe
+                int d = rng.nextBoolean() ? 1 : -1;
+                nr = v ? r + d : r;
+                nc = v ? c : c + d;
+                nv = v;
+                break;
+            }
+            case 1: { // rotation autour de la k-ième case du navire
+                int k = rng.nextInt(L);
+                if (v) { nr = r + k; nc = c - k; } else { nr = r - k; nc = c + k; }
+                nv = !v;
+                break;
+            }
+            default:
+                // replacement n'importe où, retenté tant qu'il est invalide : la
+                // probabilité d'échec ne dépend que des autres navires, le pas
+                // reste donc symétrique (c'est un pas de Gibbs tronqué)
+                for (int essai = 0; essai < ESSAIS_REPLACEMENT; essai++) {
+                    if (deplacer(flotte, i, rng.nextInt(N), rng.nextInt(N), rng.nextBoolean(), L)) return true;
+                }
+                return false;
+        }
+        return deplacer(flotte, i, nr, nc, nv, L);
+    }
+
+    private boolean deplacer(int[] flotte, int i, int r, int c, boolean vertical, int L) {
+        if (!geo.dansGrille(r, c, vertical, L)) return false;
+        int proposition = geo.coder(r, c, vertical, L);
+        if (!geo.positionLibre(proposition, flotte, flotte.length, i, bloquees)) return false;
+        if (!touchesCouvertes(flotte, flotte.length, i, proposition)) return false;
+        flotte[i] = proposition;
+        return true;
+    }
+
+    /**
+     * Pas de Gibbs par bloc : deux navires tirés au hasard sont replacés
+     * uniformément parmi les paires de positions compatibles avec les autres
+     * navires et les observations. Seul ce pas peut transférer une touche
+     * d'un navire à l'autre ; il est donc sans effet (et inutile) quand les
+     * autres navires couvrent déjà toutes les touches.
+     */
+    private void reechantillonnerPaire(int[] flotte) {
+        int n = flotte.length;
+        if (n < 2 || nbTouches == 0) return;
+        int i = rng.nextInt(n);
+        int j = rng.nextInt(n - 1);
+        if (j >= i) j++;
+        int libre = -1;
+        for (int t = 0; t < nbTouches; t++) {
+            boolean ok = false;
+            for (int k = 0; k < n && !ok; k++) ok = k != i && k != j && geo.couvre(flotte[k], touchesR[t], touchesC[t]);
+            couvertesAutres[t] = ok;
+            if (!ok && libre < 0) libre = t;
+        }
+        if (libre < 0) return;
+        int hr = touchesR[libre], hc = touchesC[libre];
+        int na = positionsCompatibles(flotte, i, j, geo.longueur(flotte[i]), positionsA);
+        int nb = positionsCompatibles(flotte, i, j, geo.longueur(flotte[j]), positionsB);
+        // paires dont l'une des positions couvre la touche libre (elles ne
+        // peuvent pas la couvrir toutes les deux), tirées par réservoir
+        int choixA = flotte[i], choixB = flotte[j], vues = 0;
+        for (int a = 0; a < na; a++) {
+            int pa = positionsA[a];
+            boolean aCouvre = geo.couvre(pa, hr, hc);
+            for (int b = 0; b < nb; b++) {
+                int pb = positionsB[b];
+                if (!aCouvre && !geo.couvre(pb, hr, hc)) continue;
+                if (geo.conflit(pa, pb) || !paireCouvre(pa, pb)) continue;
+                if (rng.nextInt(++vues) == 0) { choixA = pa; choixB = pb; }
+            }
+        }
+        flotte[i] = choixA;
+        flotte[j] = choixB;
+    }
+
+    /** Positions de longueur L compatibles avec la flotte privée des navires i et j. */
+    private int positionsCompatibles(int[] flotte, int i, int j, int L, int[] sortie) {
+        int m = 0;
+        for (int v = 0; v < 2; v++) {
+            boolean vertical = v == 1;
+            for (int r = 0; r + (vertical ? L - 1 : 0) < N; r++) {
+                for (int c = 0; c + (vertical ? 0 : L - 1) < N; c++) {
+                    int nav = geo.coder(r, c, vertical, L);
+                    if (geo.surCaseInterdite(nav, bloquees)) continue;
+                    boolean ok = true;
+                    for (int k = 0; k < flotte.length && ok; k++) ok = k == i || k == j || !geo.conflit(nav, flotte[k]);
+                    if (ok) sortie[m++] = nav;
+                }
+            }
+        }
+        return m;
+    }
+
+    /** Vrai si les touches non couvertes par les autres navires le sont par a ou b. */
+    private boolean paireCouvre(int a, int b) {
+        for (int t = 0; t < nbTouches; t++) {
+            if (!couvertesAutres[t] && !geo.couvre(a, touchesR[t], touchesC[t]) && !geo.couvre(b, touchesR[t], touchesC[t])) return false;
+        }
+        return true;
+    }
+
+    private void enregistrer(int[] flotte, int t) {
+        System.arraycopy(flotte, 0, historique, t * flotte.length, flotte.length);
+        for (int nav : flotte) {
+            int r = geo.ligne(nav), c = geo.colonne(nav), L = geo.longueur(nav);
+            boolean vertical = geo.vertical(nav);
+            for (int k = 0; k < L; k++) {
+                if (vertical) compteurs[r + k][c]++; else compteurs[r][c + k]++;
+            }
+        }
+    }
+
+    /** Case non tirée la plus souvent occupée (ex aequo au hasard), codée r * N + c ; -1 si aucune. */
+    private int meilleureCase(boolean[][] tirsEnvoyes) {
+        int best = -1, ex = 0;
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (tirsEnvoyes[r][c]) continue;
+                int v = compteurs[r][c];
+                if (v > best) { best = v; ex = 1; } else if (v == best) ex++;
+            }
+        }
+        if (ex == 0) return -1;
+        int k = rng.nextInt(ex);
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (!tirsEnvoyes[r][c] && compteurs[r][c] == best && k-- == 0) return r * N + c;
+            }
+        }
+        return -1;
+    }
+
+    /* ===================== Taille effective ===================== */
+
+    /**
+     * ESS de l'indicatrice d'occupation de la case sur les {@code t}
+     * échantillons enregistrés : {@code t / tau}, où le temps
+     * d'autocorrélation {@code tau = -1 + 2 * somme des Gamma_m} est tronqué
+     * à la première somme de paires {@code Gamma_m = rho(2m) + rho(2m+1)}
+     * négative (séquence initiale positive de Geyer). Une indicatrice
+     * constante donne ESS = t : la décision est alors certaine.
+     *
+     * Les décalages sont bornés par {@link #DECALAGE_MAX}, pour que chaque
+     * évaluation reste linéaire en {@code t} ; une chaîne encore corrélée
+     * au-delà voit son ESS surestimée, et s'arrête donc un peu plus tôt.
+     */
+    private double tailleEffective(int caseCodee, int t, int n) {
+        int r = caseCodee / N, c = caseCodee % N;
+        if (serie.length < t) serie = new double[Math.max(t, 2 * serie.length)];
+        double moyenne = 0.0;
+        for (int s = 0; s < t; s++) {
+            double x = 0.0;
+            for (int j = s * n; j < (s + 1) * n; j++) {
+                if (geo.couvre(historique[j], r, c)) { x = 1.0; break; }
+            }
+            serie[s] = x;
+            moyenne += x;
+        }
+        moyenne /= t;
+        double variance = 0.0;
+        for (int s = 0; s < t; s++) {
+            serie[s] -= moyenne;
+            variance += serie[s] * serie[s];
+        }
+        if (variance == 0.0) return t;
+        double somme = 0.0;
+        for (int m = 0; 2 * m + 1 < t && 2 * m + 1 <= DECALAGE_MAX; m++) {
+            double gamma = autocorrelation(2 * m, t, variance) + autocorrelation(2 * m + 1, t, variance);
+            if (gamma <= 0.0) break;
+            somme += gamma;
+        }
+        double tau = Math.max(1.0, -1.0 + 2.0 * somme);
+        return t / tau;
+    }
+
+    private double autocorrelation(int decalage, int t, double variance) {
+        double s = 0.0;
+        for (int k = 0; k + decalage < t; k++) s += serie[k] * serie[k + decalage];
+        return s / variance;
+    }
+}
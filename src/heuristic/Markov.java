@@ -1,6 +1,6 @@
 package heuristic;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -10,11 +10,13 @@ import logique.Coordonnee;
 /**
  * Heuristique "Markov" basée sur une heatmap de probabilités.
  *
- * Principe : pour chaque longueur de navire restant, on parcourt toutes les
- * positions valides de ce navire sur la grille et on incrémente une carte de
- * chaleur (heatmap) pour chaque case couverte par un placement possible.
- * Les heatmaps pour chaque longueur sont additionnées afin d'obtenir une
- * estimation agrégée de la probabilité qu'une case contienne un navire.
+ * Principe : pour chaque longueur de navire restant, on compte pour chaque
+ * case le nombre de placements possibles de ce navire qui la couvrent
+ * (carte de chaleur, ou heatmap). Les heatmaps pour chaque longueur sont
+ * additionnées afin d'obtenir une estimation agrégée de la probabilité
+ * qu'une case contienne un navire. Le comptage se fait par plages de cases
+ * libres le long des lignes et des colonnes, avec une formule fermée par
+ * case : une heatmap coûte O(N²) quelle que soit la longueur des navires.
  *
  * Améliorations appliquées :
  * - Pondération périodique selon la plus petite longueur de navire restante
@@ -27,10 +29,56 @@ import logique.Coordonnee;
  * La méthode publique `choisir` renvoie la coordonnée non tirée ayant le
  * score maximal dans la heatmap. En cas d'égalité, une case est choisie
  * aléatoirement parmi les meilleures candidates.
+ *
+ * Les heatmaps sont accumulées dans des tampons conservés d'un appel à
+ * l'autre : une instance sert un seul bot à la fois et n'est pas destinée à
+ * être partagée entre threads.
  */
 public class Markov implements Heuristic {
     private final Random rng = new Random();
 
+    // Pondération de parité : v * pariteNumerateur / pariteDenominateur + 1 sur
+    // les cases de la bonne parité, v / horsPariteDiviseur ailleurs.
+    private final int pariteNumerateur;
+    private final int pariteDenominateur;
+    private final int horsPariteDiviseur;
+    // Renfort des placements contraints : max(boostMin, min(boostMax, minLen * boostFacteur))
+    private final int boostMin;
+    private final int boostMax;
+    private final int boostFacteur;
+
+    // tampons réutilisés (réalloués seulement si la taille de grille change)
+    private int[][] somme = new int[0][0];
+    private int[][] contrainte = new int[0][0];
+    private boolean[][] touches = new boolean[0][0];
+    private int[] longueurs = new int[0];
+
+    /** Construit l'heuristique avec les réglages par défaut (3/2, /2, boost 3..8 x2). */
+    public Markov() {
+        this(3, 2, 2, 3, 8, 2);
+    }
+
+    /**
+     * Construit l'heuristique avec des réglages explicites, utilisés notamment
+     * par les balayages d'hyperparamètres ({@code statistique.Balayage}).
+     *
+     * @param pariteNumerateur   numérateur du bonus sur les cases de parité
+     * @param pariteDenominateur dénominateur du bonus sur les cases de parité
+     * @param horsPariteDiviseur diviseur appliqué aux autres cases
+     * @param boostMin           renfort minimal des placements couvrant un hit
+     * @param boostMax           renfort maximal des placements couvrant un hit
+     * @param boostFacteur       facteur appliqué à la plus petite longueur restante
+     */
+    public Markov(int pariteNumerateur, int pariteDenominateur, int horsPariteDiviseur,
+            int boostMin, int boostMax, int boostFacteur) {
+        this.pariteNumerateur = pariteNumerateur;
+        this.pariteDenominateur = Math.max(1, pariteDenominateur);
+        this.horsPariteDiviseur = Math.max(1, horsPariteDiviseur);
+        this.boostMin = boostMin;
+        this.boostMax = Math.max(boostMin, boostMax);
+        this.boostFacteur = boostFacteur;
+    }
+
         @Override
         /**
          * Sélectionne une coordonnée de tir selon la heatmap calculée.
@@ -51,30 +99,62 @@ public class Markov implements Heuristic {
         int N = gng.getTaille();
         int[][] sum = computeProbabilityMatrix(N, tirsEnvoyes, naviresRestants, currentHits);
 
+        // premier passage : score maximal et nombre d'ex aequo ; second
+        // passage : tirage uniforme parmi eux, sans liste intermédiaire
         int best = -1;
-        List<Coordonnee> candidates = new ArrayList<>();
+        int ex = 0;
         for (int r = 0; r < N; r++) {
             for (int c = 0; c < N; c++) {
                 if (!tirsEnvoyes[r][c]) {
                     int v = sum[r][c];
                     if (v > best) {
                         best = v;
-                        candidates.clear();
-                        candidates.add(new Coordonnee(r, c));
+                        ex = 1;
                     } else if (v == best) {
-                        candidates.add(new Coordonnee(r, c));
+                        ex++;
                     }
                 }
             }
         }
-        if (candidates.isEmpty()) {
-            for (int r = 0; r < N; r++)
-                for (int c = 0; c < N; c++)
-                    if (!tirsEnvoyes[r][c])
-                        candidates.add(new Coordonnee(r, c));
+        if (ex == 0) return null;
+        int k = rng.nextInt(ex);
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (!tirsEnvoyes[r][c] && sum[r][c] == best && k-- == 0) return new Coordonnee(r, c);
+            }
+        }
+        return null;
+    }
+
+    /** Les k meilleures cases d'une seule heatmap. */
+    @Override
+    public List<Coordonnee> choisirK(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, int k, long echeance) {
+        int N = gng.getTaille();
+        int[][] sum = computeProbabilityMatrix(N, tirsEnvoyes, naviresRestants, currentHits);
+        return MeilleuresCases.parmi(N, (r, c) -> sum[r][c], tirsEnvoyes, k, rng);
+    }
+
+    /** La heatmap agrégée (parité et renfort des touches compris), nulle sur les cases tirées. */
+    @Override
+    public double[][] carte(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+        int N = gng.getTaille();
+        int[][] sum = computeProbabilityMatrix(N, tirsEnvoyes, naviresRestants, currentHits);
+        double[][] carte = new double[N][N];
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (!tirsEnvoyes[r][c]) carte[r][c] = sum[r][c];
+            }
         }
-        if (candidates.isEmpty()) return null;
-        return candidates.get(rng.nextInt(candidates.size()));
+        return carte;
+    }
+
+    /** Retourne un tampon N x N remis à zéro, réalloué seulement si N change. */
+    private static int[][] tampon(int[][] t, int N) {
+        if (t.length != N) return new int[N][N];
+        for (int[] ligne : t) Arrays.fill(ligne, 0);
+        return t;
     }
 
     private int[][] computeProbabilityMatrix(int N, boolean[][] tirsEnvoyes, List<Integer> naviresRestants,
@@ -88,37 +168,47 @@ public class Markov implements Heuristic {
          * - si `currentHits` est non vide, on calcule des heatmaps contraintes
          *   (placements couvrant les hits) et on les ajoute avec un facteur de
          *   renforcement pour prioriser la complétion des navires en cours.
+         *
+         * Les placements ne sont pas énumérés : chaque ligne et chaque colonne
+         * est découpée en plages de cases libres, et le nombre de placements
+         * couvrant une case se déduit de sa position dans la plage (voir
+         * {@link #couverture(int, int, int)}). Une heatmap coûte ainsi O(N²)
+         * quelle que soit la longueur des navires.
          */
-        int[][] sum = new int[N][N];
+        int[][] sum = somme = tampon(somme, N);
         if (naviresRestants == null || naviresRestants.isEmpty()) return sum;
 
-        for (int L : naviresRestants) {
-            int[][] h = heatmapForShipLength(N, tirsEnvoyes, L);
-            add(sum, h);
+        int nb = naviresRestants.size();
+        if (longueurs.length < nb) longueurs = new int[nb];
+        int minLen = Integer.MAX_VALUE;
+        for (int i = 0; i < nb; i++) {
+            int L = naviresRestants.get(i);
+            longueurs[i] = L;
+            if (L < minLen) minLen = L;
         }
 
-        int minLen = Integer.MAX_VALUE;
-        for (int L : naviresRestants) if (L < minLen) minLen = L;
+        heatmapPlacements(sum, N, tirsEnvoyes, nb);
+
         if (minLen > 1) {
             for (int r = 0; r < N; r++) {
                 for (int c = 0; c < N; c++) {
                     if (sum[r][c] == 0) continue;
                     if (((r + c) % minLen) == 0) {
-                        sum[r][c] = sum[r][c] * 3 / 2 + 1;
+                        sum[r][c] = sum[r][c] * pariteNumerateur / pariteDenominateur + 1;
                     } else {
-                        sum[r][c] = sum[r][c] / 2;
+                        sum[r][c] = sum[r][c] / horsPariteDiviseur;
                     }
                 }
             }
         }
 
         if (currentHits != null && !currentHits.isEmpty()) {
-            int[][] constrained = new int[N][N];
-            for (int L : naviresRestants) {
-                int[][] h = heatmapForShipLengthConstrained(N, tirsEnvoyes, L, currentHits);
-                add(constrained, h);
-            }
-            int boost = Math.max(3, Math.min(8, minLen * 2));
+            int[][] constrained = contrainte = tampon(contrainte, N);
+            if (touches.length != N) touches = new boolean[N][N];
+            for (Coordonnee h : currentHits) touches[h.getLigne()][h.getColonne()] = true;
+            heatmapPlacementsContraints(constrained, N, tirsEnvoyes, nb);
+            for (Coordonnee h : currentHits) touches[h.getLigne()][h.getColonne()] = false;
+            int boost = Math.max(boostMin, Math.min(boostMax, minLen * boostFacteur));
             for (int r = 0; r < N; r++)
                 for (int c = 0; c < N; c++)
                     sum[r][c] += constrained[r][c] * boost;
@@ -127,81 +217,99 @@ public class Markov implements Heuristic {
         return sum;
     }
 
-    private int[][] heatmapForShipLengthConstrained(int N, boolean[][] tirsEnvoyes, int L,
-            List<Coordonnee> currentHits) {
-        // Heatmap limitée aux placements qui couvrent au moins une des cases touchées
-        int[][] map = new int[N][N];
-        if (currentHits == null || currentHits.isEmpty()) return map;
-        for (int rr = 0; rr < N; rr++) {
-            for (int cc = 0; cc + L - 1 < N; cc++) {
-                if (placementValide(rr, cc, L, false, N, tirsEnvoyes) && placementCoversAnyHit(rr, cc, L, false, currentHits))
-                    incrSegment(map, rr, cc, L, false, N, tirsEnvoyes);
-            }
-        }
-        for (int rr = 0; rr + L - 1 < N; rr++) {
-            for (int cc = 0; cc < N; cc++) {
-                if (placementValide(rr, cc, L, true, N, tirsEnvoyes) && placementCoversAnyHit(rr, cc, L, true, currentHits))
-                    incrSegment(map, rr, cc, L, true, N, tirsEnvoyes);
-            }
-        }
-        return map;
+    /**
+     * Nombre de placements d'un navire de longueur L couvrant la case
+     * d'indice i (à partir de 0) dans une plage libre de R cases : les
+     * départs possibles vont de max(0, i - L + 1) à min(i, R - L).
+     */
+    static int couverture(int i, int R, int L) {
+        if (R < L) return 0;
+        int v = Math.min(i, R - L) - Math.max(0, i - L + 1) + 1;
+        return v > 0 ? v : 0;
     }
 
-    private boolean placementCoversAnyHit(int r, int c, int L, boolean vertical, List<Coordonnee> currentHits) {
-        for (Coordonnee h : currentHits) {
-            int hr = h.getLigne(), hc = h.getColonne();
-            for (int k = 0; k < L; k++) {
-                int rr = vertical ? r + k : r;
-                int cc = vertical ? c : c + k;
-                if (rr == hr && cc == hc) return true;
-            }
-        }
-        return false;
+    /** Somme des couvertures sur les {@code nb} premières longueurs de {@link #longueurs}. */
+    private int couvertureTotale(int i, int R, int nb) {
+        int v = 0;
+        for (int k = 0; k < nb; k++) v += couverture(i, R, longueurs[k]);
+        return v;
     }
 
-    private int[][] heatmapForShipLength(int N, boolean[][] tirsEnvoyes, int L) {
-        // Heatmap pour un navire de longueur L sans contrainte de hits
-        int[][] map = new int[N][N];
-        for (int rr = 0; rr < N; rr++) {
-            for (int cc = 0; cc + L - 1 < N; cc++) {
-                if (placementValide(rr, cc, L, false, N, tirsEnvoyes))
-                    incrSegment(map, rr, cc, L, false, N, tirsEnvoyes);
-            }
-        }
-        for (int rr = 0; rr + L - 1 < N; rr++) {
-            for (int cc = 0; cc < N; cc++) {
-                if (placementValide(rr, cc, L, true, N, tirsEnvoyes))
-                    incrSegment(map, rr, cc, L, true, N, tirsEnvoyes);
+    private static boolean tiree(boolean[][] tirsEnvoyes, int a, int j, boolean vertical) {
+        return vertical ? tirsEnvoyes[j][a] : tirsEnvoyes[a][j];
+    }
+
+    private static void ajouter(int[][] map, int a, int j, boolean vertical, int v) {
+        if (vertical) map[j][a] += v; else map[a][j] += v;
+    }
+
+    /**
+     * Ajoute à map, pour chaque case non tirée, le nombre de placements des
+     * navires restants qui ne passent par aucune case tirée : une passe par
+     * ligne (placements horizontaux) et une par colonne (verticaux).
+     */
+    private void heatmapPlacements(int[][] map, int N, boolean[][] tirsEnvoyes, int nb) {
+        for (int sens = 0; sens < 2; sens++) {
+            boolean vertical = sens == 1;
+            for (int a = 0; a < N; a++) {
+                int j = 0;
+                while (j < N) {
+                    if (tiree(tirsEnvoyes, a, j, vertical)) { j++; continue; }
+                    int debut = j;
+                    while (j < N && !tiree(tirsEnvoyes, a, j, vertical)) j++;
+                    int R = j - debut;
+                    for (int i = 0; i < R; i++) ajouter(map, a, debut + i, vertical, couvertureTotale(i, R, nb));
+                }
             }
         }
-        return map;
     }
 
-    private boolean placementValide(int r, int c, int L, boolean vertical, int N, boolean[][] tirsEnvoyes) {
-        // Vérifie que tous les segments du placement restent dans la grille
-        // et ne correspondent pas à une case déjà tirée.
-        for (int k = 0; k < L; k++) {
-            int rr = vertical ? r + k : r;
-            int cc = vertical ? c : c + k;
-            if (rr < 0 || rr >= N || cc < 0 || cc >= N) return false;
-            if (tirsEnvoyes[rr][cc]) return false;
+    /**
+     * Ajoute à map, pour chaque case non tirée, le nombre de placements qui
+     * couvrent au moins une touche non coulée ({@link #touches}) et ne
+     * passent que par des cases non tirées ou touchées. Dans une plage de
+     * telles cases, ce nombre est celui des placements de la plage moins
+     * ceux des sous-plages sans touche.
+     */
+    private void heatmapPlacementsContraints(int[][] map, int N, boolean[][] tirsEnvoyes, int nb) {
+        for (int sens = 0; sens < 2; sens++) {
+            boolean vertical = sens == 1;
+            for (int a = 0; a < N; a++) {
+                int j = 0;
+                while (j < N) {
+                    if (!posable(tirsEnvoyes, a, j, vertical)) { j++; continue; }
+                    int debut = j;
+                    boolean avecTouche = false;
+                    while (j < N && posable(tirsEnvoyes, a, j, vertical)) {
+                        avecTouche |= tiree(tirsEnvoyes, a, j, vertical);
+                        j++;
+                    }
+                    if (!avecTouche) continue;
+                    int R = j - debut;
+                    // sous-plages de cases libres (sans touche) de la plage
+                    int s = debut;
+                    while (s < j) {
+                        if (tiree(tirsEnvoyes, a, s, vertical)) { s++; continue; }
+                        int sd = s;
+                        while (s < j && !tiree(tirsEnvoyes, a, s, vertical)) s++;
+                        int r2 = s - sd;
+                        for (int x = sd; x < s; x++) {
+                            int v = couvertureTotale(x - debut, R, nb) - couvertureTotale(x - sd, r2, nb);
+                            if (v > 0) ajouter(map, a, x, vertical, v);
+                        }
+                    }
+                }
+            }
         }
-        return true;
     }
 
-    private void incrSegment(int[][] map, int r, int c, int L, boolean vertical, int N, boolean[][] tirsEnvoyes) {
-        // Incrémente la heatmap pour chaque case du segment de longueur L,
-        // en ignorant les cases déjà tirées.
-        for (int k = 0; k < L; k++) {
-            int rr = vertical ? r + k : r;
-            int cc = vertical ? c : c + k;
-            if (!tirsEnvoyes[rr][cc]) map[rr][cc]++;
-        }
+    /** Case utilisable par un placement contraint : non tirée, ou touche non coulée. */
+    private boolean posable(boolean[][] tirsEnvoyes, int a, int j, boolean vertical) {
+        return !tiree(tirsEnvoyes, a, j, vertical) || (vertical ? touches[j][a] : touches[a][j]);
     }
 
-    private void add(int[][] a, int[][] b) {
-        for (int rr = 0; rr < a.length; rr++)
-            for (int cc = 0; cc < a.length; cc++)
-                a[rr][cc] += b[rr][cc];
+    @Override
+    public void reinitialiser(long graine) {
+        rng.setSeed(graine);
     }
 }
@@ -0,0 +1,51 @@
+package heuristic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import logique.Coordonnee;
+
+/**
+ * Sélection des k cases non tirées de meilleur score, utilisée par les
+ * implémentations de {@link Heuristic#choisirK} : une heatmap ou une passe
+ * d'échantillonnage suffit pour toute la salve. Les ex aequo sont départagés
+ * uniformément au hasard.
+ */
+final class MeilleuresCases {
+    /** Score d'une case (heatmap, fréquence d'occupation...). */
+    interface Score {
+        double de(int r, int c);
+    }
+
+    private MeilleuresCases() {
+    }
+
+    /**
+     * Retourne au plus {@code k} cases non tirées, par score décroissant
+     * (moins de {@code k} si la grille n'a plus assez de cases libres).
+     */
+    static List<Coordonnee> parmi(int N, Score score, boolean[][] tirsEnvoyes, int k, Random rng) {
+        List<Coordonnee> choix = new ArrayList<>(k);
+        boolean[][] pris = new boolean[N][N];
+        while (choix.size() < k) {
+            double best = Double.NEGATIVE_INFINITY;
+            int ex = 0, br = -1, bc = -1;
+            for (int r = 0; r < N; r++) {
+                for (int c = 0; c < N; c++) {
+                    if (tirsEnvoyes[r][c] || pris[r][c]) continue;
+                    double v = score.de(r, c);
+                    if (v > best) {
+                        best = v; ex = 1; br = r; bc = c;
+                    } else if (v == best && rng.nextInt(++ex) == 0) {
+                        br = r; bc = c;
+                    }
+                }
+            }
+            if (br < 0) break;
+            pris[br][bc] = true;
+            choix.add(new Coordonnee(br, bc));
+        }
+        return choix;
+    }
+}
@@ -35,19 +35,66 @@ import logique.Navire;
  * - L'algorithme randomise l'ordre de placement des navires pour diversifier
  *   les échantillons.
  *
+ * Placement contraint d'abord (échantillonnage d'importance) :
+ * en mode cible, une flotte placée au hasard couvre rarement toutes les
+ * touches en attente et la plupart des échantillons étaient rejetés. Tant
+ * qu'une touche n'est couverte par aucun navire de l'échantillon, on tire
+ * donc uniformément un couple (navire restant, position) qui couvre la
+ * première d'entre elles, chaque navire d'une longueur répétée comptant
+ * séparément ; les navires restants sont ensuite placés au hasard
+ * dans l'espace libre. Chaque échantillon accepté est pondéré par l'inverse
+ * de sa probabilité de proposition (produit des nombres d'options à chaque
+ * étape), de sorte que l'occupation pondérée estime la loi uniforme sur les
+ * flottes compatibles ; sans touche, ce poids corrige aussi le biais du
+ * placement séquentiel. Le taux d'acceptation et la taille d'échantillon
+ * effective des poids ((somme des poids)² / somme des poids²) du dernier
+ * appel sont exposés.
+ *
  * Usage recommandé : ajuster `samples` pour un compromis qualité/temps (valeur
- * par défaut : 1000).
+ * par défaut : 1000). Sous pendule, l'échantillonnage s'arrête à l'échéance
+ * et la meilleure case selon les échantillons déjà acceptés est retournée.
  */
 public class MonteCarlo implements Heuristic {
     private final Random rng = new Random();
     private final int samples;
+    private final boolean ciblee;
+
+    // télémétrie du dernier appel
+    private int dernieresTentatives;
+    private int derniersAcceptes;
+    private double derniereESS;
 
     public MonteCarlo() {
         this(1000);
     }
 
     public MonteCarlo(int samples) {
+        this(samples, true);
+    }
+
+    /**
+     * @param samples nombre d'échantillons tentés par coup
+     * @param ciblee  navires placés d'abord sur les touches en attente ; faux
+     *                pour un ordre de placement entièrement aléatoire
+     */
+    public MonteCarlo(int samples, boolean ciblee) {
         this.samples = Math.max(1, samples);
+        this.ciblee = ciblee;
+    }
+
+    /** Proportion d'échantillons acceptés (toutes touches couvertes) au dernier appel. */
+    public double getDernierTauxAcceptation() {
+        return dernieresTentatives > 0 ? (double) derniersAcceptes / dernieresTentatives : 0.0;
+    }
+
+    /** Nombre d'échantillons acceptés au dernier appel. */
+    public int getDerniersAcceptes() {
+        return derniersAcceptes;
+    }
+
+    /** Taille d'échantillon effective des poids d'importance au dernier appel. */
+    public double getDerniereESS() {
+        return derniereESS;
     }
 
     @Override
@@ -66,11 +113,87 @@ public class MonteCarlo implements Heuristic {
      */
     public Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
             List<Coordonnee> currentHits) {
+        return choisir(tirsEnvoyes, gng, naviresRestants, currentHits, Long.MAX_VALUE);
+    }
+
+    /**
+     * Comme {@link #choisir(boolean[][], GrilleNavaleGraphique, List, List)},
+     * mais l'échantillonnage est interrompu à l'échéance ou sur interruption
+     * du thread. Retourne {@code null} si aucun échantillon n'a pu être
+     * accepté avant l'échéance.
+     */
+    @Override
+    public Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, long echeance) {
         int N = gng.getTaille();
         if (naviresRestants == null || naviresRestants.isEmpty()) {
             // repli sur uniforme si aucune information sur les navires
             return new Uniform().choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
         }
+        double[][] counts = occupation(N, tirsEnvoyes, naviresRestants, currentHits, echeance);
+        if (counts == null) return null;
+
+        // choose best unfired cell
+        double best = -1;
+        List<Coordonnee> candidates = new ArrayList<>();
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (!tirsEnvoyes[r][c]) {
+                    double v = counts[r][c];
+                    if (v > best) {
+                        best = v; candidates.clear(); candidates.add(new Coordonnee(r, c));
+                    } else if (v == best) candidates.add(new Coordonnee(r, c));
+                }
+            }
+        }
+        if (candidates.isEmpty()) return new Uniform().choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
+        return candidates.get(rng.nextInt(candidates.size()));
+    }
+
+    /** Les k cases les plus souvent occupées d'une seule passe d'échantillonnage. */
+    @Override
+    public List<Coordonnee> choisirK(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, int k, long echeance) {
+        int N = gng.getTaille();
+        if (naviresRestants == null || naviresRestants.isEmpty()) {
+            return new Uniform().choisirK(tirsEnvoyes, gng, naviresRestants, currentHits, k, echeance);
+        }
+        double[][] counts = occupation(N, tirsEnvoyes, naviresRestants, currentHits, echeance);
+        if (counts == null) return new ArrayList<>();
+        return MeilleuresCases.parmi(N, (r, c) -> counts[r][c], tirsEnvoyes, k, rng);
+    }
+
+    /**
+     * Occupation pondérée des cases non tirées ; la carte par défaut (classement)
+     * si aucun échantillon n'est accepté.
+     */
+    @Override
+    public double[][] carte(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+        int N = gng.getTaille();
+        double[][] counts = (naviresRestants == null || naviresRestants.isEmpty()) ? null
+                : occupation(N, tirsEnvoyes, naviresRestants, currentHits, Long.MAX_VALUE);
+        if (counts == null || derniersAcceptes == 0) {
+            return Heuristic.super.carte(tirsEnvoyes, gng, naviresRestants, currentHits);
+        }
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (tirsEnvoyes[r][c]) counts[r][c] = 0.0;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Occupation pondérée de chaque case sur les échantillons acceptés, ou
+     * {@code null} si l'échéance est atteinte avant le premier échantillon
+     * accepté.
+     */
+    private double[][] occupation(int N, boolean[][] tirsEnvoyes, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, long echeance) {
+        dernieresTentatives = 0;
+        derniersAcceptes = 0;
+        derniereESS = 0.0;
 
         // compute fired-miss cells: fired but not listed in currentHits
         Set<String> hitSet = new HashSet<>();
@@ -86,12 +209,23 @@ public class MonteCarlo implements Heuristic {
             }
         }
 
-        // Compteurs d'occupation : pour chaque échantillon valide, on incrémente
-        // les cases occupées par un navire.
-        int[][] counts = new int[N][N];
+        // Occupation pondérée : pour chaque échantillon valide, on ajoute son
+        // poids d'importance aux cases occupées par un navire.
+        double[][] counts = new double[N][N];
+        double sommePoids = 0.0, sommeCarres = 0.0;
         int[] sizes = naviresRestants.stream().mapToInt(Integer::intValue).toArray();
 
+        int acceptes = 0;
+        boolean interrompu = false;
+        List<Coordonnee> enAttente = new ArrayList<>();
+        List<Navire> couvrantes = new ArrayList<>();
+        List<Integer> navireCouvrant = new ArrayList<>();
         for (int s = 0; s < samples; s++) {
+            if (Heuristic.tempsEcoule(echeance)) { interrompu = true; break; }
+            dernieresTentatives++;
+            double poids = 1.0;
+            enAttente.clear();
+            if (currentHits != null) enAttente.addAll(currentHits);
             // Construire un placement d'essai : placer chaque navire aléatoirement
             // parmi les options valides (sans chevauchement des tirs manqués).
             GrilleNavale sample = new GrilleNavale(N);
@@ -102,11 +236,54 @@ public class MonteCarlo implements Heuristic {
             for (int L : sizes) sizesList.add(L);
             Collections.shuffle(sizesList, rng);
 
-            for (int L : sizesList) {
+            // Touches d'abord : tant qu'une touche est en attente, choisir
+            // uniformément un couple (navire restant, position) qui la
+            // couvre ; les navires de même longueur comptent chacun pour un,
+            // si bien que la première touche en attente étant fixée, ce chemin
+            // est déterminé par la flotte (navires distingués) obtenue et son
+            // poids est exact.
+            while (ciblee && !enAttente.isEmpty()) {
+                if (Heuristic.tempsEcoule(echeance)) { ok = false; interrompu = true; break; }
+                Coordonnee h = enAttente.get(0);
+                couvrantes.clear();
+                navireCouvrant.clear();
+                for (int i = 0; i < sizesList.size(); i++) {
+                    int L = sizesList.get(i);
+                    for (int v = 0; v < 2; v++) {
+                        boolean vertical = v == 1;
+                        for (int o = 0; o < L; o++) {
+                            int r = vertical ? h.getLigne() - o : h.getLigne();
+                            int c = vertical ? h.getColonne() : h.getColonne() - o;
+                            if (r < 0 || c < 0 || (vertical ? r + L : c + L) > N) continue;
+                            Navire n = new Navire(new Coordonnee(r, c), L, vertical);
+                            if (sample.ajouteNavire(n)) {
+                                sample.getNavires().remove(n);
+                                if (!placementTouchesAny(n, firedMisses)) {
+                                    couvrantes.add(n);
+                                    navireCouvrant.add(i);
+                                }
+                            }
+                        }
+                    }
+                }
+                if (couvrantes.isEmpty()) { ok = false; break; }
+                int k = rng.nextInt(couvrantes.size());
+                Navire choice = couvrantes.get(k);
+                poids *= couvrantes.size();
+                if (!sample.ajouteNavire(choice)) { ok = false; break; }
+                sizesList.remove((int) navireCouvrant.get(k));
+                enAttente.removeIf(choice::contient);
+            }
+            if (interrompu) break;
+
+            for (int idx = 0; ok && idx < sizesList.size(); idx++) {
+                int L = sizesList.get(idx);
+                if (Heuristic.tempsEcoule(echeance)) { ok = false; interrompu = true; break; }
                 // Lister toutes les positions valides pour ce navire dans l'échantillon
                 List<Navire> options = new ArrayList<>();
                 // positions horizontales
                 for (int r = 0; r < N; r++) {
+                    if (Heuristic.tempsEcoule(echeance)) { interrompu = true; break; }
                     for (int c = 0; c + L - 1 < N; c++) {
                         Navire n = new Navire(new Coordonnee(r, c), L, false);
                         if (sample.ajouteNavire(n)) {
@@ -119,6 +296,7 @@ public class MonteCarlo implements Heuristic {
                 }
                 // positions verticales
                 for (int r = 0; r + L - 1 < N; r++) {
+                    if (Heuristic.tempsEcoule(echeance)) { interrompu = true; break; }
                     for (int c = 0; c < N; c++) {
                         Navire n = new Navire(new Coordonnee(r, c), L, true);
                         if (sample.ajouteNavire(n)) {
@@ -128,13 +306,16 @@ public class MonteCarlo implements Heuristic {
                     }
                 }
 
-                if (options.isEmpty()) { ok = false; break; }
-                // choisir un placement au hasard parmi les options et le fixer
+                if (interrompu || options.isEmpty()) { ok = false; break; }
+                // choisir un placement au hasard parmi les options et le fixer ;
+                // le poids d'importance est l'inverse de la probabilité proposée
                 Navire choice = options.get(rng.nextInt(options.size()));
+                poids *= options.size();
                 boolean placed = sample.ajouteNavire(choice);
                 if (!placed) { ok = false; break; }
             }
 
+            if (interrompu) break;
             if (!ok) continue;
 
             // verify sample covers all currentHits
@@ -153,28 +334,19 @@ public class MonteCarlo implements Heuristic {
             }
             if (violatesMiss) continue;
 
-            // Echantillon accepté : incrémenter les compteurs pour chaque case
-            // occupée par un navire dans cet échantillon.
+            // Echantillon accepté : ajouter son poids aux cases occupées par un
+            // navire dans cet échantillon.
             for (Navire n : sample.getNavires()) {
-                for (Coordonnee cc : segmentOf(n)) counts[cc.getLigne()][cc.getColonne()]++;
+                for (Coordonnee cc : segmentOf(n)) counts[cc.getLigne()][cc.getColonne()] += poids;
             }
+            sommePoids += poids;
+            sommeCarres += poids * poids;
+            acceptes++;
         }
-
-        // choose best unfired cell
-        int best = -1;
-        List<Coordonnee> candidates = new ArrayList<>();
-        for (int r = 0; r < N; r++) {
-            for (int c = 0; c < N; c++) {
-                if (!tirsEnvoyes[r][c]) {
-                    int v = counts[r][c];
-                    if (v > best) {
-                        best = v; candidates.clear(); candidates.add(new Coordonnee(r, c));
-                    } else if (v == best) candidates.add(new Coordonnee(r, c));
-                }
-            }
-        }
-        if (candidates.isEmpty()) return new Uniform().choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
-        return candidates.get(rng.nextInt(candidates.size()));
+        derniersAcceptes = acceptes;
+        if (sommeCarres > 0) derniereESS = sommePoids * sommePoids / sommeCarres;
+        if (interrompu && acceptes == 0) return null;
+        return counts;
     }
 
     private boolean placementTouchesAny(Navire n, List<Coordonnee> firedMisses) {
@@ -202,4 +374,9 @@ public class MonteCarlo implements Heuristic {
         }
         return seg;
     }
+
+    @Override
+    public void reinitialiser(long graine) {
+        rng.setSeed(graine);
+    }
 }
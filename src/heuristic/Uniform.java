@@ -1,6 +1,5 @@
 package heuristic;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -17,14 +16,46 @@ public class Uniform implements Heuristic {
     public Coordonnee choisir(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
             List<Coordonnee> currentHits) {
         int N = gng.getTaille();
-        List<Coordonnee> candidates = new ArrayList<>();
+        // compter les cases libres puis tirer la k-ième, sans liste de candidates
+        int libres = 0;
         for (int r = 0; r < N; r++) {
             for (int c = 0; c < N; c++) {
-                if (!tirsEnvoyes[r][c]) candidates.add(new Coordonnee(r, c));
+                if (!tirsEnvoyes[r][c]) libres++;
             }
         }
-        if (candidates.isEmpty()) return null;
-        Coordonnee choix = candidates.get(rng.nextInt(candidates.size()));
-        return choix;
+        if (libres == 0) return null;
+        int k = rng.nextInt(libres);
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (!tirsEnvoyes[r][c] && k-- == 0) return new Coordonnee(r, c);
+            }
+        }
+        return null;
+    }
+
+    /** k cases libres distinctes tirées uniformément. */
+    @Override
+    public List<Coordonnee> choisirK(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits, int k, long echeance) {
+        return MeilleuresCases.parmi(gng.getTaille(), (r, c) -> 0, tirsEnvoyes, k, rng);
+    }
+
+    /** Toutes les cases libres se valent. */
+    @Override
+    public double[][] carte(boolean[][] tirsEnvoyes, GrilleNavaleGraphique gng, List<Integer> naviresRestants,
+            List<Coordonnee> currentHits) {
+        int N = gng.getTaille();
+        double[][] carte = new double[N][N];
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                if (!tirsEnvoyes[r][c]) carte[r][c] = 1.0;
+            }
+        }
+        return carte;
+    }
+
+    @Override
+    public void reinitialiser(long graine) {
+        rng.setSeed(graine);
     }
 }
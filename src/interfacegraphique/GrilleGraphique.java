@@ -1,130 +1,304 @@
 package interfacegraphique;
 
 import java.awt.Color;
-import java.awt.GridLayout;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.awt.Cursor;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import javax.swing.JButton;
-import javax.swing.JLabel;
 import javax.swing.JPanel;
-import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 import logique.Coordonnee;
 
 /**
- * Représentation graphique d'une grille. Chaque case est un bouton
- * cliquable. Des couleurs sont utilisées pour indiquer les tirs à
- * l'eau, les touches et les navires placés (pour la grille du joueur).
+ * Représentation graphique d'une grille, dessinée par un unique composant.
+ *
+ * Les couleurs des cases sont conservées dans un tableau primitif (une
+ * valeur ARGB par case, 0 pour la couleur par défaut) ; les clics souris
+ * sont convertis en coordonnées par le composant lui-même et seule la case
+ * modifiée est redessinée. La grille comporte une ligne et une colonne
+ * supplémentaires pour les en-têtes (lettres en haut, numéros à gauche).
+ * Des couleurs sont utilisées pour indiquer les tirs à l'eau, les touches
+ * et les navires placés (pour la grille du joueur).
+ *
+ * Les méthodes {@code colorie} peuvent être appelées depuis n'importe quel
+ * thread de jeu : elles déposent la mise à jour dans une file sans verrou et
+ * rendent la main immédiatement. Le thread d'affichage (EDT) vide la file
+ * au plus une fois par image ({@value #PERIODE_IMAGE_MS} ms), applique le
+ * lot et redessine une seule fois la zone modifiée ; une partie jouée à
+ * plusieurs milliers de coups par seconde n'est donc jamais ralentie par
+ * l'affichage.
  */
-class JButtonCoordonnee extends JButton {
-    private final Coordonnee c;
-    public JButtonCoordonnee(Coordonnee c) {
-        super();
-        this.c = c;
-    }
-    public Coordonnee getCoordonnee() {
-        return c;
+public class GrilleGraphique extends JPanel {
+    private static final long serialVersionUID = 1L;
+    /** Taille maximale d'une case à l'écran (pixels). */
+    private static final int CASE_MAX = 30;
+    /** Taille minimale d'une case à l'écran (pixels). */
+    private static final int CASE_MIN = 4;
+    private static final Color FOND_CASE = new Color(238, 238, 238);
+    private static final Color BORD_ACTIF = new Color(120, 120, 120);
+    private static final Color BORD_INACTIF = new Color(190, 190, 190);
+    /** Période minimale entre deux applications de lots de mises à jour. */
+    private static final int PERIODE_IMAGE_MS = 16;
+
+    /** Mise à jour d'un rectangle de cases, produite par un thread de jeu. */
+    private static final class MiseAJour {
+        final int r0, c0, r1, c1, argb;
+
+        MiseAJour(int r0, int c0, int r1, int c1, int argb) {
+            this.r0 = r0;
+            this.c0 = c0;
+            this.r1 = r1;
+            this.c1 = c1;
+            this.argb = argb;
+        }
     }
-}
 
-public class GrilleGraphique extends JPanel implements ActionListener {
-    private static final long serialVersionUID = 1L;
-    private final JButton[][] cases;
-    private Coordonnee coordonneeSelectionnee;
+    private final int taille;
+    // couleurs des cases : confinées à l'EDT une fois la grille affichée
+    private final int[] couleurs;
+    private final ConcurrentLinkedQueue<MiseAJour> enAttente = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean vidageProgramme = new AtomicBoolean(false);
+    private volatile boolean affichee = false;
+    private volatile boolean clicActif = true;
+    private CompletableFuture<Coordonnee> selection;
 
     /**
-     * Construit une grille graphique de la taille donnée. La grille
-     * comporte une ligne et une colonne supplémentaires pour afficher les
-     * en-têtes (lettres en haut et numéros de ligne à gauche).
+     * Construit une grille graphique de la taille donnée.
      */
     public GrilleGraphique(int taille) {
-        this.setLayout(new GridLayout(taille + 1, taille + 1));
-        // coin supérieur gauche vide
-        this.add(new JLabel());
-        // en‑têtes de colonnes (A, B, C, ...)
-        for (int i = 0; i < taille; i++) {
-            JLabel lbl = new JLabel(String.valueOf((char) ('A' + i)));
-            lbl.setHorizontalAlignment(SwingConstants.CENTER);
-            this.add(lbl);
-        }
-        cases = new JButton[taille][taille];
-        for (int i = 0; i < taille; i++) {
-            // en‑tête de ligne (1, 2, 3, ...)
-            JLabel lbl = new JLabel(String.valueOf(i + 1));
-            lbl.setHorizontalAlignment(SwingConstants.CENTER);
-            this.add(lbl);
-            for (int j = 0; j < taille; j++) {
-                cases[i][j] = new JButtonCoordonnee(new Coordonnee(i, j));
-                this.add(cases[i][j]);
-                cases[i][j].addActionListener(this);
+        this.taille = taille;
+        this.couleurs = new int[taille * taille];
+        int cote = Math.max(CASE_MIN, Math.min(CASE_MAX, 800 / (taille + 1)));
+        setPreferredSize(new Dimension(cote * (taille + 1), cote * (taille + 1)));
+        setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                clic(e.getX(), e.getY());
             }
-        }
+        });
     }
 
     /**
      * Colore une seule case avec la couleur fournie. Une vérification de
-     * bornes est effectuée pour éviter des IndexOutOfBounds.
+     * bornes est effectuée pour éviter des IndexOutOfBounds. Peut être
+     * appelée depuis n'importe quel thread.
      */
     public void colorie(Coordonnee cord, Color color) {
         int row = cord.getLigne();
         int col = cord.getColonne();
-        if (row >= 0 && row < cases.length && col >= 0 && col < cases[row].length) {
-            cases[row][col].setBackground(color);
+        if (row >= 0 && row < taille && col >= 0 && col < taille) {
+            publier(row, col, row, col, color.getRGB());
         }
     }
 
     /**
      * Colore toutes les cases entre deux coordonnées (incluses) avec la
      * couleur fournie. Utilisé pour la visualisation du placement automatique.
+     * Peut être appelée depuis n'importe quel thread.
      */
     public void colorie(Coordonnee debut, Coordonnee fin, Color color) {
-        for (int i = debut.getLigne(); i <= fin.getLigne(); i++) {
-            for (int j = debut.getColonne(); j <= fin.getColonne(); j++) {
-                if (i >= 0 && i < cases.length && j >= 0 && j < cases[i].length) {
-                    cases[i][j].setBackground(color);
-                }
+        int r0 = Math.max(0, debut.getLigne()), r1 = Math.min(taille - 1, fin.getLigne());
+        int c0 = Math.max(0, debut.getColonne()), c1 = Math.min(taille - 1, fin.getColonne());
+        if (r0 > r1 || c0 > c1) return;
+        publier(r0, c0, r1, c1, color.getRGB());
+    }
+
+    /**
+     * Rend à toutes les cases leur couleur par défaut (nouvelle partie).
+     * Peut être appelée depuis n'importe quel thread.
+     */
+    public void effacer() {
+        publier(0, 0, taille - 1, taille - 1, 0);
+    }
+
+    /**
+     * Dépose une mise à jour. Tant que la grille n'est pas affichée (bots,
+     * simulations), elle est appliquée directement sans solliciter l'EDT ;
+     * sinon elle est mise en file et un vidage est programmé s'il n'y en a
+     * pas déjà un en attente. Aucun objet n'est alloué dans le premier cas.
+     */
+    private void publier(int r0, int c0, int r1, int c1, int argb) {
+        if (!affichee) {
+            synchronized (couleurs) {
+                appliquer(r0, c0, r1, c1, argb);
             }
+            // la grille a pu être affichée entre-temps : repasser par la file
+            if (!affichee) return;
+        }
+        enAttente.offer(new MiseAJour(r0, c0, r1, c1, argb));
+        if (vidageProgramme.compareAndSet(false, true)) {
+            Timer t = new Timer(PERIODE_IMAGE_MS, e -> vider());
+            t.setRepeats(false);
+            t.start();
+        }
+    }
+
+    /** Applique sur l'EDT toutes les mises à jour en attente, puis un seul redessin. */
+    private void vider() {
+        // baisser l'indicateur avant de lire la file : un dépôt concurrent
+        // sera soit lu ici, soit suivi d'un nouveau vidage
+        vidageProgramme.set(false);
+        int r0 = taille, c0 = taille, r1 = -1, c1 = -1;
+        MiseAJour m;
+        while ((m = enAttente.poll()) != null) {
+            appliquer(m.r0, m.c0, m.r1, m.c1, m.argb);
+            r0 = Math.min(r0, m.r0);
+            c0 = Math.min(c0, m.c0);
+            r1 = Math.max(r1, m.r1);
+            c1 = Math.max(c1, m.c1);
+        }
+        if (r1 >= 0) repaintCases(r0, c0, r1, c1);
+    }
+
+    private void appliquer(int r0, int c0, int r1, int c1, int argb) {
+        for (int i = r0; i <= r1; i++) {
+            for (int j = c0; j <= c1; j++) {
+                couleurs[i * taille + j] = argb;
+            }
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        // rend visibles à l'EDT les couleurs écrites avant l'affichage
+        synchronized (couleurs) {
+            affichee = true;
         }
+        if (SwingUtilities.isEventDispatchThread()) vider();
     }
 
     /**
-     * Active ou désactive tous les boutons de la grille. Utilise
-     * `invokeLater` pour s'assurer que les mises à jour ont lieu sur le
-     * thread d'affichage (Event Dispatch Thread).
+     * Active ou désactive les clics sur la grille. Un seul indicateur est
+     * modifié ; l'aspect de la grille est mis à jour par un redessin unique.
      */
     public void setClicActive(boolean active) {
-        SwingUtilities.invokeLater(() -> {
-            for (JButton[] ligne : cases) {
-                for (JButton bt : ligne) {
-                    bt.setEnabled(active);
-                }
-            }
-        });
+        clicActif = active;
+        repaint();
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
+    private void clic(int x, int y) {
+        if (!clicActif) return;
+        int cote = cote();
+        Insets in = getInsets();
+        int col = (x - in.left) / cote - 1;
+        int row = (y - in.top) / cote - 1;
+        if (x < in.left || y < in.top || row < 0 || row >= taille || col < 0 || col >= taille) return;
         // désactiver immédiatement pour éviter les doubles clics
-        this.setClicActive(false);
-        coordonneeSelectionnee = ((JButtonCoordonnee) e.getSource()).getCoordonnee();
+        setClicActive(false);
+        CompletableFuture<Coordonnee> f;
+        synchronized (this) {
+            f = selection;
+            selection = null;
+        }
+        if (f != null) f.complete(new Coordonnee(row, col));
+    }
+
+    /**
+     * Active la grille et retourne un futur complété (sur l'EDT) par la
+     * prochaine case cliquée. Aucun thread n'est bloqué pendant l'attente.
+     */
+    public CompletableFuture<Coordonnee> demanderCoordonnee() {
+        CompletableFuture<Coordonnee> f = new CompletableFuture<>();
         synchronized (this) {
-            this.notifyAll();
+            selection = f;
         }
+        this.setClicActive(true);
+        return f;
     }
 
     /**
      * Bloque jusqu'à ce qu'une case soit cliquée puis retourne la coordonnée
      * sélectionnée. La grille est réactivée automatiquement avant le blocage.
      */
-    public synchronized Coordonnee getCoordonneeSelectionnee() {
-        this.setClicActive(true);
+    public Coordonnee getCoordonneeSelectionnee() {
         try {
-            this.wait();
+            return demanderCoordonnee().get();
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
         }
-        return coordonneeSelectionnee;
     }
-}
\ No newline at end of file
+
+    /* ===================== Rendu ===================== */
+
+    /** Côté d'une case (pixels) pour la taille actuelle du composant. */
+    private int cote() {
+        Insets in = getInsets();
+        int w = getWidth() - in.left - in.right;
+        int h = getHeight() - in.top - in.bottom;
+        return Math.max(1, Math.min(w, h) / (taille + 1));
+    }
+
+    /** Demande le redessin du seul rectangle couvrant les cases indiquées. */
+    private void repaintCases(int r0, int c0, int r1, int c1) {
+        int cote = cote();
+        Insets in = getInsets();
+        repaint(in.left + (c0 + 1) * cote, in.top + (r0 + 1) * cote, (c1 - c0 + 1) * cote, (r1 - r0 + 1) * cote);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        int cote = cote();
+        Insets in = getInsets();
+        int x0 = in.left, y0 = in.top;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        // plage de cases intersectant la zone à redessiner
+        int cMin = Math.max(0, (clip.x - x0) / cote - 1);
+        int cMax = Math.min(taille - 1, (clip.x + clip.width - x0) / cote - 1);
+        int rMin = Math.max(0, (clip.y - y0) / cote - 1);
+        int rMax = Math.min(taille - 1, (clip.y + clip.height - y0) / cote - 1);
+
+        Color bord = clicActif ? BORD_ACTIF : BORD_INACTIF;
+        for (int r = rMin; r <= rMax; r++) {
+            int y = y0 + (r + 1) * cote;
+            for (int c = cMin; c <= cMax; c++) {
+                int x = x0 + (c + 1) * cote;
+                int argb = couleurs[r * taille + c];
+                g.setColor(argb == 0 ? FOND_CASE : new Color(argb, true));
+                g.fillRect(x, y, cote, cote);
+                if (cote >= 6) {
+                    g.setColor(bord);
+                    g.drawRect(x, y, cote - 1, cote - 1);
+                }
+            }
+        }
+
+        // en-têtes (lettres de colonnes, numéros de lignes)
+        if (cote < 8) return;
+        g.setColor(getForeground());
+        g.setFont(getFont().deriveFont(Font.PLAIN, Math.min(12f, cote * 0.45f)));
+        FontMetrics fm = g.getFontMetrics();
+        int base = (cote + fm.getAscent() - fm.getDescent()) / 2;
+        if (clip.y < y0 + cote) {
+            for (int c = cMin; c <= cMax; c++) {
+                String lbl = String.valueOf((char) ('A' + c));
+                g.drawString(lbl, x0 + (c + 1) * cote + (cote - fm.stringWidth(lbl)) / 2, y0 + base);
+            }
+        }
+        if (clip.x < x0 + cote) {
+            for (int r = rMin; r <= rMax; r++) {
+                String lbl = String.valueOf(r + 1);
+                g.drawString(lbl, x0 + (cote - fm.stringWidth(lbl)) / 2, y0 + (r + 1) * cote + base);
+            }
+        }
+    }
+}
@@ -40,6 +40,13 @@ public class GrilleNavaleGraphique extends GrilleNavale {
         return success;
     }
 
+    @Override
+    public void reinitialiser(int[] taillesNavires, long graine) {
+        // effacer l'affichage avant que le placement ne recolore les navires
+        gg.effacer();
+        super.reinitialiser(taillesNavires, graine);
+    }
+
     @Override
     public boolean recoitTir(Coordonnee c) {
         // Enregistrer le tir via la logique, puis mettre à jour l'affichage
@@ -0,0 +1,74 @@
+package interfacegraphique;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListModel;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.Timer;
+
+/**
+ * Panneau d'état non bloquant : une ligne de statut (dernier message) et
+ * l'historique des coups. Il remplace les boîtes de dialogue modales qui
+ * suspendaient la partie à chaque tir.
+ *
+ * {@link #ajouter(String)} peut être appelée depuis n'importe quel thread de
+ * jeu : le message est déposé dans une file sans verrou, et l'EDT applique
+ * les messages par lots au plus une fois par image. L'historique est borné
+ * ({@value #CAPACITE} entrées) pour qu'une partie observée sans limite de
+ * vitesse ne fasse pas croître la mémoire.
+ */
+public class JournalPartie extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int CAPACITE = 500;
+    private static final int PERIODE_IMAGE_MS = 16;
+
+    private final JLabel statut = new JLabel(" ");
+    private final DefaultListModel<String> historique = new DefaultListModel<>();
+    private final JList<String> liste = new JList<>(historique);
+    private final ConcurrentLinkedQueue<String> enAttente = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean vidageProgramme = new AtomicBoolean(false);
+
+    public JournalPartie() {
+        super(new BorderLayout());
+        statut.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        JScrollPane defilement = new JScrollPane(liste);
+        defilement.setPreferredSize(new Dimension(300, 120));
+        add(statut, BorderLayout.NORTH);
+        add(defilement, BorderLayout.CENTER);
+        setBorder(BorderFactory.createTitledBorder("Déroulement de la partie"));
+    }
+
+    /**
+     * Ajoute un message au journal sans bloquer l'appelant.
+     */
+    public void ajouter(String message) {
+        enAttente.offer(message);
+        if (vidageProgramme.compareAndSet(false, true)) {
+            Timer t = new Timer(PERIODE_IMAGE_MS, e -> vider());
+            t.setRepeats(false);
+            t.start();
+        }
+    }
+
+    private void vider() {
+        vidageProgramme.set(false);
+        String dernier = null;
+        String m;
+        while ((m = enAttente.poll()) != null) {
+            historique.addElement(m);
+            dernier = m;
+        }
+        if (dernier == null) return;
+        int surplus = historique.size() - CAPACITE;
+        if (surplus > 0) historique.removeRange(0, surplus - 1);
+        statut.setText(dernier);
+        liste.ensureIndexIsVisible(historique.size() - 1);
+    }
+}
@@ -1,7 +1,9 @@
 package joueurs;
 
+import java.util.Arrays;
 import java.util.Random;
 
+import interfacegraphique.GrilleGraphique;
 import interfacegraphique.GrilleNavaleGraphique;
 import logique.Coordonnee;
 
@@ -22,6 +24,38 @@ public class Bot extends Joueur {
         this.tirsEnvoyes = new boolean[taille][taille];
     }
 
+    /** Grille graphique de la flotte du bot (utilisée par le mode spectateur). */
+    public GrilleGraphique getGrilleGraphique() {
+        return gng.getGrilleGraphique();
+    }
+
+    /**
+     * Prépare le bot pour une nouvelle partie sans rien réallouer : sa grille
+     * reçoit une nouvelle flotte et l'historique des tirs est effacé. La
+     * graine fixe à la fois le placement et les choix aléatoires du bot.
+     *
+     * @throws IllegalStateException si le bot est en cours de partie
+     */
+    public void reinitialiser(int[] flotte, long graine) {
+        if (adversaire != null) {
+            throw new IllegalStateException("Impossible de réinitialiser un bot en cours de partie.");
+        }
+        gng.reinitialiser(flotte, graine);
+        for (boolean[] ligne : tirsEnvoyes) Arrays.fill(ligne, false);
+        rand.setSeed(graineDerivee(graine, 1));
+    }
+
+    /**
+     * Dérive d'une graine de partie une graine indépendante par usage (grille,
+     * tirs, heuristique), afin que ces flux aléatoires ne soient pas corrélés.
+     */
+    protected static long graineDerivee(long graine, int flux) {
+        long z = graine + flux * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     @Override
     protected void retourAttaque(Coordonnee c, int etat) {
         // bot basique : aucun traitement nécessaire au retour d'attaque
@@ -44,6 +78,12 @@ public class Bot extends Joueur {
         return new Coordonnee(ligne, colonne);
     }
 
+    /** Nombre de navires placés sur la grille du bot. */
+    @Override
+    public int getNombreNavires() {
+        return gng.getNavires().size();
+    }
+
     @Override
     public int defendre(Coordonnee c) {
         if (gng.estALEau(c)) {
@@ -1,5 +1,11 @@
 package joueurs;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
 import logique.Coordonnee;
 
 /**
@@ -23,6 +29,10 @@ public abstract class Joueur {
     private final int tailleGrille;
     protected Joueur adversaire;
 
+    // Pendule : échéance du coup en cours (System.nanoTime), fixée par la boucle de jeu
+    private volatile long echeance = Long.MAX_VALUE;
+    private volatile boolean sousPendule = false;
+
     public Joueur(int taille) {
         this.tailleGrille = taille;
     }
@@ -40,6 +50,24 @@ public abstract class Joueur {
      * @return résultat du match avec le vainqueur et les compteurs
      */
     public MatchResult jouerAvec(Joueur adversaire) {
+        return jouerAvec(adversaire, ReglesPartie.STANDARD);
+    }
+
+    /**
+     * Déroule une partie selon les règles fournies : la cadence éventuelle
+     * est respectée en attendant entre deux coups, et l'observateur est
+     * notifié après chaque coup. Si une pendule est imposée (budget par coup
+     * et/ou réserve par partie), l'échéance de chaque coup est publiée au
+     * joueur via {@link #getEcheance()} et les coups rendus en retard sont
+     * comptés dans le résultat. En variante salve ({@link ReglesPartie#avecSalve(int)}),
+     * chaque tour est une salve choisie d'un bloc par {@link #choisirAttaques(int)}
+     * (un seul coup pour la pendule) dont les résultats sont ensuite
+     * transmis tir par tir ; la partie s'arrête au tir qui coule le dernier
+     * navire.
+     *
+     * @return résultat du match avec le vainqueur et les compteurs
+     */
+    public MatchResult jouerAvec(Joueur adversaire, ReglesPartie regles) {
         if (this.adversaire != null || adversaire.adversaire != null) {
             throw new IllegalStateException("Un des joueurs est déjà en partie.");
         }
@@ -51,24 +79,170 @@ public abstract class Joueur {
         int movesA = 0; // attaques effectuées par `this`
         int movesB = 0; // attaques effectuées par `adversaire`
         boolean isAturn = true;
-        do {
-            lastAttacker = current;
-            Coordonnee attaque = current.choisirAttaque();
-            // increment the appropriate counter depending on whose turn it is
-            if (isAturn) movesA++; else movesB++;
-            res = current.adversaire.defendre(attaque);
-            current.retourAttaque(attaque, res);
-            current.adversaire.retourDefense(attaque, res);
-            // changement de joueur
-            current = (current == this) ? adversaire : this;
-            isAturn = !isAturn;
-        } while (res != GAMEOVER);
-        // nettoyage des liens entre joueurs
-        this.adversaire = null;
-        adversaire.adversaire = null;
+        long intervalle = regles.intervalleNanos();
+        ObservateurPartie observateur = regles.getObservateur();
+        long prochainCoup = System.nanoTime();
+        boolean pendule = regles.avecPendule();
+        long budget = regles.budgetParCoupNanos();
+        long reserveA = regles.reserveNanos();
+        long reserveB = reserveA;
+        int depassementsA = 0;
+        int depassementsB = 0;
+        int toursA = 0;
+        int toursB = 0;
+        int naviresA = this.getNombreNavires();
+        int naviresB = adversaire.getNombreNavires();
+        if (pendule) {
+            this.definirEcheance(Long.MAX_VALUE, true);
+            adversaire.definirEcheance(Long.MAX_VALUE, true);
+        }
+        try {
+            do {
+                if (intervalle > 0) {
+                    // limite de vitesse : attendre l'échéance du prochain coup
+                    long attente;
+                    while ((attente = prochainCoup - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(attente);
+                    }
+                    // après un coup lent, pas de rattrapage : le rythme repart de maintenant
+                    prochainCoup = Math.max(prochainCoup, System.nanoTime()) + intervalle;
+                }
+                lastAttacker = current;
+                int tirs = regles.tirsParTour(isAturn ? naviresA : naviresB);
+                // une salve ne dépasse pas le nombre de cases encore libres
+                int libres = tailleGrille * tailleGrille - (isAturn ? movesA : movesB);
+                tirs = Math.max(1, Math.min(tirs, libres));
+                List<Coordonnee> attaques;
+                if (pendule) {
+                    long alloue = budget > 0 ? budget : Long.MAX_VALUE;
+                    if (regles.reserveNanos() > 0) {
+                        alloue = Math.min(alloue, Math.max(0L, isAturn ? reserveA : reserveB));
+                    }
+                    long debut = System.nanoTime();
+                    current.definirEcheance(ajoutSature(debut, alloue), true);
+                    try {
+                        attaques = current.salve(tirs);
+                    } finally {
+                        current.definirEcheance(Long.MAX_VALUE, true);
+                    }
+                    long duree = System.nanoTime() - debut;
+                    if (duree > alloue) {
+                        if (isAturn) depassementsA++; else depassementsB++;
+                    }
+                    if (isAturn) reserveA -= duree; else reserveB -= duree;
+                } else {
+                    attaques = current.salve(tirs);
+                }
+                if (isAturn) toursA++; else toursB++;
+                res = A_L_EAU;
+                for (Coordonnee attaque : attaques) {
+                    // increment the appropriate counter depending on whose turn it is
+                    if (isAturn) movesA++; else movesB++;
+                    res = current.adversaire.defendre(attaque);
+                    current.retourAttaque(attaque, res);
+                    current.adversaire.retourDefense(attaque, res);
+                    if (observateur != null) observateur.coupJoue(current, attaque, res);
+                    if (res == COULE) {
+                        if (isAturn) naviresB--; else naviresA--;
+                    }
+                    if (res == GAMEOVER) break;
+                }
+                // changement de joueur
+                current = (current == this) ? adversaire : this;
+                isAturn = !isAturn;
+            } while (res != GAMEOVER);
+        } finally {
+            if (pendule) {
+                this.definirEcheance(Long.MAX_VALUE, false);
+                adversaire.definirEcheance(Long.MAX_VALUE, false);
+            }
+            // nettoyage des liens entre joueurs, même si la partie a échoué
+            this.adversaire = null;
+            adversaire.adversaire = null;
+        }
         int total = movesA + movesB;
         int winnerMoves = (lastAttacker == this) ? movesA : movesB;
-        return new MatchResult(lastAttacker, total, winnerMoves);
+        int winnerTurns = (lastAttacker == this) ? toursA : toursB;
+        return new MatchResult(lastAttacker, total, winnerMoves, this, depassementsA, depassementsB, winnerTurns);
+    }
+
+    /**
+     * Fait couler toute la flotte de {@code cible} par ce joueur seul :
+     * {@code cible} ne fait que se défendre. Les attaques d'un joueur ne
+     * dépendant que de la grille visée et de ses propres résultats, le
+     * nombre de coups (et de tours) obtenu est celui qu'il lui faudrait dans
+     * une vraie partie contre ce placement ; le premier joueur d'une partie
+     * gagne si son nombre de tours est inférieur ou égal à celui de
+     * l'adversaire. La salve suit les règles, mais comme ce joueur ne perd
+     * aucun navire, {@link ReglesPartie#SALVE_NAVIRES_RESTANTS} garde sa
+     * valeur initiale ; la pendule et la cadence sont ignorées.
+     *
+     * @return résultat dont ce joueur est le vainqueur, avec ses coups et
+     *         ses tours
+     */
+    public MatchResult attaquerSeul(Joueur cible, ReglesPartie regles) {
+        if (this.adversaire != null || cible.adversaire != null) {
+            throw new IllegalStateException("Un des joueurs est déjà en partie.");
+        }
+        this.adversaire = cible;
+        cible.adversaire = this;
+        ObservateurPartie observateur = regles.getObservateur();
+        int moves = 0;
+        int tours = 0;
+        int navires = this.getNombreNavires();
+        int res = A_L_EAU;
+        try {
+            while (res != GAMEOVER) {
+                int tirs = Math.max(1, Math.min(regles.tirsParTour(navires), tailleGrille * tailleGrille - moves));
+                tours++;
+                for (Coordonnee attaque : salve(tirs)) {
+                    moves++;
+                    res = cible.defendre(attaque);
+                    retourAttaque(attaque, res);
+                    cible.retourDefense(attaque, res);
+                    if (observateur != null) observateur.coupJoue(this, attaque, res);
+                    if (res == GAMEOVER) break;
+                }
+            }
+        } finally {
+            this.adversaire = null;
+            cible.adversaire = null;
+        }
+        return new MatchResult(this, moves, moves, this, 0, 0, tours);
+    }
+
+    /** Attaques d'un tour : un coup simple, ou une salve de {@code tirs} cases. */
+    private List<Coordonnee> salve(int tirs) {
+        return tirs == 1 ? Collections.singletonList(choisirAttaque()) : choisirAttaques(tirs);
+    }
+
+    private static long ajoutSature(long a, long b) {
+        long r = a + b;
+        return (b > 0 && r < a) ? Long.MAX_VALUE : r;
+    }
+
+    /**
+     * Échéance du coup en cours au sens de {@link System#nanoTime()}, ou
+     * {@link Long#MAX_VALUE} si aucune pendule n'est imposée. Les bots dont
+     * le calcul peut être long consultent cette valeur pour rendre à temps
+     * leur meilleur coup connu.
+     */
+    protected long getEcheance() {
+        return echeance;
+    }
+
+    /**
+     * Vrai pendant une partie jouée sous pendule, y compris entre deux coups
+     * (un bot peut ainsi renoncer à un calcul anticipé non décompté).
+     */
+    protected boolean estSousPendule() {
+        return sousPendule;
+    }
+
+    /** Publie l'échéance du prochain coup ; redéfinie par les décorateurs. */
+    void definirEcheance(long echeance, boolean sousPendule) {
+        this.echeance = echeance;
+        this.sousPendule = sousPendule;
     }
 
     /**
@@ -88,9 +262,58 @@ public abstract class Joueur {
      */
     public abstract Coordonnee choisirAttaque();
 
+    /**
+     * Choisit d'un bloc les {@code k} cases d'une salve, avant d'en connaître
+     * les résultats. Par défaut {@link #choisirAttaque()} est appelée
+     * {@code k} fois ; les joueurs capables de classer plusieurs cases en une
+     * seule évaluation (voir {@code Heuristic.choisirK}) la redéfinissent.
+     */
+    public List<Coordonnee> choisirAttaques(int k) {
+        List<Coordonnee> salve = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) salve.add(choisirAttaque());
+        return salve;
+    }
+
+    /**
+     * Nombre de navires de la flotte du joueur en début de partie ; fixe la
+     * taille des salves en variante {@link ReglesPartie#SALVE_NAVIRES_RESTANTS}.
+     * Par défaut 1 (flotte inconnue) ; redéfinie par les joueurs qui
+     * disposent de leur grille.
+     */
+    public int getNombreNavires() {
+        return 1;
+    }
+
     /**
      * Défend la grille contre une attaque. Doit retourner l'un des codes
      * définis dans cette classe.
      */
     public abstract int defendre(Coordonnee c);
+
+    /**
+     * Variante asynchrone de {@link #choisirAttaque()} utilisée par
+     * {@link PartieAsynchrone}. Par défaut le coup est calculé immédiatement
+     * sur le thread appelant : les bots synchrones n'ont rien à redéfinir.
+     * Les joueurs qui attendent un événement extérieur (clic, réseau)
+     * redéfinissent cette méthode pour ne bloquer aucun thread.
+     */
+    public CompletableFuture<Coordonnee> choisirAttaqueAsync() {
+        try {
+            return CompletableFuture.completedFuture(choisirAttaque());
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Variante asynchrone de {@link #defendre(Coordonnee)} ; par défaut la
+     * défense est résolue immédiatement sur le thread appelant.
+     */
+    public CompletableFuture<Integer> defendreAsync(Coordonnee c) {
+        try {
+            return CompletableFuture.completedFuture(defendre(c));
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
 }
\ No newline at end of file
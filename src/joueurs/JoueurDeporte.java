@@ -0,0 +1,95 @@
+package joueurs;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import logique.Coordonnee;
+
+/**
+ * Décorateur qui exécute le choix d'attaque d'un joueur sur un pool de
+ * calcul borné. Le thread qui déroule la partie attend le résultat sans
+ * consommer de temps CPU : un serveur peut ainsi héberger beaucoup plus de
+ * parties que de cœurs sans qu'un bot lent (MonteCarlo) n'affame les autres.
+ * Les retours d'attaque et de défense sont transmis tels quels au joueur
+ * décoré.
+ */
+public class JoueurDeporte extends Joueur {
+    private final Joueur delegue;
+    private final ExecutorService calcul;
+
+    public JoueurDeporte(Joueur delegue, ExecutorService calcul) {
+        super(delegue.getTaille());
+        this.delegue = delegue;
+        this.calcul = calcul;
+    }
+
+    /** Retourne le joueur décoré. */
+    public Joueur getDelegue() {
+        return delegue;
+    }
+
+    @Override
+    protected void retourAttaque(Coordonnee c, int etat) {
+        delegue.retourAttaque(c, etat);
+    }
+
+    @Override
+    protected void retourDefense(Coordonnee c, int etat) {
+        delegue.retourDefense(c, etat);
+    }
+
+    @Override
+    public Coordonnee choisirAttaque() {
+        Future<Coordonnee> f = calcul.submit(delegue::choisirAttaque);
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Partie interrompue pendant le calcul du coup.", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Échec du calcul du coup.", ex.getCause());
+        }
+    }
+
+    /** La salve est calculée d'un bloc sur le pool de calcul. */
+    @Override
+    public List<Coordonnee> choisirAttaques(int k) {
+        Future<List<Coordonnee>> f = calcul.submit(() -> delegue.choisirAttaques(k));
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Partie interrompue pendant le calcul de la salve.", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Échec du calcul de la salve.", ex.getCause());
+        }
+    }
+
+    @Override
+    public int getNombreNavires() {
+        return delegue.getNombreNavires();
+    }
+
+    /** Le coup est calculé sur le pool de calcul sans bloquer l'appelant. */
+    @Override
+    public CompletableFuture<Coordonnee> choisirAttaqueAsync() {
+        return CompletableFuture.supplyAsync(delegue::choisirAttaque, calcul);
+    }
+
+    /** L'échéance publiée par la boucle de jeu est transmise au joueur décoré. */
+    @Override
+    void definirEcheance(long echeance, boolean sousPendule) {
+        super.definirEcheance(echeance, sousPendule);
+        delegue.definirEcheance(echeance, sousPendule);
+    }
+
+    @Override
+    public int defendre(Coordonnee c) {
+        return delegue.defendre(c);
+    }
+}
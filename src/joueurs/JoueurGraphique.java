@@ -3,49 +3,65 @@ package joueurs;
 import java.awt.Color;
 import java.util.HashSet;
 import java.util.Set;
-
-import javax.swing.JOptionPane;
+import java.util.concurrent.CompletableFuture;
 
 import interfacegraphique.GrilleGraphique;
 import interfacegraphique.GrilleNavaleGraphique;
+import interfacegraphique.JournalPartie;
 import logique.Coordonnee;
 
 /**
  * Implémentation d'un joueur humain avec interface graphique. Le joueur
  * dispose de deux grilles : une pour ses navires et une autre pour suivre
  * ses attaques contre l'adversaire. Les actions de l'adversaire et les
- * résultats d'attaque sont signalés via des boîtes de dialogue.
+ * résultats d'attaque sont inscrits dans un {@link JournalPartie} : la partie
+ * n'est jamais suspendue par une boîte de dialogue.
  */
 public class JoueurGraphique extends Joueur {
     private final GrilleNavaleGraphique gng;
     private final GrilleGraphique gg;
+    private final JournalPartie journal;
     private final Set<Coordonnee> attaques;
 
     public JoueurGraphique(GrilleNavaleGraphique gng, GrilleGraphique gg) {
+        this(gng, gg, new JournalPartie());
+    }
+
+    /**
+     * Construit un joueur dont les messages sont inscrits dans le journal
+     * fourni (généralement affiché dans sa fenêtre).
+     */
+    public JoueurGraphique(GrilleNavaleGraphique gng, GrilleGraphique gg, JournalPartie journal) {
         super(gng.getTaille());
         this.gng = gng;
         this.gg = gg;
+        this.journal = journal;
         this.attaques = new HashSet<>();
     }
 
+    /** Retourne le journal dans lequel sont inscrits les messages de la partie. */
+    public JournalPartie getJournal() {
+        return journal;
+    }
+
     @Override
     protected void retourAttaque(Coordonnee c, int etat) {
         switch (etat) {
             case TOUCHE:
                 gg.colorie(c, Color.RED);
-                JOptionPane.showMessageDialog(gg, "Bateau touché en " + c);
+                journal.ajouter("Bateau touché en " + c);
                 break;
             case COULE:
                 gg.colorie(c, Color.RED);
-                JOptionPane.showMessageDialog(gg, "Bateau coulé en " + c);
+                journal.ajouter("Bateau coulé en " + c);
                 break;
             case A_L_EAU:
                 gg.colorie(c, Color.BLUE);
-                JOptionPane.showMessageDialog(gg, "À l'eau en " + c);
+                journal.ajouter("À l'eau en " + c);
                 break;
             case GAMEOVER:
                 gg.colorie(c, Color.RED);
-                JOptionPane.showMessageDialog(gg, "PARTIE TERMINÉE ! Vous avez gagné !");
+                journal.ajouter("PARTIE TERMINÉE ! Vous avez gagné !");
                 break;
         }
     }
@@ -54,16 +70,16 @@ public class JoueurGraphique extends Joueur {
     protected void retourDefense(Coordonnee c, int etat) {
         switch (etat) {
             case TOUCHE:
-                JOptionPane.showMessageDialog(gng.getGrilleGraphique(), "Votre navire a été touché en " + c);
+                journal.ajouter("Votre navire a été touché en " + c);
                 break;
             case COULE:
-                JOptionPane.showMessageDialog(gng.getGrilleGraphique(), "Votre navire a été coulé en " + c);
+                journal.ajouter("Votre navire a été coulé en " + c);
                 break;
             case A_L_EAU:
-                JOptionPane.showMessageDialog(gng.getGrilleGraphique(), "L'attaque a manqué en " + c);
+                journal.ajouter("L'attaque a manqué en " + c);
                 break;
             case GAMEOVER:
-                JOptionPane.showMessageDialog(gng.getGrilleGraphique(), "PARTIE TERMINÉE ! Vous avez perdu.");
+                journal.ajouter("PARTIE TERMINÉE ! Vous avez perdu.");
                 break;
         }
     }
@@ -74,13 +90,34 @@ public class JoueurGraphique extends Joueur {
         do {
             c = gg.getCoordonneeSelectionnee();
             if (attaques.contains(c)) {
-                JOptionPane.showMessageDialog(gg, "Vous avez déjà attaqué " + c + ". Choisissez une autre case.");
+                journal.ajouter("Vous avez déjà attaqué " + c + ". Choisissez une autre case.");
             }
         } while (attaques.contains(c));
         attaques.add(c);
         return c;
     }
 
+    /**
+     * Attend un clic sur la grille de tirs sans bloquer de thread ; une case
+     * déjà attaquée est signalée puis une nouvelle sélection est demandée.
+     */
+    @Override
+    public CompletableFuture<Coordonnee> choisirAttaqueAsync() {
+        return gg.demanderCoordonnee().thenCompose(c -> {
+            if (attaques.contains(c)) {
+                journal.ajouter("Vous avez déjà attaqué " + c + ". Choisissez une autre case.");
+                return choisirAttaqueAsync();
+            }
+            attaques.add(c);
+            return CompletableFuture.completedFuture(c);
+        });
+    }
+
+    @Override
+    public int getNombreNavires() {
+        return gng.getNavires().size();
+    }
+
     @Override
     public int defendre(Coordonnee c) {
         if (gng.estALEau(c)) {
@@ -97,4 +134,4 @@ public class JoueurGraphique extends Joueur {
         }
         return A_L_EAU;
     }
-}
\ No newline at end of file
+}
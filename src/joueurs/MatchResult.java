@@ -5,17 +5,49 @@ package joueurs;
  * total de coups (attaques) joués dans la partie, et le nombre de coups
  * effectués par le vainqueur. Utiliser {@link #getWinnerMoves()} pour
  * obtenir le nombre d'attaques effectuées par le joueur gagnant
- * (borné par la taille de la grille).
+ * (borné par la taille de la grille). Pour une partie jouée sous pendule,
+ * {@link #getDepassements(Joueur)} donne le nombre de coups rendus après
+ * leur échéance par chaque joueur. En variante salve, plusieurs attaques
+ * forment un tour : {@link #getWinnerTurns()} donne le nombre de tours joués
+ * par le vainqueur.
  */
 public class MatchResult {
     private final Joueur winner;
     private final int totalMoves;
     private final int winnerMoves;
+    private final Joueur premier;
+    private final int depassementsPremier;
+    private final int depassementsSecond;
+    private final int winnerTurns;
 
     public MatchResult(Joueur winner, int totalMoves, int winnerMoves) {
+        this(winner, totalMoves, winnerMoves, null, 0, 0);
+    }
+
+    /**
+     * @param premier             joueur ayant attaqué en premier (celui sur
+     *                            lequel {@code jouerAvec} a été appelé)
+     * @param depassementsPremier coups hors délai du premier joueur
+     * @param depassementsSecond  coups hors délai de son adversaire
+     */
+    public MatchResult(Joueur winner, int totalMoves, int winnerMoves,
+            Joueur premier, int depassementsPremier, int depassementsSecond) {
+        this(winner, totalMoves, winnerMoves, premier, depassementsPremier, depassementsSecond, winnerMoves);
+    }
+
+    /**
+     * @param winnerTurns tours joués par le vainqueur (égal à
+     *                    {@code winnerMoves} avec un tir par tour)
+     */
+    public MatchResult(Joueur winner, int totalMoves, int winnerMoves,
+            Joueur premier, int depassementsPremier, int depassementsSecond, int winnerTurns) {
         this.winner = winner;
         this.totalMoves = totalMoves;
         this.winnerMoves = winnerMoves;
+        this.premier = premier;
+        this.depassementsPremier = depassementsPremier;
+        this.depassementsSecond = depassementsSecond;
+        this.winnerTurns = winnerTurns;
     }
 
     public Joueur getWinner() {
@@ -31,4 +63,18 @@ public class MatchResult {
     public int getWinnerMoves() {
         return winnerMoves;
     }
+
+    /** Nombre de tours joués par le vainqueur (un tour = une salve). */
+    public int getWinnerTurns() {
+        return winnerTurns;
+    }
+
+    /**
+     * Nombre de coups rendus après leur échéance par le joueur donné (0 si
+     * la partie n'était pas jouée sous pendule).
+     */
+    public int getDepassements(Joueur j) {
+        if (premier == null) return 0;
+        return (j == premier) ? depassementsPremier : depassementsSecond;
+    }
 }
@@ -0,0 +1,18 @@
+package joueurs;
+
+import logique.Coordonnee;
+
+/**
+ * Reçoit chaque coup joué par la boucle de jeu (journal, spectateur,
+ * statistiques). Appelé sur le thread de la partie : l'implémentation doit
+ * rendre la main rapidement et ne jamais bloquer.
+ */
+@FunctionalInterface
+public interface ObservateurPartie {
+    /**
+     * @param attaquant joueur ayant tiré
+     * @param c         case visée
+     * @param etat      code de retour du défenseur ({@link Joueur#TOUCHE}, ...)
+     */
+    void coupJoue(Joueur attaquant, Coordonnee c, int etat);
+}
@@ -0,0 +1,100 @@
+package joueurs;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import logique.Coordonnee;
+
+/**
+ * Moteur de partie non bloquant. Chaque tour est enchaîné sur l'achèvement
+ * du précédent à l'aide de {@link CompletableFuture} : aucun thread n'est
+ * immobilisé pendant qu'un joueur humain réfléchit, et de nombreuses parties
+ * peuvent être multiplexées sur un petit {@link Executor}.
+ *
+ * Les règles et le résultat sont ceux de {@link Joueur#jouerAvec(Joueur)} :
+ * le premier joueur commence, les tours alternent jusqu'à {@code GAMEOVER}.
+ * Les joueurs synchrones sont pris en charge sans modification grâce aux
+ * implémentations par défaut de {@link Joueur#choisirAttaqueAsync()} et
+ * {@link Joueur#defendreAsync(Coordonnee)}.
+ */
+public class PartieAsynchrone {
+    private final Executor executeur;
+
+    public PartieAsynchrone(Executor executeur) {
+        this.executeur = executeur;
+    }
+
+    /** État d'une partie en cours ; chaque tour est exécuté séquentiellement. */
+    private static final class Etat {
+        final Joueur a;
+        final Joueur b;
+        final CompletableFuture<MatchResult> resultat = new CompletableFuture<>();
+        Joueur courant;
+        int movesA = 0;
+        int movesB = 0;
+
+        Etat(Joueur a, Joueur b) {
+            this.a = a;
+            this.b = b;
+            this.courant = a;
+        }
+    }
+
+    /**
+     * Démarre une partie entre {@code a} (qui commence) et {@code b} et rend
+     * la main immédiatement.
+     *
+     * @return futur complété avec le résultat du match
+     */
+    public CompletableFuture<MatchResult> jouer(Joueur a, Joueur b) {
+        if (a.adversaire != null || b.adversaire != null) {
+            throw new IllegalStateException("Un des joueurs est déjà en partie.");
+        }
+        a.adversaire = b;
+        b.adversaire = a;
+        Etat p = new Etat(a, b);
+        executeur.execute(() -> tour(p));
+        return p.resultat;
+    }
+
+    private void tour(Etat p) {
+        final Joueur attaquant = p.courant;
+        final Joueur defenseur = attaquant.adversaire;
+        CompletableFuture<Coordonnee> attaque;
+        try {
+            attaque = attaquant.choisirAttaqueAsync();
+        } catch (RuntimeException ex) {
+            terminer(p, null, ex);
+            return;
+        }
+        attaque.thenComposeAsync(c -> {
+            if (attaquant == p.a) p.movesA++; else p.movesB++;
+            return defenseur.defendreAsync(c).thenApply(res -> {
+                attaquant.retourAttaque(c, res);
+                defenseur.retourDefense(c, res);
+                return res;
+            });
+        }, executeur).whenCompleteAsync((res, err) -> {
+            if (err != null) {
+                terminer(p, null, err);
+            } else if (res == Joueur.GAMEOVER) {
+                terminer(p, attaquant, null);
+            } else {
+                p.courant = defenseur;
+                tour(p);
+            }
+        }, executeur);
+    }
+
+    private void terminer(Etat p, Joueur vainqueur, Throwable err) {
+        p.a.adversaire = null;
+        p.b.adversaire = null;
+        if (err != null) {
+            p.resultat.completeExceptionally(err);
+            return;
+        }
+        int total = p.movesA + p.movesB;
+        int winnerMoves = (vainqueur == p.a) ? p.movesA : p.movesB;
+        p.resultat.complete(new MatchResult(vainqueur, total, winnerMoves));
+    }
+}
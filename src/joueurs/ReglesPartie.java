@@ -0,0 +1,139 @@
+package joueurs;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Réglages d'une partie jouée par {@link Joueur#jouerAvec(Joueur, ReglesPartie)}.
+ * Les instances sont immuables ; les méthodes {@code avec...} retournent une
+ * copie modifiée.
+ */
+public class ReglesPartie {
+    /** Règles par défaut : un tir par tour, aucune limite de vitesse, aucun observateur, pas de pendule. */
+    public static final ReglesPartie STANDARD = new ReglesPartie(0.0, null, 0L, 0L, 1);
+
+    /**
+     * Valeur de salve pour laquelle chaque joueur tire, à chaque tour, autant
+     * de coups qu'il lui reste de navires à flot.
+     */
+    public static final int SALVE_NAVIRES_RESTANTS = -1;
+
+    private final double coupsParSeconde;
+    private final ObservateurPartie observateur;
+    private final long budgetParCoupNanos;
+    private final long reserveNanos;
+    private final int salve;
+
+    private ReglesPartie(double coupsParSeconde, ObservateurPartie observateur,
+            long budgetParCoupNanos, long reserveNanos, int salve) {
+        this.coupsParSeconde = coupsParSeconde;
+        this.observateur = observateur;
+        this.budgetParCoupNanos = budgetParCoupNanos;
+        this.reserveNanos = reserveNanos;
+        this.salve = salve;
+    }
+
+    /**
+     * Limite la vitesse de la partie (utile pour la regarder).
+     *
+     * @param coupsParSeconde nombre maximal de coups par seconde ; 0 ou moins
+     *                        pour une partie sans limite
+     */
+    public ReglesPartie avecCadence(double coupsParSeconde) {
+        return new ReglesPartie(Math.max(0.0, coupsParSeconde), observateur, budgetParCoupNanos, reserveNanos, salve);
+    }
+
+    /** Associe un observateur notifié après chaque coup. */
+    public ReglesPartie avecObservateur(ObservateurPartie observateur) {
+        return new ReglesPartie(coupsParSeconde, observateur, budgetParCoupNanos, reserveNanos, salve);
+    }
+
+    /**
+     * Limite le temps de réflexion de chaque coup. Un coup qui dépasse son
+     * budget est compté comme dépassement dans le {@link MatchResult} ; les
+     * bots coopératifs (voir {@link Joueur#getEcheance()}) jouent alors un
+     * coup de repli bon marché.
+     *
+     * @param millis budget par coup en millisecondes ; 0 ou moins pour aucun
+     */
+    public ReglesPartie avecBudgetParCoup(long millis) {
+        return new ReglesPartie(coupsParSeconde, observateur,
+                Math.max(0L, TimeUnit.MILLISECONDS.toNanos(millis)), reserveNanos, salve);
+    }
+
+    /**
+     * Attribue à chaque joueur une réserve de temps pour toute la partie :
+     * le temps de réflexion de chaque coup y est décompté, et l'échéance d'un
+     * coup ne dépasse jamais la réserve restante. Une fois la réserve épuisée,
+     * le joueur doit jouer immédiatement.
+     *
+     * @param millis réserve par joueur en millisecondes ; 0 ou moins pour aucune
+     */
+    public ReglesPartie avecReserve(long millis) {
+        return new ReglesPartie(coupsParSeconde, observateur, budgetParCoupNanos,
+                Math.max(0L, TimeUnit.MILLISECONDS.toNanos(millis)), salve);
+    }
+
+    /**
+     * Variante « salve » : à chaque tour, le joueur choisit {@code tirs}
+     * cases d'un coup (voir {@link Joueur#choisirAttaques(int)}), puis reçoit
+     * les résultats. Sous pendule, le budget par coup s'applique à la salve
+     * entière.
+     *
+     * @param tirs nombre de tirs par tour (1 pour la règle classique), ou
+     *             {@link #SALVE_NAVIRES_RESTANTS}
+     */
+    public ReglesPartie avecSalve(int tirs) {
+        if (tirs < 1 && tirs != SALVE_NAVIRES_RESTANTS) {
+            throw new IllegalArgumentException("Taille de salve invalide : " + tirs);
+        }
+        return new ReglesPartie(coupsParSeconde, observateur, budgetParCoupNanos, reserveNanos, tirs);
+    }
+
+    /** Tirs par tour : 1 en règle classique, ou {@link #SALVE_NAVIRES_RESTANTS}. */
+    public int getSalve() {
+        return salve;
+    }
+
+    public double getCoupsParSeconde() {
+        return coupsParSeconde;
+    }
+
+    public ObservateurPartie getObservateur() {
+        return observateur;
+    }
+
+    /** Budget par coup en millisecondes (0 si illimité). */
+    public long getBudgetParCoupMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(budgetParCoupNanos);
+    }
+
+    /** Réserve par joueur et par partie en millisecondes (0 si illimitée). */
+    public long getReserveMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(reserveNanos);
+    }
+
+    /** Intervalle minimal entre deux coups en nanosecondes (0 si illimité). */
+    long intervalleNanos() {
+        return coupsParSeconde > 0 ? (long) (1e9 / coupsParSeconde) : 0L;
+    }
+
+    /** Budget par coup en nanosecondes (0 si illimité). */
+    long budgetParCoupNanos() {
+        return budgetParCoupNanos;
+    }
+
+    /** Réserve par joueur en nanosecondes (0 si illimitée). */
+    long reserveNanos() {
+        return reserveNanos;
+    }
+
+    /** Nombre de tirs du tour pour un joueur ayant encore {@code naviresAFlot} navires. */
+    int tirsParTour(int naviresAFlot) {
+        return salve > 0 ? salve : Math.max(1, naviresAFlot);
+    }
+
+    /** Vrai si un budget par coup ou une réserve est imposé. */
+    boolean avecPendule() {
+        return budgetParCoupNanos > 0 || reserveNanos > 0;
+    }
+}
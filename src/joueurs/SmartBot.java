@@ -4,14 +4,24 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
-
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import heuristic.Entropie;
+import heuristic.FiltreParticulaire;
+import heuristic.FinDePartie;
 import heuristic.Heuristic;
+import heuristic.MCMC;
 import heuristic.Markov;
 import heuristic.MonteCarlo;
 import heuristic.Uniform;
 
 import interfacegraphique.GrilleNavaleGraphique;
 import logique.Coordonnee;
+import logique.Observations;
 
 /**
  * SmartBot : bot combinant deux approches principales :
@@ -25,7 +35,10 @@ import logique.Coordonnee;
  * </ul>
  *
  * La heuristique probabiliste exclut toute case déjà tirée (miss ou case
- * faisant partie d'un navire coulé).
+ * faisant partie d'un navire coulé) ainsi que le halo des navires coulés :
+ * les navires ne pouvant pas se toucher, les cases voisines d'un navire
+ * coulé sont de l'eau (voir {@link Observations}). Elle reçoit pour cela la
+ * matrice des cases connues plutôt que celle des cases tirées.
  */
 public class SmartBot extends Bot {
     private final Deque<Coordonnee> cibles = new ArrayDeque<>();
@@ -33,7 +46,7 @@ public class SmartBot extends Bot {
 
     // Données pour la stratégie probabiliste
     private final int N;
-    private final boolean[][] toucheNonCoule; // touches connues mais pas encore marquées comme coulées
+    private final Observations observations; // tirs, touches, navires coulés et leur halo
     private final List<Integer> naviresRestants;
 
     // État pour le mode 'target' (hunt -> target)
@@ -50,6 +63,19 @@ public class SmartBot extends Bot {
     // liste des touches en cours (cluster non encore identifié comme coulé)
     private final List<Coordonnee> currentHits = new ArrayList<>();
 
+    // heuristiques de repli, conservées d'un coup et d'une partie à l'autre
+    private final Uniform repliUniforme = new Uniform();
+    private Markov repliMarkov = null;
+
+    // solveur exact, prend la main quand peu de flottes restent possibles
+    private FinDePartie finDePartie = new FinDePartie();
+
+    // Exécution spéculative : le prochain coup est calculé pendant le tour adverse
+    private ExecutorService speculation = null;
+    private Future<Coordonnee> coupSpecule = null;
+    // tirs d'une salve dont le résultat n'est pas encore revenu
+    private int tirsEnAttente = 0;
+
     /** Constructeur avec flotte par défaut. */
     public SmartBot(GrilleNavaleGraphique gng) {
         this(gng, List.of(5, 4, 3, 3, 2, 2));
@@ -67,7 +93,7 @@ public class SmartBot extends Bot {
     public SmartBot(GrilleNavaleGraphique gng, List<Integer> longueursInitiales) {
         super(gng);
         this.N = gng.getTaille();
-        this.toucheNonCoule = new boolean[N][N];
+        this.observations = new Observations(N);
         this.naviresRestants = new ArrayList<>(longueursInitiales);
         initHeuristic(null);
     }
@@ -80,6 +106,15 @@ public class SmartBot extends Bot {
         initHeuristic(heuristicName);
     }
 
+    /**
+     * Constructeur avec une instance d'heuristique déjà configurée (par
+     * exemple un {@link MonteCarlo} avec un nombre d'échantillons choisi).
+     */
+    public SmartBot(GrilleNavaleGraphique gng, Heuristic heuristic) {
+        this(gng);
+        this.heuristic = (heuristic != null) ? heuristic : new Uniform();
+    }
+
     private void initHeuristic(String name) {
         if (name == null) {
             this.heuristic = new Uniform();
@@ -95,6 +130,16 @@ public class SmartBot extends Bot {
             case "markow":
                 this.heuristic = new Markov();
                 break;
+            case "particules":
+            case "filtre":
+                this.heuristic = new FiltreParticulaire();
+                break;
+            case "mcmc":
+                this.heuristic = new MCMC();
+                break;
+            case "entropie":
+                this.heuristic = new Entropie();
+                break;
             case "uniform":
             default:
                 this.heuristic = new Uniform();
@@ -102,11 +147,118 @@ public class SmartBot extends Bot {
         }
     }
 
+    /* ===================== Exécution spéculative ===================== */
+
+    /**
+     * Active le mode spéculatif : dès que le résultat d'une attaque est
+     * connu, le coup suivant est calculé sur un thread dédié pendant que
+     * l'adversaire réfléchit, et {@link #choisirAttaque()} le renvoie
+     * immédiatement. Le coup suivant ne dépend que des résultats de nos
+     * propres attaques ; comme la boucle de jeu fournit ce résultat avant le
+     * début du tour adverse, il n'est pas nécessaire de précalculer les deux
+     * issues (touché/manqué) du tir en attente.
+     */
+    public synchronized void activerSpeculation() {
+        if (speculation == null) {
+            speculation = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "SmartBot-speculation");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Remplace le solveur de fin de partie ({@code null} pour le désactiver),
+     * par exemple pour en changer le seuil de déclenchement.
+     */
+    public void setFinDePartie(FinDePartie solveur) {
+        this.finDePartie = solveur;
+    }
+
+    /** Solveur de fin de partie courant (ses statistiques de déclenchement), ou {@code null}. */
+    public FinDePartie getFinDePartie() {
+        return finDePartie;
+    }
+
+    /** Désactive le mode spéculatif et libère le thread associé. */
+    public synchronized void desactiverSpeculation() {
+        abandonnerSpeculation();
+        if (speculation != null) {
+            speculation.shutdown();
+            speculation = null;
+        }
+    }
+
+    /**
+     * Écarte un coup spéculé devenu obsolète (fin de partie). Le calcul en
+     * cours éventuel est attendu afin de ne laisser aucune écriture
+     * concurrente sur l'état du bot.
+     */
+    private void abandonnerSpeculation() {
+        Future<Coordonnee> f = coupSpecule;
+        coupSpecule = null;
+        if (f != null && !f.cancel(false)) attendreSpeculation(f);
+    }
+
+    /**
+     * Attend la fin du calcul spéculatif et renvoie son coup, ou
+     * {@code null} s'il a échoué ou a été annulé avant de démarrer. Une
+     * interruption ne coupe pas l'attente : le calcul modifie l'heuristique,
+     * les observations et leurs tampons, et reprendre la main avant sa fin
+     * ouvrirait une course ; elle est rétablie au retour.
+     */
+    private static Coordonnee attendreSpeculation(Future<Coordonnee> f) {
+        boolean interrompu = false;
+        try {
+            while (true) {
+                try {
+                    return f.get();
+                } catch (InterruptedException ex) {
+                    interrompu = true;
+                } catch (ExecutionException | CancellationException ex) {
+                    return null;
+                }
+            }
+        } finally {
+            if (interrompu) Thread.currentThread().interrupt();
+        }
+    }
+
+    private void lancerSpeculation() {
+        ExecutorService ex = speculation;
+        // sous pendule, un calcul anticipé échapperait au décompte du temps
+        if (ex != null && coupSpecule == null && !estSousPendule()) {
+            coupSpecule = ex.submit(this::calculerAttaque);
+        }
+    }
+
+    /**
+     * Remet le bot à zéro pour une nouvelle partie contre la flotte donnée :
+     * état de chasse, navires restants et heuristique sont réinitialisés en
+     * place. Un coup spéculé éventuel est abandonné.
+     */
+    @Override
+    public void reinitialiser(int[] flotte, long graine) {
+        abandonnerSpeculation();
+        tirsEnAttente = 0;
+        super.reinitialiser(flotte, graine);
+        cibles.clear();
+        observations.effacer();
+        naviresRestants.clear();
+        for (int L : flotte) naviresRestants.add(L);
+        clearCurrentTargetState();
+        if (heuristic != null) heuristic.reinitialiser(graineDerivee(graine, 2));
+        repliUniforme.reinitialiser(graineDerivee(graine, 3));
+        if (repliMarkov != null) repliMarkov.reinitialiser(graineDerivee(graine, 4));
+    }
+
     /* ===================== API principale ===================== */
     @Override
     protected void retourAttaque(Coordonnee c, int etat) {
         // gestion des retours après avoir attaqué
         if (etat == TOUCHE) {
+            observations.toucher(c);
             currentHits.add(c);
             if (targetStart == null) {
                 targetStart = c;
@@ -137,15 +289,17 @@ public class SmartBot extends Bot {
             }
 
         } else if (etat == COULE) {
-            // marquer le cluster comme coulé
-            currentHits.add(c);
-            int len = computeCurrentClusterLength();
-            removeShipLength(len);
-            // purge du cluster
-            clearClusterAround(c);
-            // vider l'état de cible et la file de voisins pour revenir au mode heuristique
+            // le navire coulé est la composante de touches contenant c ; son
+            // halo devient de l'eau connue
+            List<Coordonnee> navire = observations.couler(c);
+            removeShipLength(navire.size());
+            // vider l'état de cible et la file de voisins ; les touches d'un
+            // autre navire éventuellement rencontrées restent à poursuivre
+            List<Coordonnee> autres = new ArrayList<>(currentHits);
+            autres.removeAll(navire);
             clearCurrentTargetState();
             cibles.clear();
+            currentHits.addAll(autres);
 
         } else if (etat == A_L_EAU) {
             // tir à l'eau
@@ -160,29 +314,107 @@ public class SmartBot extends Bot {
             naviresRestants.clear();
             clearCurrentTargetState();
         }
+        if (tirsEnAttente > 0) tirsEnAttente--;
+        // en salve, spéculer seulement après le dernier résultat
+        if (etat != GAMEOVER && tirsEnAttente == 0) lancerSpeculation();
     }
 
     @Override
     protected void retourDefense(Coordonnee c, int etat) {
-        // Non utilisé par ce bot
+        // Seule la défaite importe : un coup spéculé ne sera jamais joué
+        if (etat == GAMEOVER) abandonnerSpeculation();
     }
 
     @Override
     public Coordonnee choisirAttaque() {
+        Future<Coordonnee> f = coupSpecule;
+        if (f != null) {
+            coupSpecule = null;
+            Coordonnee c = attendreSpeculation(f);
+            if (c != null) return c;
+            // calcul spéculatif en échec : recalculer de façon synchrone
+        }
+        return calculerAttaque();
+    }
+
+    /**
+     * Salve de k tirs : le premier est celui du mode chasse (ou le coup
+     * spéculé), les autres sont les k-1 meilleures cases de l'heuristique,
+     * calculées en une seule passe. La chasse n'est consultée qu'une fois car
+     * sa file de voisins n'avance qu'avec les résultats des tirs.
+     */
+    @Override
+    public List<Coordonnee> choisirAttaques(int k) {
+        if (k <= 1) return super.choisirAttaques(k);
+        List<Coordonnee> salve = new ArrayList<>(k);
+        Future<Coordonnee> f = coupSpecule;
+        Coordonnee premier = null;
+        if (f != null) {
+            coupSpecule = null;
+            // null si le calcul spéculatif a échoué : la salve est calculée entière
+            premier = attendreSpeculation(f);
+        }
+        if (premier == null) premier = hunt();
+        if (premier != null) salve.add(premier);
+
+        long echeance = getEcheance();
+        boolean[][] connues = observations.getConnues();
+        if (heuristic != null && !Heuristic.tempsEcoule(echeance)) {
+            ajouter(salve, heuristic.choisirK(connues, gng, naviresRestants, currentHits, k - salve.size(), echeance));
+        }
+        if (salve.size() < k && echeance != Long.MAX_VALUE) {
+            if (repliMarkov == null) repliMarkov = new Markov();
+            ajouter(salve, repliMarkov.choisirK(connues, gng, naviresRestants, currentHits, k - salve.size(),
+                    Long.MAX_VALUE));
+        }
+        if (salve.size() < k) {
+            ajouter(salve, repliUniforme.choisirK(connues, gng, naviresRestants, currentHits, k - salve.size(), echeance));
+        }
+        tirsEnAttente = salve.size();
+        return salve;
+    }
+
+    /** Ajoute les cases à la salve en les marquant comme tirées. */
+    private void ajouter(List<Coordonnee> salve, List<Coordonnee> choix) {
+        for (Coordonnee c : choix) {
+            marquerTir(c);
+            salve.add(c);
+        }
+    }
+
+    /** Calcul effectif du prochain coup (fin de partie exacte, sinon hunt puis heuristique). */
+    private Coordonnee calculerAttaque() {
+        // 0) En fin de partie, le solveur exact remplace chasse et heuristique
+        long echeance = getEcheance();
+        if (finDePartie != null && !Heuristic.tempsEcoule(echeance)) {
+            Coordonnee fin = finDePartie.choisir(observations.getConnues(), naviresRestants, currentHits, echeance);
+            if (fin != null) {
+                marquerTir(fin);
+                return fin;
+            }
+        }
+
         // Delegate hunting logic to hunt(); if it returns a target, use it
         Coordonnee huntTarget = hunt();
         if (huntTarget != null) return huntTarget;
 
         // 2) Sinon : utiliser l'heuristique configurée. Si elle est absente ou
-        // ne retourne rien, revenir à un choix uniforme.
+        // ne retourne rien, revenir à un choix uniforme. Sous pendule, une
+        // heuristique interrompue sans résultat (donc à l'échéance) est
+        // remplacée par Markov, en O(N²), joué même hors délai : un tir
+        // uniforme en pleine chasse coûte bien plus que ce dépassement.
         Coordonnee choix = null;
-        if (heuristic != null) {
-            choix = heuristic.choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
+        if (heuristic != null && !Heuristic.tempsEcoule(echeance)) {
+            choix = heuristic.choisir(observations.getConnues(), gng, naviresRestants, currentHits, echeance);
+        }
+        if (choix == null && echeance != Long.MAX_VALUE) {
+            if (repliMarkov == null) repliMarkov = new Markov();
+            choix = repliMarkov.choisir(observations.getConnues(), gng, naviresRestants, currentHits);
         }
         if (choix == null) {
-            choix = new Uniform().choisir(tirsEnvoyes, gng, naviresRestants, currentHits);
+            choix = repliUniforme.choisir(observations.getConnues(), gng, naviresRestants, currentHits);
         }
-        if (choix != null) tirsEnvoyes[choix.getLigne()][choix.getColonne()] = true;
+        if (choix != null) marquerTir(choix);
         return choix;
     }
 
@@ -200,7 +432,7 @@ public class SmartBot extends Bot {
             if (preferForward && !triedForward) {
                 Coordonnee f = forwardCandidate();
                 if (isValidUnfired(f)) {
-                    tirsEnvoyes[f.getLigne()][f.getColonne()] = true;
+                    marquerTir(f);
                     return f;
                 }
                 triedForward = true;
@@ -210,7 +442,7 @@ public class SmartBot extends Bot {
             if (!preferForward && !triedBackward) {
                 Coordonnee b = backwardCandidate();
                 if (isValidUnfired(b)) {
-                    tirsEnvoyes[b.getLigne()][b.getColonne()] = true;
+                    marquerTir(b);
                     return b;
                 }
                 triedBackward = true;
@@ -220,7 +452,7 @@ public class SmartBot extends Bot {
             // Si les deux côtés sont bloqués, essayer un voisin non tiré autour du cluster
             Coordonnee around = findUnfiredNeighborAroundCluster();
             if (around != null) {
-                tirsEnvoyes[around.getLigne()][around.getColonne()] = true;
+                marquerTir(around);
                 return around;
             }
 
@@ -234,7 +466,7 @@ public class SmartBot extends Bot {
         while (!cibles.isEmpty()) {
             Coordonnee next = cibles.removeFirst();
             if (isValidUnfired(next)) {
-                tirsEnvoyes[next.getLigne()][next.getColonne()] = true;
+                marquerTir(next);
                 return next;
             }
         }
@@ -247,7 +479,7 @@ public class SmartBot extends Bot {
         while (!cibles.isEmpty()) {
             Coordonnee next = cibles.removeFirst();
             if (isValidUnfired(next)) {
-                tirsEnvoyes[next.getLigne()][next.getColonne()] = true;
+                marquerTir(next);
                 return next;
             }
         }
@@ -261,6 +493,12 @@ public class SmartBot extends Bot {
     /* La heatmap interne a été retirée : SmartBot délègue les choix hors-hunt à une Heuristic. */
 
     /* ===================== Utilitaires communs ===================== */
+    /** Marque la case comme tirée, pour le bot comme pour le modèle d'observation. */
+    private void marquerTir(Coordonnee c) {
+        tirsEnvoyes[c.getLigne()][c.getColonne()] = true;
+        observations.tirer(c);
+    }
+
     private boolean in(int r, int c) {
         return r >= 0 && r < N && c >= 0 && c < N;
     }
@@ -313,7 +551,7 @@ public class SmartBot extends Bot {
             int r = h.getLigne(), c = h.getColonne();
             for (int i = 0; i < 4; i++) {
                 int rr = r + dr[i], cc = c + dc[i];
-                if (in(rr, cc) && !tirsEnvoyes[rr][cc])
+                if (in(rr, cc) && !observations.getConnues()[rr][cc])
                     return new Coordonnee(rr, cc);
             }
         }
@@ -365,17 +603,6 @@ public class SmartBot extends Bot {
         }
     }
 
-    private int computeCurrentClusterLength() {
-        if (targetStart == null || targetEnd == null)
-            return currentHits.size();
-        if (targetStart.getLigne() == targetEnd.getLigne()) {
-            return Math.abs(targetEnd.getColonne() - targetStart.getColonne()) + 1;
-        } else if (targetStart.getColonne() == targetEnd.getColonne()) {
-            return Math.abs(targetEnd.getLigne() - targetStart.getLigne()) + 1;
-        }
-        return currentHits.size();
-    }
-
     private void removeShipLength(int len) {
         Integer toRemove = Integer.valueOf(len);
         if (naviresRestants.remove(toRemove))
@@ -406,27 +633,6 @@ public class SmartBot extends Bot {
         // largeur removed
     }
 
-    /** Purge le cluster connecté de touches autour d'une case coulée. */
-    private void clearClusterAround(Coordonnee c) {
-        int sr = c.getLigne(), sc = c.getColonne();
-        if (!toucheNonCoule[sr][sc])
-            toucheNonCoule[sr][sc] = true;
-        ArrayDeque<int[]> dq = new ArrayDeque<>();
-        dq.add(new int[] { sr, sc });
-        int[] dr = { 1, -1, 0, 0 };
-        int[] dc = { 0, 0, 1, -1 };
-        while (!dq.isEmpty()) {
-            int[] cur = dq.poll();
-            int rr = cur[0], cc = cur[1];
-            toucheNonCoule[rr][cc] = false; // résolu
-            for (int d = 0; d < 4; d++) {
-                int nr = rr + dr[d], nc = cc + dc[d];
-                if (in(nr, nc) && toucheNonCoule[nr][nc])
-                    dq.add(new int[] { nr, nc });
-            }
-        }
-    }
-
     /* ===================== Direction helpers ===================== */
     private Coordonnee forwardCandidate() {
         if (targetEnd == null)
@@ -441,7 +647,7 @@ public class SmartBot extends Bot {
     }
 
     private boolean isValidUnfired(Coordonnee c) {
-        return c != null && in(c.getLigne(), c.getColonne()) && !tirsEnvoyes[c.getLigne()][c.getColonne()];
+        return c != null && in(c.getLigne(), c.getColonne()) && !observations.estConnue(c);
     }
 
     // petites fonctions utilitaires pour l'arithmétique de Coordonnee
@@ -77,12 +77,30 @@ public class GrilleNavale {
                 int ligne = rnd.nextInt(taille);
                 int colonne = rnd.nextInt(taille);
                 boolean estVertical = rnd.nextBoolean();
+                // écarter sans allocation les positions qui débordent de la grille
+                if ((estVertical ? ligne : colonne) + tailleNavire > taille) continue;
                 Navire n = new Navire(new Coordonnee(ligne, colonne), tailleNavire, estVertical);
                 placed = ajouteNavire(n);
             }
         }
     }
 
+    /**
+     * Remet la grille dans son état initial (aucun navire, aucun tir) puis
+     * place une nouvelle flotte. La graine rend le placement reproductible ;
+     * les collections existantes sont réutilisées, ce qui permet d'enchaîner
+     * les parties sans réallouer la grille.
+     *
+     * @param taillesNavires longueurs des navires à placer
+     * @param graine         graine du placement aléatoire
+     */
+    public void reinitialiser(int[] taillesNavires, long graine) {
+        navires.clear();
+        tirsRecus.clear();
+        rnd.setSeed(graine);
+        placementAuto(taillesNavires);
+    }
+
     /**
      * Traite un tir sur la grille. Si la coordonnée a déjà été attaquée,
      * retourne faux. Sinon, enregistre le tir et retourne vrai si un navire
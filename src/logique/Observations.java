@@ -0,0 +1,119 @@
+package logique;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ce que l'attaquant sait de la grille adverse : cases tirées, touches,
+ * navires coulés, et eau déduite.
+ *
+ * {@link GrilleNavale#ajouteNavire(Navire)} interdit à deux navires de se
+ * toucher (les diagonales sont permises). Deux touches orthogonalement
+ * voisines appartiennent donc au même navire, et quand un navire est coulé
+ * ses cases sont exactement la composante connexe de touches qui contient
+ * le tir fatal ; toutes les cases orthogonalement voisines de ce navire
+ * (son « halo ») sont alors de l'eau, sans qu'il soit utile d'y tirer.
+ *
+ * La matrice {@link #getConnues()} réunit les cases tirées et l'eau déduite :
+ * c'est elle que les heuristiques reçoivent en guise de cases tirées, ce qui
+ * retire le halo des candidats et des placements qu'elles énumèrent.
+ */
+public class Observations {
+    private final int N;
+    private final boolean[][] touchees;
+    private final boolean[][] coulees;
+    private final boolean[][] connues;
+    private int eauDeduite = 0;
+
+    public Observations(int taille) {
+        this.N = taille;
+        this.touchees = new boolean[taille][taille];
+        this.coulees = new boolean[taille][taille];
+        this.connues = new boolean[taille][taille];
+    }
+
+    /** Oublie toutes les observations (nouvelle partie). */
+    public void effacer() {
+        for (int r = 0; r < N; r++) {
+            Arrays.fill(touchees[r], false);
+            Arrays.fill(coulees[r], false);
+            Arrays.fill(connues[r], false);
+        }
+        eauDeduite = 0;
+    }
+
+    /** Enregistre un tir sur la case, avant même d'en connaître le résultat. */
+    public void tirer(Coordonnee c) {
+        connues[c.getLigne()][c.getColonne()] = true;
+    }
+
+    /** Enregistre une touche (le navire peut être coulé par ce même tir). */
+    public void toucher(Coordonnee c) {
+        tirer(c);
+        touchees[c.getLigne()][c.getColonne()] = true;
+    }
+
+    /**
+     * Enregistre le naufrage du navire touché en c : ses cases (composante
+     * connexe de touches non coulées contenant c) sont marquées coulées, et
+     * son halo est marqué comme eau connue.
+     *
+     * @return les cases du navire coulé
+     */
+    public List<Coordonnee> couler(Coordonnee c) {
+        toucher(c);
+        List<Coordonnee> navire = new ArrayList<>();
+        ArrayDeque<Coordonnee> file = new ArrayDeque<>();
+        coulees[c.getLigne()][c.getColonne()] = true;
+        file.add(c);
+        while (!file.isEmpty()) {
+            Coordonnee cur = file.poll();
+            navire.add(cur);
+            for (int d = 0; d < 4; d++) {
+                int r = cur.getLigne() + DL[d], col = cur.getColonne() + DC[d];
+                if (dedans(r, col) && touchees[r][col] && !coulees[r][col]) {
+                    coulees[r][col] = true;
+                    file.add(new Coordonnee(r, col));
+                }
+            }
+        }
+        for (Coordonnee h : navire) {
+            for (int d = 0; d < 4; d++) {
+                int r = h.getLigne() + DL[d], col = h.getColonne() + DC[d];
+                if (dedans(r, col) && !connues[r][col]) {
+                    connues[r][col] = true;
+                    eauDeduite++;
+                }
+            }
+        }
+        return navire;
+    }
+
+    /** Cases tirées ou connues comme eau ; la matrice est partagée, pas copiée. */
+    public boolean[][] getConnues() {
+        return connues;
+    }
+
+    public boolean estConnue(Coordonnee c) {
+        return connues[c.getLigne()][c.getColonne()];
+    }
+
+    /** Vrai si la case a été touchée et appartient à un navire coulé. */
+    public boolean estCoulee(Coordonnee c) {
+        return coulees[c.getLigne()][c.getColonne()];
+    }
+
+    /** Nombre de cases déduites comme eau sans avoir été tirées. */
+    public int getEauDeduite() {
+        return eauDeduite;
+    }
+
+    private boolean dedans(int r, int c) {
+        return r >= 0 && r < N && c >= 0 && c < N;
+    }
+
+    private static final int[] DL = { -1, 1, 0, 0 };
+    private static final int[] DC = { 0, 0, -1, 1 };
+}
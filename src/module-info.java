@@ -8,4 +8,6 @@
  */
 module ComplementIA {
     requires java.desktop;
+    requires java.management;
+    requires jdk.management;
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package serveur;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import logique.Coordonnee;
+
+/**
+ * Client scripté simulant de nombreux joueurs humains simultanés contre un
+ * {@link ServeurJeu}. Chaque session tire sur des cases aléatoires non encore
+ * jouées et mesure la latence entre l'envoi d'un tir et la réception du coup
+ * du bot. À la fin, le débit (parties et coups par seconde) et les
+ * percentiles de latence sont affichés.
+ *
+ * Usage : {@code ClientScripte [sessions] [parties] [taille] [bot] [port]} ;
+ * sans port, un serveur est démarré dans la même JVM sur un port libre.
+ */
+public class ClientScripte {
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int sessions = 100;
+        int parties = 5;
+        int taille = 10;
+        String bot = "smart";
+        int port = -1;
+        if (args.length > 0) {
+            try { sessions = Integer.parseInt(args[0]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 1) {
+            try { parties = Integer.parseInt(args[1]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 2) {
+            try { taille = Integer.parseInt(args[2]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 3) bot = args[3];
+        if (args.length > 4) {
+            try { port = Integer.parseInt(args[4]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+
+        ServeurJeu local = null;
+        if (port < 0) {
+            local = new ServeurJeu(0, Runtime.getRuntime().availableProcessors());
+            local.demarrer();
+            port = local.getPort();
+        }
+        System.out.printf("Client scripté : %d sessions x %d parties, grille=%d, bot=%s, port=%d\n", sessions,
+                parties, taille, bot, port);
+
+        final int p = port, nParties = parties, t = taille;
+        final String b = bot;
+        ExecutorService clients = ServeurJeu.executeurParSession();
+        List<Future<long[]>> resultats = new ArrayList<>();
+        long debut = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            final long graine = i;
+            resultats.add(clients.submit(() -> session(p, nParties, t, b, graine)));
+        }
+        long[][] latences = new long[sessions][];
+        long coups = 0;
+        for (int i = 0; i < sessions; i++) {
+            latences[i] = resultats.get(i).get();
+            coups += latences[i].length;
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        clients.shutdown();
+
+        long[] toutes = new long[(int) coups];
+        int k = 0;
+        for (long[] l : latences) {
+            System.arraycopy(l, 0, toutes, k, l.length);
+            k += l.length;
+        }
+        Arrays.sort(toutes);
+        long totalParties = (long) sessions * parties;
+        System.out.printf(Locale.ROOT, "Durée : %.2f s — %d parties (%.1f parties/s), %d coups (%.1f coups/s)\n",
+                secondes, totalParties, totalParties / secondes, coups, coups / secondes);
+        System.out.printf(Locale.ROOT, "Latence tir -> réponse du bot : p50=%.3f ms, p95=%.3f ms, p99=%.3f ms, max=%.3f ms\n",
+                centile(toutes, 0.50), centile(toutes, 0.95), centile(toutes, 0.99), centile(toutes, 1.0));
+        if (local != null) local.close();
+    }
+
+    /** Joue {@code parties} parties sur une connexion ; retourne les latences (ns) mesurées. */
+    private static long[] session(int port, int parties, int taille, String bot, long graine) throws IOException {
+        Random rng = new Random(graine);
+        long[] latences = new long[parties * taille * taille];
+        int n = 0;
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port);
+                BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+            s.setTcpNoDelay(true);
+            for (int g = 0; g < parties; g++) {
+                envoyer(out, "PARTIE " + taille + " " + bot);
+                attendre(in, "PRET");
+                List<Coordonnee> cases = new ArrayList<>();
+                for (int r = 0; r < taille; r++)
+                    for (int c = 0; c < taille; c++)
+                        cases.add(new Coordonnee(r, c));
+                boolean fini = false;
+                while (!fini) {
+                    Coordonnee c = cases.remove(rng.nextInt(cases.size()));
+                    long t0 = System.nanoTime();
+                    envoyer(out, "TIR " + c);
+                    String res = attendre(in, "RESULTAT");
+                    if (res.endsWith("GAMEOVER")) {
+                        attendre(in, "FIN");
+                        fini = true;
+                        continue;
+                    }
+                    String adv = attendre(in, "ADVERSAIRE");
+                    latences[n++] = System.nanoTime() - t0;
+                    if (adv.endsWith("GAMEOVER")) {
+                        attendre(in, "FIN");
+                        fini = true;
+                    }
+                }
+            }
+            envoyer(out, "QUITTER");
+        }
+        return Arrays.copyOf(latences, n);
+    }
+
+    private static void envoyer(PrintWriter out, String ligne) {
+        out.println(ligne);
+        out.flush();
+    }
+
+    private static String attendre(BufferedReader in, String prefixe) throws IOException {
+        String ligne = in.readLine();
+        if (ligne == null || !ligne.startsWith(prefixe)) {
+            throw new IOException("Réponse inattendue (attendu " + prefixe + ") : " + ligne);
+        }
+        return ligne;
+    }
+
+    private static double centile(long[] tri, double q) {
+        if (tri.length == 0) return 0.0;
+        int idx = (int) Math.min(tri.length - 1, Math.max(0, Math.ceil(q * tri.length) - 1));
+        return tri[idx] / 1e6;
+    }
+}
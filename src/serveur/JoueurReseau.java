@@ -0,0 +1,109 @@
+package serveur;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+import joueurs.Joueur;
+import logique.Coordonnee;
+import logique.GrilleNavale;
+
+/**
+ * Joueur humain distant piloté par le protocole texte du {@link ServeurJeu}.
+ * Les tirs sont lus ligne par ligne ({@code TIR B7}) et les résultats sont
+ * renvoyés au client. La flotte du joueur est une {@link GrilleNavale}
+ * purement logique : aucune fenêtre n'est créée côté serveur.
+ */
+class JoueurReseau extends Joueur {
+    private final GrilleNavale grille;
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final boolean[][] tirs;
+
+    JoueurReseau(GrilleNavale grille, BufferedReader in, PrintWriter out) {
+        super(grille.getTaille());
+        this.grille = grille;
+        this.in = in;
+        this.out = out;
+        this.tirs = new boolean[grille.getTaille()][grille.getTaille()];
+    }
+
+    @Override
+    protected void retourAttaque(Coordonnee c, int etat) {
+        ecrire("RESULTAT " + c + " " + ServeurJeu.nomEtat(etat));
+    }
+
+    @Override
+    protected void retourDefense(Coordonnee c, int etat) {
+        ecrire("ADVERSAIRE " + c + " " + ServeurJeu.nomEtat(etat));
+    }
+
+    /**
+     * Attend une commande {@code TIR} valide du client. Une fin de flux ou
+     * la commande {@code QUITTER} interrompt la partie.
+     */
+    @Override
+    public Coordonnee choisirAttaque() {
+        while (true) {
+            String ligne;
+            try {
+                ligne = in.readLine();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            if (ligne == null || ligne.trim().equalsIgnoreCase("QUITTER")) {
+                throw new SessionTerminee();
+            }
+            String[] parts = ligne.trim().split("\\s+");
+            if (parts.length != 2 || !parts[0].equalsIgnoreCase("TIR")) {
+                ecrire("ERREUR commande attendue : TIR <case>");
+                continue;
+            }
+            Coordonnee c;
+            try {
+                c = new Coordonnee(parts[1]);
+            } catch (IllegalArgumentException ex) {
+                ecrire("ERREUR " + ex.getMessage());
+                continue;
+            }
+            if (!grille.estDansGrille(c)) {
+                ecrire("ERREUR case hors grille : " + parts[1]);
+                continue;
+            }
+            if (tirs[c.getLigne()][c.getColonne()]) {
+                ecrire("ERREUR case déjà attaquée : " + c);
+                continue;
+            }
+            tirs[c.getLigne()][c.getColonne()] = true;
+            return c;
+        }
+    }
+
+    @Override
+    public int defendre(Coordonnee c) {
+        if (grille.estALEau(c)) {
+            grille.recoitTir(c);
+            return A_L_EAU;
+        } else if (grille.recoitTir(c)) {
+            if (grille.estCoule(c)) {
+                if (grille.perdu()) {
+                    return GAMEOVER;
+                }
+                return COULE;
+            }
+            return TOUCHE;
+        }
+        return A_L_EAU;
+    }
+
+    void ecrire(String ligne) {
+        out.println(ligne);
+        out.flush();
+    }
+
+    /** Signale que le client a quitté la session en cours de partie. */
+    static class SessionTerminee extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
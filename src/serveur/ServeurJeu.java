@@ -0,0 +1,256 @@
+package serveur;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import bataillenavale.BatailleNavale;
+import joueurs.Bot;
+import joueurs.Joueur;
+import joueurs.JoueurDeporte;
+import joueurs.MatchResult;
+import logique.GrilleNavale;
+
+/**
+ * Serveur de jeu sans interface graphique hébergeant de nombreuses parties
+ * humain contre bot simultanées sur un protocole texte ligne par ligne
+ * (TCP local).
+ *
+ * Chaque connexion est servie par son propre thread de session (thread
+ * virtuel lorsque la JVM le permet, sinon pool de threads extensible). Le
+ * calcul des coups des bots est déporté sur un pool borné de
+ * {@code threadsCalcul} threads via {@link JoueurDeporte} : les sessions en
+ * attente d'un client ne consomment pas de CPU et un bot lent ne peut pas
+ * affamer les autres sessions.
+ *
+ * Protocole (une commande par ligne) :
+ * <pre>
+ *   client : PARTIE &lt;taille&gt; &lt;bot&gt;     serveur : PRET &lt;taille&gt; &lt;flotte&gt;
+ *   client : TIR &lt;case&gt;                 serveur : RESULTAT &lt;case&gt; &lt;etat&gt;
+ *                                       puis ADVERSAIRE &lt;case&gt; &lt;etat&gt; (coup du bot)
+ *   fin de partie                       serveur : FIN GAGNE|PERDU &lt;coups&gt;
+ *   client : QUITTER                    ferme la session
+ * </pre>
+ * Les états sont {@code TOUCHE}, {@code COULE}, {@code A_L_EAU} et
+ * {@code GAMEOVER} ; une commande invalide provoque une réponse
+ * {@code ERREUR <message>}.
+ */
+public class ServeurJeu implements Closeable {
+    private static final int[] FLOTTE = {5, 4, 3, 3, 2, 2};
+
+    private final ServerSocket socket;
+    private final ExecutorService sessions;
+    private final ExecutorService calcul;
+    private final AtomicInteger sessionsActives = new AtomicInteger();
+    private final AtomicLong partiesTerminees = new AtomicLong();
+    private volatile boolean ouvert = true;
+
+    /**
+     * Ouvre le serveur sur l'interface locale.
+     *
+     * @param port          port d'écoute (0 pour un port libre quelconque)
+     * @param threadsCalcul taille du pool de calcul des coups des bots
+     */
+    public ServeurJeu(int port, int threadsCalcul) throws IOException {
+        this.socket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        this.sessions = executeurParSession();
+        this.calcul = Executors.newFixedThreadPool(Math.max(1, threadsCalcul), r -> {
+            Thread t = new Thread(r, "ServeurJeu-calcul");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    public int getSessionsActives() {
+        return sessionsActives.get();
+    }
+
+    public long getPartiesTerminees() {
+        return partiesTerminees.get();
+    }
+
+    /** Démarre la boucle d'acceptation sur un thread dédié et rend la main. */
+    public void demarrer() {
+        Thread t = new Thread(this::accepter, "ServeurJeu-accept");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void accepter() {
+        while (ouvert) {
+            try {
+                Socket client = socket.accept();
+                client.setTcpNoDelay(true);
+                sessions.execute(() -> servir(client));
+            } catch (SocketException ex) {
+                // socket fermée par close() : arrêt normal ; sinon, erreur réelle
+                if (socket.isClosed()) break;
+                System.err.println("Erreur d'acceptation : " + ex.getMessage());
+            } catch (IOException ex) {
+                System.err.println("Erreur d'acceptation : " + ex.getMessage());
+            }
+        }
+    }
+
+    /** Sert une connexion jusqu'à QUITTER ou fermeture par le client. */
+    private void servir(Socket client) {
+        sessionsActives.incrementAndGet();
+        try (Socket s = client;
+                BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+            String ligne;
+            while ((ligne = in.readLine()) != null) {
+                String[] parts = ligne.trim().split("\\s+");
+                if (parts[0].equalsIgnoreCase("QUITTER")) {
+                    break;
+                }
+                if (!parts[0].equalsIgnoreCase("PARTIE")) {
+                    repondre(out, "ERREUR commande attendue : PARTIE <taille> <bot>");
+                    continue;
+                }
+                int taille;
+                try {
+                    taille = parts.length > 1 ? Integer.parseInt(parts[1]) : 10;
+                } catch (NumberFormatException ex) {
+                    repondre(out, "ERREUR taille invalide : " + parts[1]);
+                    continue;
+                }
+                if (taille < 2 || taille > 26) {
+                    repondre(out, "ERREUR taille hors bornes (2..26) : " + taille);
+                    continue;
+                }
+                String botType = parts.length > 2 ? parts[2] : "smart";
+                if (!jouerPartie(in, out, taille, botType)) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            // connexion perdue : rien à faire de plus
+        } finally {
+            sessionsActives.decrementAndGet();
+        }
+    }
+
+    /** Joue une partie complète ; retourne faux si le client a quitté en cours de route. */
+    private boolean jouerPartie(BufferedReader in, PrintWriter out, int taille, String botType) {
+        int[] flotte = adapteFlotte(taille);
+        Bot bot;
+        try {
+            bot = BatailleNavale.initBot(taille, flotte, botType);
+        } catch (IllegalArgumentException ex) {
+            repondre(out, "ERREUR " + ex.getMessage());
+            return true;
+        }
+        GrilleNavale grille = new GrilleNavale(taille);
+        grille.placementAuto(flotte);
+        JoueurReseau humain = new JoueurReseau(grille, in, out);
+        Joueur adversaire = new JoueurDeporte(bot, calcul);
+
+        StringBuilder sb = new StringBuilder();
+        for (int l : flotte) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(l);
+        }
+        humain.ecrire("PRET " + taille + " " + sb);
+        try {
+            MatchResult res = humain.jouerAvec(adversaire);
+            partiesTerminees.incrementAndGet();
+            humain.ecrire((res.getWinner() == humain ? "FIN GAGNE " : "FIN PERDU ") + res.getWinnerMoves());
+            return true;
+        } catch (JoueurReseau.SessionTerminee ex) {
+            return false;
+        } catch (UncheckedIOException ex) {
+            // connexion perdue pendant la partie : la session se termine
+            return false;
+        }
+    }
+
+    private static void repondre(PrintWriter out, String ligne) {
+        out.println(ligne);
+        out.flush();
+    }
+
+    private static int[] adapteFlotte(int taille) {
+        int count = 0;
+        for (int l : FLOTTE) if (l <= taille) count++;
+        int[] res = new int[count];
+        int idx = 0;
+        for (int l : FLOTTE) if (l <= taille) res[idx++] = l;
+        return res;
+    }
+
+    /** Nom protocolaire d'un code de retour de {@link Joueur}. */
+    static String nomEtat(int etat) {
+        switch (etat) {
+            case Joueur.TOUCHE:
+                return "TOUCHE";
+            case Joueur.COULE:
+                return "COULE";
+            case Joueur.GAMEOVER:
+                return "GAMEOVER";
+            case Joueur.A_L_EAU:
+            default:
+                return "A_L_EAU";
+        }
+    }
+
+    /**
+     * Exécuteur « un thread par session » : threads virtuels si la JVM les
+     * fournit (Java 21+), sinon pool de threads démons extensible.
+     */
+    static ExecutorService executeurParSession() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "ServeurJeu-session");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ouvert = false;
+        socket.close();
+        sessions.shutdownNow();
+        calcul.shutdownNow();
+    }
+
+    /**
+     * Lance le serveur : {@code ServeurJeu [port] [threadsCalcul]}.
+     */
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int port = 7070;
+        int threadsCalcul = Runtime.getRuntime().availableProcessors();
+        if (args.length > 0) {
+            try { port = Integer.parseInt(args[0]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 1) {
+            try { threadsCalcul = Integer.parseInt(args[1]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        ServeurJeu serveur = new ServeurJeu(port, threadsCalcul);
+        System.out.println("Serveur de Bataille Navale à l'écoute sur le port " + serveur.getPort()
+                + " (calcul : " + threadsCalcul + " threads)");
+        serveur.accepter();
+    }
+}
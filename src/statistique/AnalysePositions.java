@@ -0,0 +1,362 @@
+package statistique;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import heuristic.Entropie;
+import heuristic.FiltreParticulaire;
+import heuristic.Heuristic;
+import heuristic.MCMC;
+import heuristic.Markov;
+import heuristic.MonteCarlo;
+import heuristic.Uniform;
+import interfacegraphique.GrilleNavaleGraphique;
+import logique.Coordonnee;
+import logique.Observations;
+
+/**
+ * Analyse par lots de positions fournies de l'extérieur (parties humaines,
+ * constitution de données d'entraînement) : pour chaque position, la carte
+ * d'intérêt d'une heuristique ({@link Heuristic#carte}) et le coup qu'elle
+ * choisit, sans jouer de partie.
+ *
+ * Entrée : une position par ligne, en champs {@code cle=valeur} séparés par
+ * des espaces (les lignes vides et celles commençant par {@code #} sont
+ * ignorées) :
+ * <ul>
+ * <li>{@code taille=10} (défaut 10) ;</li>
+ * <li>{@code tirs=A1,B5,C5} : toutes les cases tirées ;</li>
+ * <li>{@code touches=B5,C5} : les tirs qui ont touché (coulés compris) ;</li>
+ * <li>{@code coules=C5} : une case de chaque navire coulé ; le navire est la
+ *     composante de touches qui la contient, et son halo est de l'eau ;</li>
+ * <li>{@code restants=5,4,3} : longueurs des navires à flot, ou à défaut
+ *     {@code flotte=5,4,3,3,2,2} (défaut), dont on retire les coulés ;</li>
+ * <li>{@code id=...} : identifiant recopié en sortie (défaut : numéro de ligne).</li>
+ * </ul>
+ *
+ * Sortie, dans l'ordre de l'entrée, une ligne par position :
+ * {@code id=... coup=C4 carte=v,v,...} avec la carte normalisée (somme 1
+ * sur les cases libres), ligne par ligne, ou {@code id=... erreur=...}.
+ *
+ * Les positions sont évaluées en parallèle : le thread principal lit et
+ * soumet, chaque travailleur garde sa propre heuristique (et donc ses
+ * tables de placements et tampons, réutilisés d'une position à l'autre
+ * tant que la taille ne change pas), et un thread d'écriture rend les
+ * résultats dans l'ordre au fil de l'eau. La file entre lecture et
+ * écriture est bornée : la mémoire ne dépend pas de la longueur du flux.
+ * Chaque position est évaluée avec une graine dérivée de son rang, si bien
+ * que la sortie ne dépend pas du nombre de threads.
+ *
+ * Usage : {@code AnalysePositions [heuristique] [fichier|-] [threads]} où
+ * l'heuristique s'écrit comme pour les bots ({@code markov},
+ * {@code montecarlo:200}, {@code entropie:400}...).
+ */
+public class AnalysePositions {
+    private static final long GRAINE = 0x9E3779B97F4A7C15L;
+    private static final int[] FLOTTE = {5, 4, 3, 3, 2, 2};
+
+    /** Position observée : ce que l'attaquant sait de la grille adverse. */
+    public static final class Position {
+        final String id;
+        final int taille;
+        final Observations observations;
+        final List<Coordonnee> touchesEnCours = new ArrayList<>();
+        final List<Integer> restants = new ArrayList<>();
+
+        Position(String id, int taille) {
+            this.id = id;
+            this.taille = taille;
+            this.observations = new Observations(taille);
+        }
+
+        /**
+         * Lit une position au format décrit dans la classe.
+         *
+         * @throws IllegalArgumentException si la ligne est mal formée ou
+         *                                  incohérente
+         */
+        public static Position lire(String ligne, String idParDefaut) {
+            Map<String, String> champs = new HashMap<>();
+            for (String f : ligne.trim().split("\\s+")) {
+                int eg = f.indexOf('=');
+                if (eg <= 0) throw new IllegalArgumentException("Champ attendu cle=valeur : " + f);
+                champs.put(f.substring(0, eg), f.substring(eg + 1));
+            }
+            int taille = champs.containsKey("taille") ? Integer.parseInt(champs.get("taille")) : 10;
+            if (taille < 1 || taille > 26) throw new IllegalArgumentException("Taille invalide : " + taille);
+            Position p = new Position(champs.getOrDefault("id", idParDefaut), taille);
+            Observations obs = p.observations;
+
+            List<Coordonnee> touches = cases(champs.get("touches"), taille);
+            for (Coordonnee c : cases(champs.get("tirs"), taille)) obs.tirer(c);
+            for (Coordonnee c : touches) obs.toucher(c);
+            List<Integer> coules = new ArrayList<>();
+            for (Coordonnee c : cases(champs.get("coules"), taille)) {
+                if (!touches.contains(c)) throw new IllegalArgumentException("Case coulée non touchée : " + c);
+                if (!obs.estCoulee(c)) coules.add(obs.couler(c).size());
+            }
+            for (Coordonnee c : touches) if (!obs.estCoulee(c)) p.touchesEnCours.add(c);
+
+            if (champs.containsKey("restants")) {
+                p.restants.addAll(longueurs(champs.get("restants")));
+            } else {
+                p.restants.addAll(champs.containsKey("flotte") ? longueurs(champs.get("flotte"))
+                        : Arrays.stream(FLOTTE).boxed().toList());
+                for (Integer L : coules) {
+                    if (!p.restants.remove(L)) {
+                        throw new IllegalArgumentException("Navire coulé de longueur " + L + " absent de la flotte");
+                    }
+                }
+            }
+            return p;
+        }
+
+        private static List<Coordonnee> cases(String valeur, int taille) {
+            List<Coordonnee> liste = new ArrayList<>();
+            if (valeur == null || valeur.isEmpty()) return liste;
+            for (String s : valeur.split(",")) {
+                Coordonnee c = new Coordonnee(s.trim());
+                if (c.getLigne() < 0 || c.getLigne() >= taille || c.getColonne() < 0 || c.getColonne() >= taille) {
+                    throw new IllegalArgumentException("Case hors grille : " + s);
+                }
+                liste.add(c);
+            }
+            return liste;
+        }
+
+        private static List<Integer> longueurs(String valeur) {
+            List<Integer> liste = new ArrayList<>();
+            if (valeur.isEmpty()) return liste;
+            for (String s : valeur.split(",")) liste.add(Integer.parseInt(s.trim()));
+            return liste;
+        }
+    }
+
+    /** Résultat de l'analyse d'une position. */
+    public static final class Analyse {
+        final Coordonnee coup;
+        final double[][] carte;
+
+        Analyse(Coordonnee coup, double[][] carte) {
+            this.coup = coup;
+            this.carte = carte;
+        }
+
+        /** Coup choisi par l'heuristique, {@code null} si la grille est pleine. */
+        public Coordonnee getCoup() {
+            return coup;
+        }
+
+        /** Carte normalisée : somme 1 sur les cases libres (ou nulle partout). */
+        public double[][] getCarte() {
+            return carte;
+        }
+    }
+
+    /**
+     * Travailleur : une heuristique et une grille par taille, réutilisées
+     * d'une position à l'autre.
+     */
+    static final class Analyseur {
+        private final Heuristic heuristique;
+        private final Map<Integer, GrilleNavaleGraphique> grilles = new HashMap<>();
+        private final Random alea = new Random();
+
+        Analyseur(Heuristic heuristique) {
+            this.heuristique = heuristique;
+        }
+
+        Analyse analyser(Position p, long graine) {
+            GrilleNavaleGraphique gng = grilles.computeIfAbsent(p.taille, GrilleNavaleGraphique::new);
+            boolean[][] connues = p.observations.getConnues();
+            heuristique.reinitialiser(graine);
+            double[][] carte = heuristique.carte(connues, gng, p.restants, p.touchesEnCours);
+            // le coup est le maximum de la carte, ex aequo départagés au hasard :
+            // c'est ce que fait choisir(), sans recalculer la carte
+            alea.setSeed(graine);
+            Coordonnee coup = null;
+            double meilleur = -1.0, somme = 0.0;
+            int ex = 0;
+            for (int r = 0; r < p.taille; r++) {
+                for (int c = 0; c < p.taille; c++) {
+                    if (connues[r][c]) continue;
+                    double v = carte[r][c];
+                    somme += v;
+                    if (v > meilleur) {
+                        meilleur = v;
+                        ex = 1;
+                        coup = new Coordonnee(r, c);
+                    } else if (v == meilleur && alea.nextInt(++ex) == 0) {
+                        coup = new Coordonnee(r, c);
+                    }
+                }
+            }
+            if (somme > 0.0) {
+                for (double[] ligne : carte) for (int c = 0; c < ligne.length; c++) ligne[c] /= somme;
+            }
+            return new Analyse(coup, carte);
+        }
+    }
+
+    /** Analyse une seule position avec l'heuristique donnée (mode bibliothèque). */
+    public static Analyse analyser(Position p, Heuristic heuristique, long graine) {
+        return new Analyseur(heuristique).analyser(p, graine);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String type = args.length > 0 ? args[0] : "markov";
+        String source = args.length > 1 ? args[1] : "-";
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        if (args.length > 2) {
+            try { threads = Math.max(1, Integer.parseInt(args[2])); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        heuristique(type); // valide le type avant de lire quoi que ce soit
+
+        PrintStream out = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+        long debut = System.nanoTime();
+        long n;
+        try (BufferedReader in = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            n = analyserFlux(in, out, () -> heuristique(type), threads);
+        }
+        out.flush();
+        System.err.printf(Locale.ROOT, "%d positions analysées (%s, %d threads) en %.1f ms\n", n, type, threads,
+                (System.nanoTime() - debut) / 1e6);
+    }
+
+    /**
+     * Lit les positions de {@code in}, les évalue sur {@code threads}
+     * travailleurs et écrit les résultats dans l'ordre sur {@code out}.
+     *
+     * @return le nombre de positions lues
+     */
+    static long analyserFlux(BufferedReader in, PrintStream out, Supplier<Heuristic> fabrique, int threads)
+            throws IOException, InterruptedException {
+        ThreadLocal<Analyseur> analyseurs = ThreadLocal.withInitial(() -> new Analyseur(fabrique.get()));
+        ExecutorService travailleurs = Executors.newFixedThreadPool(threads);
+        BlockingQueue<Future<String>> enCours = new ArrayBlockingQueue<>(4 * threads);
+        Future<String> fin = new CompletableFuture<>(); // marque de fin de flux
+        // l'écrivain ne s'arrête qu'à la marque de fin : s'il sortait plus tôt,
+        // plus rien ne viderait la file et le lecteur resterait bloqué
+        Thread ecrivain = new Thread(() -> {
+            boolean interrompu = false;
+            long rang = 0;
+            while (true) {
+                Future<String> f;
+                try {
+                    f = enCours.take();
+                } catch (InterruptedException ex) {
+                    interrompu = true;
+                    continue;
+                }
+                if (f == fin) break;
+                rang++;
+                while (true) {
+                    try {
+                        out.println(f.get());
+                    } catch (InterruptedException ex) {
+                        interrompu = true;
+                        continue;
+                    } catch (ExecutionException ex) {
+                        // erreur grave d'un travailleur (evaluer rend déjà les exceptions en ligne)
+                        out.println("id=" + rang + " erreur=" + String.valueOf(ex.getCause()).replace(' ', '_'));
+                    }
+                    break;
+                }
+            }
+            if (interrompu) Thread.currentThread().interrupt();
+        }, "analyse-ecriture");
+        ecrivain.start();
+
+        long numero = 0;
+        try {
+            String ligne;
+            while ((ligne = in.readLine()) != null) {
+                String l = ligne.trim();
+                if (l.isEmpty() || l.startsWith("#")) continue;
+                final long rang = numero++;
+                enCours.put(travailleurs.submit(() -> evaluer(analyseurs.get(), l, rang)));
+            }
+        } finally {
+            enCours.put(fin);
+            ecrivain.join();
+            travailleurs.shutdown();
+        }
+        return numero;
+    }
+
+    /** Une ligne de sortie pour une ligne d'entrée ; les erreurs sont rendues en ligne. */
+    private static String evaluer(Analyseur analyseur, String ligne, long rang) {
+        String id = String.valueOf(rang + 1);
+        try {
+            Position p = Position.lire(ligne, id);
+            id = p.id;
+            Analyse a = analyseur.analyser(p, GRAINE ^ rang);
+            StringBuilder sb = new StringBuilder(16 + 8 * p.taille * p.taille);
+            sb.append("id=").append(id).append(" coup=").append(a.coup != null ? a.coup.toString() : "-").append(" carte=");
+            for (int r = 0; r < p.taille; r++) {
+                for (int c = 0; c < p.taille; c++) {
+                    if (r > 0 || c > 0) sb.append(',');
+                    decimale(sb, a.carte[r][c]);
+                }
+            }
+            return sb.toString();
+        } catch (RuntimeException ex) {
+            return "id=" + id + " erreur=" + String.valueOf(ex.getMessage()).replace(' ', '_');
+        }
+    }
+
+    /** Écrit v (entre 0 et 1) avec cinq décimales, sans passer par String.format. */
+    private static void decimale(StringBuilder sb, double v) {
+        long m = Math.round(v * 100_000);
+        sb.append(m / 100_000).append('.');
+        String f = Long.toString(m % 100_000);
+        for (int i = f.length(); i < 5; i++) sb.append('0');
+        sb.append(f);
+    }
+
+    /** Heuristique à partir d'un type au format des bots, paramètre éventuel après deux-points. */
+    static Heuristic heuristique(String type) {
+        String t = type.trim().toLowerCase();
+        int sep = t.indexOf(':');
+        String nom = sep >= 0 ? t.substring(0, sep) : t;
+        Integer param = null;
+        if (sep >= 0) {
+            try {
+                param = Integer.parseInt(t.substring(sep + 1));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Paramètre invalide : " + type);
+            }
+        }
+        switch (nom) {
+            case "uniform": return new Uniform();
+            case "markov": return new Markov();
+            case "montecarlo": return param != null ? new MonteCarlo(param) : new MonteCarlo();
+            case "particules": return param != null ? new FiltreParticulaire(param, 2) : new FiltreParticulaire();
+            case "mcmc": return param != null ? new MCMC(param, 50_000) : new MCMC();
+            case "entropie": return param != null ? new Entropie(param, 1.0) : new Entropie();
+            default: throw new IllegalArgumentException("Heuristique inconnue : " + type);
+        }
+    }
+}
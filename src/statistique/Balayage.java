@@ -0,0 +1,237 @@
+package statistique;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import bataillenavale.BatailleNavale;
+import heuristic.Entropie;
+import heuristic.Heuristic;
+import heuristic.Markov;
+import heuristic.MonteCarlo;
+import joueurs.Bot;
+import joueurs.MatchResult;
+
+/**
+ * Balayage d'hyperparamètres des heuristiques.
+ *
+ * Chaque point du balayage est une configuration d'heuristique (nombre
+ * d'échantillons de {@link MonteCarlo}, pondération de parité et renfort de
+ * {@link Markov}, échantillons et bonus de touche d'{@link Entropie}). Les
+ * points sont évalués en parallèle, un point par tâche, sur autant de
+ * threads que de cœurs disponibles. Pour chaque point on mesure, en
+ * self-play comme {@link Performance}, le nombre moyen de coups du
+ * vainqueur (force) et le temps CPU moyen par coup (coût).
+ *
+ * Les résultats sont écrits dans {@code Results/balayage_points.csv} et la
+ * frontière de Pareto force/coût dans {@code Results/balayage_pareto.csv}.
+ *
+ * Usage : {@code Balayage [parties] [taille] [grille|aleatoire:n] [cible]} ;
+ * si une cible (nombre moyen de coups) est donnée, la configuration la moins
+ * coûteuse qui l'atteint est affichée.
+ */
+public class Balayage {
+
+    /** Un point du balayage et ses mesures. */
+    private static final class Point {
+        final String label;
+        final Supplier<Heuristic> fabrique;
+        double moyenneCoups;
+        double stderr;
+        double cpuParCoupMs;
+
+        Point(String label, Supplier<Heuristic> fabrique) {
+            this.label = label;
+            this.fabrique = fabrique;
+        }
+    }
+
+    private static final int[] ECHANTILLONS = {25, 50, 100, 200, 500, 1000};
+    private static final int[][] PARITES = {{1, 1}, {3, 2}, {2, 1}};
+    private static final int[] HORS_PARITE = {1, 2, 4};
+    private static final int[][] BOOSTS = {{1, 4, 1}, {3, 8, 2}, {6, 16, 3}};
+    private static final int[] ECHANTILLONS_ENTROPIE = {100, 400, 1000};
+    private static final double[] BONUS_ENTROPIE = {0.0, 1.0, 4.0};
+
+    public static void main(String[] args) throws Exception {
+        int N = 50;
+        int taille = 10;
+        String mode = "grille";
+        double cible = Double.NaN;
+        if (args.length > 0) {
+            try { N = Integer.parseInt(args[0]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 1) {
+            try { taille = Integer.parseInt(args[1]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 2) mode = args[2];
+        if (args.length > 3) {
+            try { cible = Double.parseDouble(args[3]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+
+        List<Point> points = mode.startsWith("aleatoire") ? pointsAleatoires(mode) : pointsGrille();
+        final int[] FLOTTE = {5, 4, 3, 3, 2, 2};
+        final int parties = N;
+        final int tailleFinale = taille;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        System.out.printf("Balayage : %d points, %d parties par point, grille=%d, threads=%d\n",
+                points.size(), parties, taille, threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> taches = new ArrayList<>();
+        for (Point p : points) {
+            taches.add(pool.submit(() -> evaluer(p, parties, tailleFinale, FLOTTE)));
+        }
+        for (Future<?> f : taches) f.get();
+        pool.shutdown();
+
+        List<Point> pareto = frontiere(points);
+
+        File outDir = new File("Results");
+        outDir.mkdirs();
+        File csv = new File(outDir, "balayage_points.csv");
+        try (PrintWriter pw = new PrintWriter(csv)) {
+            pw.println("config,trials,mean_moves,std_error,cpu_ms_per_move,pareto");
+            for (Point p : points) {
+                pw.printf(Locale.ROOT, "%s,%d,%.6f,%.6f,%.6f,%b\n", p.label, parties, p.moyenneCoups, p.stderr,
+                        p.cpuParCoupMs, pareto.contains(p));
+            }
+        }
+        File csvPareto = new File(outDir, "balayage_pareto.csv");
+        try (PrintWriter pw = new PrintWriter(csvPareto)) {
+            pw.println("config,mean_moves,std_error,cpu_ms_per_move");
+            for (Point p : pareto) {
+                pw.printf(Locale.ROOT, "%s,%.6f,%.6f,%.6f\n", p.label, p.moyenneCoups, p.stderr, p.cpuParCoupMs);
+            }
+        }
+        System.out.println("Fichier balayage CSV écrit : " + csv.getAbsolutePath());
+        System.out.println("Fichier frontière de Pareto écrit : " + csvPareto.getAbsolutePath());
+
+        System.out.println("Frontière de Pareto (coût croissant) :");
+        for (Point p : pareto) {
+            System.out.printf(Locale.ROOT, "  %s — coups=%.2f (stderr=%.2f), cpu=%.4f ms/coup\n", p.label,
+                    p.moyenneCoups, p.stderr, p.cpuParCoupMs);
+        }
+        if (!Double.isNaN(cible)) {
+            Point choix = null;
+            for (Point p : pareto) {
+                if (p.moyenneCoups <= cible) { choix = p; break; }
+            }
+            if (choix != null) {
+                System.out.printf(Locale.ROOT, "Configuration la moins coûteuse atteignant %.2f coups : %s\n", cible,
+                        choix.label);
+            } else {
+                System.out.printf(Locale.ROOT, "Aucune configuration n'atteint %.2f coups.\n", cible);
+            }
+        }
+    }
+
+    /** Joue les parties d'un point sur le thread courant et mesure son temps CPU. */
+    private static void evaluer(Point p, int parties, int taille, int[] flotte) {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        List<Integer> moves = new ArrayList<>();
+        long cpu = 0;
+        long coups = 0;
+        Random graines = new Random();
+        Bot b1 = BatailleNavale.initBot(taille, flotte, p.fabrique.get());
+        Bot b2 = BatailleNavale.initBot(taille, flotte, p.fabrique.get());
+        for (int t = 0; t < parties; t++) {
+            b1.reinitialiser(flotte, graines.nextLong());
+            b2.reinitialiser(flotte, graines.nextLong());
+            long debut = mx.getCurrentThreadCpuTime();
+            MatchResult res = b1.jouerAvec(b2);
+            cpu += mx.getCurrentThreadCpuTime() - debut;
+            coups += res.getTotalMoves();
+            moves.add(res.getWinnerMoves());
+        }
+        double sum = 0.0;
+        for (int m : moves) sum += m;
+        double mean = sum / moves.size();
+        double var = 0.0;
+        for (int m : moves) var += (m - mean) * (m - mean);
+        double sd = moves.size() > 1 ? Math.sqrt(var / (moves.size() - 1)) : 0.0;
+        p.moyenneCoups = mean;
+        p.stderr = sd / Math.sqrt(moves.size());
+        p.cpuParCoupMs = coups > 0 ? cpu / 1e6 / coups : 0.0;
+        System.out.printf(Locale.ROOT, "  %s : coups=%.2f, cpu=%.4f ms/coup\n", p.label, p.moyenneCoups,
+                p.cpuParCoupMs);
+    }
+
+    /**
+     * Frontière de Pareto : points non dominés (aucun autre point n'est à la
+     * fois moins coûteux et plus fort), triés par coût croissant.
+     */
+    private static List<Point> frontiere(List<Point> points) {
+        List<Point> tri = new ArrayList<>(points);
+        tri.sort(Comparator.comparingDouble((Point p) -> p.cpuParCoupMs).thenComparingDouble(p -> p.moyenneCoups));
+        List<Point> res = new ArrayList<>();
+        double meilleur = Double.POSITIVE_INFINITY;
+        for (Point p : tri) {
+            if (p.moyenneCoups < meilleur) {
+                res.add(p);
+                meilleur = p.moyenneCoups;
+            }
+        }
+        return res;
+    }
+
+    private static List<Point> pointsGrille() {
+        List<Point> points = new ArrayList<>();
+        for (int s : ECHANTILLONS) points.add(pointMonteCarlo(s));
+        for (int[] par : PARITES)
+            for (int hp : HORS_PARITE)
+                for (int[] b : BOOSTS)
+                    points.add(pointMarkov(par[0], par[1], hp, b[0], b[1], b[2]));
+        for (int s : ECHANTILLONS_ENTROPIE)
+            for (double b : BONUS_ENTROPIE)
+                points.add(pointEntropie(s, b));
+        return points;
+    }
+
+    private static List<Point> pointsAleatoires(String mode) {
+        int n = 20;
+        int sep = mode.indexOf(':');
+        if (sep >= 0) {
+            try { n = Integer.parseInt(mode.substring(sep + 1)); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        Random rng = new Random();
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int tirage = rng.nextInt(5);
+            if (tirage == 0) {
+                points.add(pointMonteCarlo(10 + rng.nextInt(1000)));
+            } else if (tirage == 1) {
+                points.add(pointEntropie(50 + rng.nextInt(1000), 4.0 * rng.nextDouble()));
+            } else {
+                int boostMin = 1 + rng.nextInt(6);
+                points.add(pointMarkov(1 + rng.nextInt(4), 1 + rng.nextInt(2), 1 + rng.nextInt(4),
+                        boostMin, boostMin + rng.nextInt(12), 1 + rng.nextInt(3)));
+            }
+        }
+        return points;
+    }
+
+    private static Point pointMonteCarlo(int samples) {
+        return new Point("montecarlo_s" + samples, () -> new MonteCarlo(samples));
+    }
+
+    private static Point pointEntropie(int samples, double bonus) {
+        return new Point(String.format(Locale.ROOT, "entropie_s%d_b%.2f", samples, bonus),
+                () -> new Entropie(samples, bonus));
+    }
+
+    private static Point pointMarkov(int num, int den, int horsParite, int bMin, int bMax, int bFacteur) {
+        String label = "markov_p" + num + "-" + den + "_h" + horsParite + "_b" + bMin + "-" + bMax + "x" + bFacteur;
+        return new Point(label, () -> new Markov(num, den, horsParite, bMin, bMax, bFacteur));
+    }
+}
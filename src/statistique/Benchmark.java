@@ -0,0 +1,250 @@
+package statistique;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import bataillenavale.BatailleNavale;
+import joueurs.Bot;
+import joueurs.MatchResult;
+import joueurs.ReglesPartie;
+
+/**
+ * Banc d'essai sur corpus fixe, avec suivi des régressions.
+ *
+ * Chaque type de bot joue en self-play le même corpus de parties : la
+ * partie i utilise des graines dérivées d'une graine fixe (flottes, tirs,
+ * heuristiques), si bien que deux exécutions du même code jouent exactement
+ * les mêmes coups. Pour chaque bot on mesure :
+ * <ul>
+ * <li>le débit (parties par seconde) et le temps moyen par coup ;</li>
+ * <li>les octets alloués par partie (tous threads confondus) ;</li>
+ * <li>le nombre moyen de coups du vainqueur (force) ;</li>
+ * <li>une empreinte de tous les coups joués (attaquant, case, réponse),
+ *     qui prouve qu'une optimisation ne change pas le comportement.</li>
+ * </ul>
+ * Le corpus est joué une fois pour chauffer la JVM (force et empreinte sont
+ * prises sur ce passage), puis {@value #REPETITIONS} fois chronométré ; le
+ * passage le plus rapide est retenu.
+ *
+ * Les mesures sont comparées à la référence {@code Results/benchmark_reference.json}.
+ * Le programme se termine avec le code 1 si le débit d'un bot baisse de plus
+ * de {@value #TOLERANCE_DEBIT} (en proportion) ou si son nombre moyen de
+ * coups s'écarte de plus de {@value #TOLERANCE_COUPS} coup ; une empreinte
+ * différente est signalée (comportement modifié) sans être un échec à elle
+ * seule. Le débit dépend de la machine : la référence doit être enregistrée
+ * sur celle qui sert aux comparaisons.
+ *
+ * Usage : {@code Benchmark [comparer|enregistrer] [parties] [bot ...]} ;
+ * {@code enregistrer} remplace la référence par les mesures courantes.
+ */
+public class Benchmark {
+    private static final long GRAINE = 20240611L;
+    private static final int TAILLE = 10;
+    private static final int[] FLOTTE = {5, 4, 3, 3, 2, 2};
+    private static final int REPETITIONS = 3;
+    private static final double TOLERANCE_DEBIT = 0.10;
+    private static final double TOLERANCE_COUPS = 0.5;
+    private static final File REFERENCE = new File("Results", "benchmark_reference.json");
+
+    /** Mesures d'un bot sur le corpus. */
+    static final class Mesure {
+        double partiesParSeconde;
+        double msParCoup;
+        long octetsParPartie;
+        double coupsMoyens;
+        String empreinte;
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean enregistrer = false;
+        int parties = 40;
+        int i = 0;
+        if (args.length > i && (args[i].equals("comparer") || args[i].equals("enregistrer"))) {
+            enregistrer = args[i].equals("enregistrer");
+            i++;
+        }
+        if (args.length > i) {
+            try { parties = Integer.parseInt(args[i]); i++; } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        List<String> bots = new ArrayList<>();
+        for (; i < args.length; i++) bots.add(args[i]);
+        if (bots.isEmpty()) bots = List.of("uniform", "markov", "smart", "montecarlo:100", "entropie:100");
+
+        System.out.printf("Banc d'essai : %d parties par bot, graine=%d, grille=%d\n", parties, GRAINE, TAILLE);
+        Map<String, Mesure> mesures = new LinkedHashMap<>();
+        for (String bot : bots) {
+            Mesure m = mesurer(bot, parties);
+            mesures.put(bot, m);
+            System.out.printf(Locale.ROOT, "  %-16s %8.2f parties/s  %8.4f ms/coup  %10d o/partie  coups=%.3f  empreinte=%s\n",
+                    bot, m.partiesParSeconde, m.msParCoup, m.octetsParPartie, m.coupsMoyens, m.empreinte);
+        }
+
+        if (enregistrer) {
+            ecrire(REFERENCE, parties, mesures);
+            System.out.println("Référence écrite : " + REFERENCE.getAbsolutePath());
+            return;
+        }
+        if (!REFERENCE.exists()) {
+            System.out.println("Aucune référence (" + REFERENCE.getPath() + ") : lancer avec « enregistrer ».");
+            return;
+        }
+        int partiesReference = lireParties(REFERENCE);
+        if (partiesReference != parties) {
+            System.out.printf("La référence porte sur %d parties par bot, pas %d : comparaison impossible.\n",
+                    partiesReference, parties);
+            System.exit(1);
+        }
+        Map<String, Mesure> reference = lire(REFERENCE);
+        boolean regression = false;
+        System.out.println("Comparaison avec la référence :");
+        for (Map.Entry<String, Mesure> e : mesures.entrySet()) {
+            Mesure ref = reference.get(e.getKey());
+            Mesure m = e.getValue();
+            if (ref == null) {
+                System.out.printf("  %-16s absent de la référence\n", e.getKey());
+                continue;
+            }
+            double debit = m.partiesParSeconde / ref.partiesParSeconde - 1.0;
+            double ecart = m.coupsMoyens - ref.coupsMoyens;
+            boolean lent = debit < -TOLERANCE_DEBIT;
+            boolean force = Math.abs(ecart) > TOLERANCE_COUPS;
+            boolean identique = m.empreinte.equals(ref.empreinte);
+            regression |= lent || force;
+            System.out.printf(Locale.ROOT, "  %-16s débit %+6.1f%%%s  coups %+.3f%s  allocation %+6.1f%%  comportement %s\n",
+                    e.getKey(), 100.0 * debit, lent ? " (RÉGRESSION)" : "", ecart, force ? " (HORS TOLÉRANCE)" : "",
+                    ref.octetsParPartie > 0 ? 100.0 * ((double) m.octetsParPartie / ref.octetsParPartie - 1.0) : 0.0,
+                    identique ? "identique" : "MODIFIÉ");
+        }
+        if (regression) {
+            System.out.println("Échec : régression par rapport à la référence.");
+            System.exit(1);
+        }
+        System.out.println("Aucune régression.");
+    }
+
+    /** Joue le corpus pour un bot : un passage de chauffe puis les passages chronométrés. */
+    static Mesure mesurer(String type, int parties) {
+        Bot b1 = BatailleNavale.initBot(TAILLE, FLOTTE, type);
+        Bot b2 = BatailleNavale.initBot(TAILLE, FLOTTE, type);
+        Mesure m = new Mesure();
+
+        long[] empreinte = { 0xcbf29ce484222325L };
+        ReglesPartie regles = ReglesPartie.STANDARD.avecObservateur((attaquant, c, etat) -> {
+            long v = ((attaquant == b1 ? 1L : 2L) << 24) | ((long) c.getLigne() << 16) | ((long) c.getColonne() << 8) | etat;
+            empreinte[0] = (empreinte[0] ^ v) * 0x100000001b3L;
+        });
+        long coupsVainqueur = 0;
+        Random graines = new Random(GRAINE);
+        for (int p = 0; p < parties; p++) {
+            b1.reinitialiser(FLOTTE, graines.nextLong());
+            b2.reinitialiser(FLOTTE, graines.nextLong());
+            coupsVainqueur += b1.jouerAvec(b2, regles).getWinnerMoves();
+        }
+        m.coupsMoyens = coupsVainqueur / (double) parties;
+        m.empreinte = String.format("%016x", empreinte[0]);
+
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocations = (mx instanceof com.sun.management.ThreadMXBean)
+                ? (com.sun.management.ThreadMXBean) mx : null;
+        long meilleurNanos = Long.MAX_VALUE;
+        for (int rep = 0; rep < REPETITIONS; rep++) {
+            graines.setSeed(GRAINE);
+            long coups = 0;
+            long octets = octetsAlloues(allocations);
+            long debut = System.nanoTime();
+            for (int p = 0; p < parties; p++) {
+                b1.reinitialiser(FLOTTE, graines.nextLong());
+                b2.reinitialiser(FLOTTE, graines.nextLong());
+                MatchResult res = b1.jouerAvec(b2);
+                coups += res.getTotalMoves();
+            }
+            long duree = System.nanoTime() - debut;
+            if (duree < meilleurNanos) {
+                meilleurNanos = duree;
+                m.partiesParSeconde = parties / (duree / 1e9);
+                m.msParCoup = coups > 0 ? duree / 1e6 / coups : 0.0;
+                m.octetsParPartie = allocations != null ? (octetsAlloues(allocations) - octets) / parties : -1L;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Octets alloués depuis leur démarrage par tous les threads vivants : le
+     * solveur de fin de partie travaille aussi sur le pool fork/join.
+     */
+    private static long octetsAlloues(com.sun.management.ThreadMXBean allocations) {
+        if (allocations == null) return 0L;
+        long total = 0L;
+        for (long o : allocations.getThreadAllocatedBytes(allocations.getAllThreadIds())) {
+            if (o > 0) total += o;
+        }
+        return total;
+    }
+
+    /* ===================== Référence JSON ===================== */
+
+    static void ecrire(File fichier, int parties, Map<String, Mesure> mesures) throws IOException {
+        fichier.getParentFile().mkdirs();
+        try (PrintWriter pw = new PrintWriter(fichier, StandardCharsets.UTF_8)) {
+            pw.println("{");
+            pw.printf(Locale.ROOT, "  \"graine\": %d,\n  \"taille\": %d,\n  \"parties\": %d,\n", GRAINE, TAILLE, parties);
+            pw.println("  \"bots\": {");
+            int k = 0;
+            for (Map.Entry<String, Mesure> e : mesures.entrySet()) {
+                Mesure m = e.getValue();
+                pw.printf(Locale.ROOT, "    \"%s\": {\"parties_par_s\": %.4f, \"ms_par_coup\": %.6f, "
+                        + "\"octets_par_partie\": %d, \"coups_moyens\": %.6f, \"empreinte\": \"%s\"}%s\n",
+                        e.getKey(), m.partiesParSeconde, m.msParCoup, m.octetsParPartie, m.coupsMoyens, m.empreinte,
+                        ++k < mesures.size() ? "," : "");
+            }
+            pw.println("  }");
+            pw.println("}");
+        }
+    }
+
+    // le fichier est celui écrit par ecrire() : objets plats, une entrée par bot
+    private static final Pattern BOT = Pattern.compile("\"([^\"]+)\"\\s*:\\s*\\{([^{}]*)\\}");
+    private static final Pattern CHAMP = Pattern.compile("\"(\\w+)\"\\s*:\\s*\"?([^,\"}]*)\"?");
+
+    static Map<String, Mesure> lire(File fichier) throws IOException {
+        String json = Files.readString(fichier.toPath(), StandardCharsets.UTF_8);
+        Map<String, Mesure> mesures = new LinkedHashMap<>();
+        Matcher b = BOT.matcher(json);
+        while (b.find()) {
+            Mesure m = new Mesure();
+            Matcher c = CHAMP.matcher(b.group(2));
+            while (c.find()) {
+                String v = c.group(2).trim();
+                switch (c.group(1)) {
+                    case "parties_par_s": m.partiesParSeconde = Double.parseDouble(v); break;
+                    case "ms_par_coup": m.msParCoup = Double.parseDouble(v); break;
+                    case "octets_par_partie": m.octetsParPartie = Long.parseLong(v); break;
+                    case "coups_moyens": m.coupsMoyens = Double.parseDouble(v); break;
+                    case "empreinte": m.empreinte = v; break;
+                    default: break;
+                }
+            }
+            mesures.put(b.group(1), m);
+        }
+        return mesures;
+    }
+
+    private static int lireParties(File fichier) throws IOException {
+        Matcher m = Pattern.compile("\"parties\"\\s*:\\s*(\\d+)").matcher(Files.readString(fichier.toPath()));
+        return m.find() ? Integer.parseInt(m.group(1)) : -1;
+    }
+}
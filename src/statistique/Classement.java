@@ -0,0 +1,115 @@
+package statistique;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import bataillenavale.BatailleNavale;
+import joueurs.Bot;
+import joueurs.MatchResult;
+
+/**
+ * Classement incrémental d'une population de bots paramétrés.
+ *
+ * Au lieu du tournoi complet de {@link Tournament} (O(B^2) confrontations),
+ * plusieurs threads de jeu tirent chacun un bot au hasard, lui choisissent
+ * un adversaire informatif via {@link Glicko2#choisirAdversaire} puis
+ * intègrent le résultat dès la fin de la partie. Le classement final est écrit
+ * dans {@code Results/classement_glicko.csv} avec les intervalles de
+ * confiance à 95 %.
+ *
+ * Usage : {@code Classement [parties] [taille] [bot ...]} où chaque bot est
+ * une étiquette acceptée par {@link BatailleNavale#initBot(int, int[], String)},
+ * par exemple {@code montecarlo:200}.
+ */
+public class Classement {
+    public static void main(String[] args) throws Exception {
+        int parties = 2000;
+        int taille = 10;
+        if (args.length > 0) {
+            try { parties = Integer.parseInt(args[0]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 1) {
+            try { taille = Integer.parseInt(args[1]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        final List<String> population = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) population.add(args[i]);
+        if (population.isEmpty()) {
+            population.add("uniform");
+            population.add("smart");
+            population.add("markov");
+            for (int s : new int[] {25, 50, 100, 200, 400}) population.add("montecarlo:" + s);
+        }
+
+        final int[] FLOTTE = {5, 4, 3, 3, 2, 2};
+        final int tailleFinale = taille;
+        final int total = parties;
+        final Glicko2 glicko = new Glicko2();
+        for (String nom : population) glicko.ajouter(nom);
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        System.out.println("Classement Glicko-2 : " + population.size() + " bots, " + total
+                + " parties, grille=" + taille + ", threads=" + threads);
+
+        final AtomicInteger jouees = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom rng = ThreadLocalRandom.current();
+                // bots propres au thread, deux instances par type (self-play possible)
+                Map<String, Bot[]> bots = new HashMap<>();
+                while (jouees.getAndIncrement() < total) {
+                    String a = population.get(rng.nextInt(population.size()));
+                    String b = glicko.choisirAdversaire(a, population, 8, rng);
+                    if (b == null) continue;
+                    Bot ba = bots.computeIfAbsent(a, k -> paire(tailleFinale, FLOTTE, k))[0];
+                    Bot bb = bots.computeIfAbsent(b, k -> paire(tailleFinale, FLOTTE, k))[1];
+                    ba.reinitialiser(FLOTTE, rng.nextLong());
+                    bb.reinitialiser(FLOTTE, rng.nextLong());
+                    // alterner le premier joueur pour ne pas biaiser les cotes
+                    boolean aCommence = rng.nextBoolean();
+                    MatchResult res = aCommence ? ba.jouerAvec(bb) : bb.jouerAvec(ba);
+                    if (res.getWinner() == ba) glicko.enregistrer(a, b);
+                    else glicko.enregistrer(b, a);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+        List<Glicko2.Evaluation> classement = glicko.classement();
+        File outDir = new File("Results");
+        outDir.mkdirs();
+        File csv = new File(outDir, "classement_glicko.csv");
+        try (PrintWriter pw = new PrintWriter(csv)) {
+            pw.println("bot,games_played,rating,rating_deviation,ci95_low,ci95_high,volatility,rank");
+            int rang = 1;
+            for (Glicko2.Evaluation e : classement) {
+                pw.printf(Locale.ROOT, "%s,%d,%.2f,%.2f,%.2f,%.2f,%.6f,%d\n", e.getNom(), e.getParties(),
+                        e.getCote(), e.getEcart(), e.getBorneInf(), e.getBorneSup(), e.getVolatilite(), rang++);
+            }
+        }
+        System.out.println("Fichier classement CSV écrit : " + csv.getAbsolutePath());
+
+        System.out.println("Classement :");
+        int rang = 1;
+        for (Glicko2.Evaluation e : classement) {
+            System.out.printf(Locale.ROOT, "%d. %s — cote=%.1f ± %.1f (parties=%d)\n", rang++, e.getNom(),
+                    e.getCote(), 1.96 * e.getEcart(), e.getParties());
+        }
+    }
+
+    /** Deux instances d'un même type de bot, réutilisées par un thread de jeu. */
+    private static Bot[] paire(int taille, int[] flotte, String type) {
+        return new Bot[] {BatailleNavale.initBot(taille, flotte, type), BatailleNavale.initBot(taille, flotte, type)};
+    }
+}
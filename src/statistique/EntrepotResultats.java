@@ -0,0 +1,321 @@
+package statistique;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import joueurs.Joueur;
+import joueurs.MatchResult;
+import joueurs.ReglesPartie;
+
+/**
+ * Entrepôt de résultats en colonnes, en ajout seul.
+ *
+ * Chaque exécution d'un outil ({@code Tournament}, {@code Performance}...)
+ * reçoit un identifiant et une ligne de métadonnées dans
+ * {@code executions.tsv} (date, outil, taille de grille, flotte, règles,
+ * liste des bots) ; ses parties sont écrites dans son propre segment
+ * {@code <execution>.seg}. Aucun fichier existant n'est réécrit : les
+ * résultats de jours, de grilles et de versions de bots différents
+ * s'accumulent et se combinent à la lecture ({@link RequeteResultats}).
+ *
+ * Un segment est une suite de blocs d'au plus {@value #LIGNES_PAR_BLOC}
+ * parties. Un bloc commence par un en-tête fixe (marqueur, exécution,
+ * nombre de lignes) suivi des colonnes les unes après les autres :
+ * bot A, bot B et vainqueur sur un octet (indices dans la liste des bots de
+ * l'exécution), puis coups totaux, coups du vainqueur, tours du vainqueur
+ * et coups hors délai de A et de B sur deux octets. La taille d'un bloc se
+ * déduit de son nombre de lignes, si bien qu'une requête saute sans les
+ * lire les blocs des exécutions qu'elle écarte. Les lignes sont accumulées
+ * dans des tableaux primitifs et chaque bloc part en une seule écriture.
+ */
+public final class EntrepotResultats implements AutoCloseable {
+    /** Répertoire par défaut de l'entrepôt. */
+    public static final File REPERTOIRE = new File("Results", "resultats");
+    static final String METADONNEES = "executions.tsv";
+    static final String EXTENSION = ".seg";
+    static final int MARQUEUR = 0x424E5242; // "BNRB"
+    static final int LIGNES_PAR_BLOC = 1 << 16;
+    static final int EN_TETE = 4 + 8 + 4;
+    static final int OCTETS_PAR_LIGNE = 3 + 5 * 2;
+
+    /** Métadonnées d'une exécution. */
+    public static final class Execution {
+        final long id;
+        final String date;
+        final String outil;
+        final int taille;
+        final String flotte;
+        final String regles;
+        final List<String> bots;
+
+        Execution(long id, String date, String outil, int taille, String flotte, String regles, List<String> bots) {
+            this.id = id;
+            this.date = date;
+            this.outil = outil;
+            this.taille = taille;
+            this.flotte = flotte;
+            this.regles = regles;
+            this.bots = bots;
+        }
+
+        String ligne() {
+            return id + "\t" + date + "\t" + outil + "\t" + taille + "\t" + flotte + "\t" + regles + "\t"
+                    + String.join(",", bots);
+        }
+
+        static Execution lire(String ligne) {
+            String[] f = ligne.split("\t", -1);
+            if (f.length < 7) return null;
+            try {
+                return new Execution(Long.parseLong(f[0]), f[1], f[2], Integer.parseInt(f[3]), f[4], f[5],
+                        List.of(f[6].split(",")));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+    }
+
+    private final Execution execution;
+    private final FileChannel canal;
+    private final ByteBuffer tampon = ByteBuffer.allocate(EN_TETE + OCTETS_PAR_LIGNE * LIGNES_PAR_BLOC);
+    private final Map<String, Integer> indices = new LinkedHashMap<>();
+    private final byte[] botA = new byte[LIGNES_PAR_BLOC];
+    private final byte[] botB = new byte[LIGNES_PAR_BLOC];
+    private final byte[] vainqueur = new byte[LIGNES_PAR_BLOC];
+    private final short[] coupsTotal = new short[LIGNES_PAR_BLOC];
+    private final short[] coupsVainqueur = new short[LIGNES_PAR_BLOC];
+    private final short[] toursVainqueur = new short[LIGNES_PAR_BLOC];
+    private final short[] depassementsA = new short[LIGNES_PAR_BLOC];
+    private final short[] depassementsB = new short[LIGNES_PAR_BLOC];
+    private int lignes;
+    private long total;
+
+    /**
+     * Ouvre une nouvelle exécution dans le répertoire donné : enregistre ses
+     * métadonnées et crée son segment.
+     *
+     * @param bots identifiants des bots de l'exécution (au plus 127), dans
+     *             l'ordre des indices passés à {@link #ajouter}
+     */
+    public EntrepotResultats(File repertoire, String outil, int taille, int[] flotte, ReglesPartie regles,
+            List<String> bots) throws IOException {
+        if (bots.isEmpty() || bots.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Nombre de bots non supporté : " + bots.size());
+        }
+        repertoire.mkdirs();
+        long id = System.currentTimeMillis();
+        File segment;
+        while ((segment = new File(repertoire, id + EXTENSION)).exists()) id++;
+        for (String b : bots) indices.putIfAbsent(b, indices.size());
+        execution = new Execution(id, LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), outil, taille,
+                Arrays.stream(flotte).mapToObj(String::valueOf).collect(Collectors.joining(",")),
+                decrire(regles), new ArrayList<>(indices.keySet()));
+
+        File meta = new File(repertoire, METADONNEES);
+        boolean nouveau = !meta.exists();
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(meta.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (nouveau) pw.println("execution\tdate\toutil\ttaille\tflotte\tregles\tbots");
+            pw.println(execution.ligne());
+        }
+        canal = FileChannel.open(segment.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /** Identifiant de l'exécution ouverte. */
+    public long getExecution() {
+        return execution.id;
+    }
+
+    /** Nombre de parties ajoutées depuis l'ouverture. */
+    public long getTotal() {
+        return total;
+    }
+
+    /** Ajoute une partie entre les bots d'identifiants a (premier joueur) et b. */
+    public void ajouter(String a, String b, MatchResult res, Joueur premier, Joueur second)
+            throws IOException {
+        ajouter(indice(a), indice(b), res.getWinner() == premier ? 0 : 1, res.getTotalMoves(), res.getWinnerMoves(),
+                res.getWinnerTurns(), res.getDepassements(premier), res.getDepassements(second));
+    }
+
+    /** Ajoute une partie décrite par ses colonnes ; les indices de bots suivent la liste de l'exécution. */
+    public void ajouter(int a, int b, int gagnant, int coups, int coupsGagnant, int toursGagnant,
+            int horsDelaiA, int horsDelaiB) throws IOException {
+        botA[lignes] = (byte) a;
+        botB[lignes] = (byte) b;
+        vainqueur[lignes] = (byte) gagnant;
+        coupsTotal[lignes] = sature(coups);
+        coupsVainqueur[lignes] = sature(coupsGagnant);
+        toursVainqueur[lignes] = sature(toursGagnant);
+        depassementsA[lignes] = sature(horsDelaiA);
+        depassementsB[lignes] = sature(horsDelaiB);
+        total++;
+        if (++lignes == LIGNES_PAR_BLOC) vider();
+    }
+
+    /** Indice d'un bot dans la liste de l'exécution. */
+    public int indice(String bot) {
+        Integer i = indices.get(bot);
+        if (i == null) throw new IllegalArgumentException("Bot inconnu de l'exécution : " + bot);
+        return i;
+    }
+
+    /** Écrit le bloc en cours (s'il n'est pas vide) en une seule écriture. */
+    public void vider() throws IOException {
+        if (lignes == 0) return;
+        tampon.clear();
+        tampon.putInt(MARQUEUR).putLong(execution.id).putInt(lignes);
+        tampon.put(botA, 0, lignes).put(botB, 0, lignes).put(vainqueur, 0, lignes);
+        for (short[] colonne : new short[][] { coupsTotal, coupsVainqueur, toursVainqueur, depassementsA, depassementsB }) {
+            for (int i = 0; i < lignes; i++) tampon.putShort(colonne[i]);
+        }
+        tampon.flip();
+        while (tampon.hasRemaining()) canal.write(tampon);
+        lignes = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            vider();
+        } finally {
+            canal.close();
+        }
+    }
+
+    private static short sature(int v) {
+        return (short) Math.max(0, Math.min(Short.MAX_VALUE, v));
+    }
+
+    static String decrire(ReglesPartie regles) {
+        if (regles == null) return "standard";
+        List<String> parties = new ArrayList<>();
+        if (regles.getSalve() == ReglesPartie.SALVE_NAVIRES_RESTANTS) parties.add("salve=navires");
+        else if (regles.getSalve() != 1) parties.add("salve=" + regles.getSalve());
+        if (regles.getBudgetParCoupMillis() > 0) parties.add("budget=" + regles.getBudgetParCoupMillis());
+        if (regles.getReserveMillis() > 0) parties.add("reserve=" + regles.getReserveMillis());
+        return parties.isEmpty() ? "standard" : String.join(";", parties);
+    }
+
+    /* ===================== Lecture ===================== */
+
+    /** Métadonnées de toutes les exécutions du répertoire, par identifiant. */
+    static Map<Long, Execution> lireExecutions(File repertoire) throws IOException {
+        Map<Long, Execution> executions = new LinkedHashMap<>();
+        File meta = new File(repertoire, METADONNEES);
+        if (!meta.exists()) return executions;
+        try (BufferedReader br = Files.newBufferedReader(meta.toPath(), StandardCharsets.UTF_8)) {
+            String ligne;
+            while ((ligne = br.readLine()) != null) {
+                Execution e = Execution.lire(ligne);
+                if (e != null) executions.put(e.id, e);
+            }
+        }
+        return executions;
+    }
+
+    /** Segments du répertoire. */
+    static List<File> segments(File repertoire) {
+        File[] fichiers = repertoire.listFiles((d, nom) -> nom.endsWith(EXTENSION));
+        if (fichiers == null) return List.of();
+        Arrays.sort(fichiers);
+        return Arrays.asList(fichiers);
+    }
+
+    /** Colonnes d'un bloc décodées, réutilisées d'un bloc à l'autre. */
+    static final class Bloc {
+        long execution;
+        int lignes;
+        final byte[] botA = new byte[LIGNES_PAR_BLOC];
+        final byte[] botB = new byte[LIGNES_PAR_BLOC];
+        final byte[] vainqueur = new byte[LIGNES_PAR_BLOC];
+        final short[] coupsTotal = new short[LIGNES_PAR_BLOC];
+        final short[] coupsVainqueur = new short[LIGNES_PAR_BLOC];
+        final short[] toursVainqueur = new short[LIGNES_PAR_BLOC];
+        final short[] depassementsA = new short[LIGNES_PAR_BLOC];
+        final short[] depassementsB = new short[LIGNES_PAR_BLOC];
+    }
+
+    /** Filtre sur l'exécution d'un bloc, consulté avant de lire ses colonnes. */
+    interface FiltreBloc {
+        boolean garder(long execution);
+    }
+
+    /** Traitement d'un bloc décodé. */
+    interface Consommateur {
+        void bloc(Bloc b);
+    }
+
+    /**
+     * Parcourt les blocs d'un segment : les blocs écartés par le filtre sont
+     * sautés sans être lus, les autres sont décodés dans un seul {@link Bloc}.
+     */
+    static void parcourir(File segment, FiltreBloc filtre, Consommateur consommateur) {
+        ByteBuffer entete = ByteBuffer.allocate(EN_TETE);
+        ByteBuffer donnees = null;
+        Bloc b = null;
+        try (FileChannel canal = FileChannel.open(segment.toPath(), StandardOpenOption.READ)) {
+            long taille = canal.size();
+            long position = 0;
+            while (position + EN_TETE <= taille) {
+                entete.clear();
+                lire(canal, entete, position);
+                if (entete.getInt() != MARQUEUR) {
+                    throw new IOException("Bloc corrompu dans " + segment + " à l'octet " + position);
+                }
+                long execution = entete.getLong();
+                int lignes = entete.getInt();
+                int longueur = lignes * OCTETS_PAR_LIGNE;
+                long suivant = position + EN_TETE + longueur;
+                if (lignes <= 0 || lignes > LIGNES_PAR_BLOC || suivant > taille) break; // bloc tronqué
+                if (filtre.garder(execution)) {
+                    if (donnees == null) {
+                        donnees = ByteBuffer.allocate(OCTETS_PAR_LIGNE * LIGNES_PAR_BLOC);
+                        b = new Bloc();
+                    }
+                    donnees.clear().limit(longueur);
+                    lire(canal, donnees, position + EN_TETE);
+                    b.execution = execution;
+                    b.lignes = lignes;
+                    donnees.get(b.botA, 0, lignes).get(b.botB, 0, lignes).get(b.vainqueur, 0, lignes);
+                    for (short[] colonne : new short[][] { b.coupsTotal, b.coupsVainqueur, b.toursVainqueur,
+                            b.depassementsA, b.depassementsB }) {
+                        donnees.asShortBuffer().get(colonne, 0, lignes);
+                        donnees.position(donnees.position() + 2 * lignes);
+                    }
+                    consommateur.bloc(b);
+                }
+                position = suivant;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** Remplit le tampon depuis la position donnée, puis le prépare à la lecture. */
+    private static void lire(FileChannel canal, ByteBuffer tampon, long position) throws IOException {
+        while (tampon.hasRemaining()) {
+            int lus = canal.read(tampon, position);
+            if (lus < 0) throw new IOException("Fin de segment inattendue");
+            position += lus;
+        }
+        tampon.flip();
+    }
+}
@@ -0,0 +1,86 @@
+package statistique;
+
+import joueurs.Joueur;
+import joueurs.MatchResult;
+
+/**
+ * Case du tampon circulaire de {@link PipelineResultats} : le résultat d'une
+ * partie et ses métadonnées, en champs primitifs. Les cases sont allouées
+ * une fois pour toutes et réécrites en place par les producteurs ; un
+ * {@link ResultSink} ne doit pas garder de référence à l'événement après
+ * {@link ResultSink#consommer(EvenementPartie)}.
+ */
+public final class EvenementPartie {
+    // numéro de séquence publié : la case est lisible quand il vaut la séquence attendue
+    volatile long sequence = -1;
+
+    int botA;
+    int botB;
+    int vainqueur;
+    int coups;
+    int coupsVainqueur;
+    int toursVainqueur;
+    int depassementsA;
+    int depassementsB;
+    long graine;
+    long dureeNanos;
+
+    /** Remplit la case à partir d'un résultat, sans allocation. */
+    void remplir(int a, int b, MatchResult res, Joueur premier, Joueur second, long graine, long dureeNanos) {
+        this.botA = a;
+        this.botB = b;
+        this.vainqueur = res.getWinner() == premier ? 0 : 1;
+        this.coups = res.getTotalMoves();
+        this.coupsVainqueur = res.getWinnerMoves();
+        this.toursVainqueur = res.getWinnerTurns();
+        this.depassementsA = res.getDepassements(premier);
+        this.depassementsB = res.getDepassements(second);
+        this.graine = graine;
+        this.dureeNanos = dureeNanos;
+    }
+
+    /** Indice du premier joueur dans la liste des bots du pipeline. */
+    public int getBotA() {
+        return botA;
+    }
+
+    /** Indice du second joueur dans la liste des bots du pipeline. */
+    public int getBotB() {
+        return botB;
+    }
+
+    /** 0 si le premier joueur a gagné, 1 sinon. */
+    public int getVainqueur() {
+        return vainqueur;
+    }
+
+    public int getCoups() {
+        return coups;
+    }
+
+    public int getCoupsVainqueur() {
+        return coupsVainqueur;
+    }
+
+    public int getToursVainqueur() {
+        return toursVainqueur;
+    }
+
+    public int getDepassementsA() {
+        return depassementsA;
+    }
+
+    public int getDepassementsB() {
+        return depassementsB;
+    }
+
+    /** Graine de la partie (celle du premier joueur). */
+    public long getGraine() {
+        return graine;
+    }
+
+    /** Durée de la partie, en nanosecondes. */
+    public long getDureeNanos() {
+        return dureeNanos;
+    }
+}
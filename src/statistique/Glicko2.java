@@ -0,0 +1,272 @@
+package statistique;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moteur de classement Glicko-2 mis à jour partie par partie.
+ *
+ * Chaque bot possède une cote (rating), un écart de cote (RD, incertitude)
+ * et une volatilité. Contrairement au classement par taux de victoire de
+ * {@link Tournament}, qui suppose un tournoi complet, chaque résultat est
+ * intégré dès qu'il est connu : une partie constitue une « période » Glicko-2
+ * pour les deux participants. L'écart de cote fournit directement un
+ * intervalle de confiance, ce qui permet de choisir les confrontations les
+ * plus informatives au lieu de jouer toutes les paires.
+ *
+ * Les mises à jour sont sûres en concurrence : les deux états concernés sont
+ * verrouillés dans un ordre global (ordre lexicographique des noms), la
+ * lecture des valeurs avant partie et l'écriture des nouvelles valeurs sont
+ * donc atomiques pour la paire.
+ */
+public class Glicko2 {
+    /** Facteur de conversion entre l'échelle Glicko et l'échelle Glicko-2. */
+    private static final double ECHELLE = 173.7178;
+    private static final double COTE_INITIALE = 1500.0;
+    private static final double RD_INITIAL = 350.0;
+    private static final double VOLATILITE_INITIALE = 0.06;
+    /** Écart de cote minimal, évite qu'un bot devienne figé. */
+    private static final double RD_MIN = 30.0;
+    private static final double EPSILON = 1e-6;
+
+    /** Contrainte sur l'évolution de la volatilité (tau). */
+    private final double tau;
+    private final ConcurrentHashMap<String, Etat> etats = new ConcurrentHashMap<>();
+
+    public Glicko2() {
+        this(0.5);
+    }
+
+    public Glicko2(double tau) {
+        this.tau = tau;
+    }
+
+    /**
+     * Instantané immuable de l'évaluation d'un bot.
+     */
+    public static final class Evaluation {
+        private final String nom;
+        private final double cote;
+        private final double ecart;
+        private final double volatilite;
+        private final int parties;
+
+        Evaluation(String nom, double cote, double ecart, double volatilite, int parties) {
+            this.nom = nom;
+            this.cote = cote;
+            this.ecart = ecart;
+            this.volatilite = volatilite;
+            this.parties = parties;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public double getCote() {
+            return cote;
+        }
+
+        /** Écart de cote (RD) : écart-type de l'estimation de la cote. */
+        public double getEcart() {
+            return ecart;
+        }
+
+        public double getVolatilite() {
+            return volatilite;
+        }
+
+        public int getParties() {
+            return parties;
+        }
+
+        /** Borne inférieure de l'intervalle de confiance à 95 %. */
+        public double getBorneInf() {
+            return cote - 1.96 * ecart;
+        }
+
+        /** Borne supérieure de l'intervalle de confiance à 95 %. */
+        public double getBorneSup() {
+            return cote + 1.96 * ecart;
+        }
+    }
+
+    /** État mutable d'un bot, protégé par son propre moniteur. */
+    private static final class Etat {
+        final String nom;
+        double mu = 0.0;
+        double phi = RD_INITIAL / ECHELLE;
+        double sigma = VOLATILITE_INITIALE;
+        int parties = 0;
+
+        Etat(String nom) {
+            this.nom = nom;
+        }
+
+        Evaluation instantane() {
+            return new Evaluation(nom, COTE_INITIALE + ECHELLE * mu, ECHELLE * phi, sigma, parties);
+        }
+    }
+
+    /**
+     * Déclare un bot (sans effet s'il est déjà connu). Utile pour qu'un bot
+     * apparaisse dans le classement avant sa première partie.
+     */
+    public void ajouter(String nom) {
+        etats.computeIfAbsent(nom, Etat::new);
+    }
+
+    /**
+     * Intègre le résultat d'une partie gagnée par {@code gagnant} contre
+     * {@code perdant}. Peut être appelée simultanément depuis plusieurs
+     * threads de jeu.
+     */
+    public void enregistrer(String gagnant, String perdant) {
+        if (gagnant.equals(perdant)) {
+            return; // le self-play n'apporte aucune information de classement
+        }
+        Etat g = etats.computeIfAbsent(gagnant, Etat::new);
+        Etat p = etats.computeIfAbsent(perdant, Etat::new);
+        Etat premier = gagnant.compareTo(perdant) < 0 ? g : p;
+        Etat second = (premier == g) ? p : g;
+        synchronized (premier) {
+            synchronized (second) {
+                double muG = g.mu, phiG = g.phi;
+                double muP = p.mu, phiP = p.phi;
+                mettreAJour(g, muP, phiP, 1.0);
+                mettreAJour(p, muG, phiG, 0.0);
+            }
+        }
+    }
+
+    /**
+     * Retourne l'évaluation courante d'un bot, ou une évaluation initiale
+     * s'il n'a encore jamais joué.
+     */
+    public Evaluation evaluation(String nom) {
+        Etat e = etats.computeIfAbsent(nom, Etat::new);
+        synchronized (e) {
+            return e.instantane();
+        }
+    }
+
+    /**
+     * Retourne le classement courant, trié par borne inférieure de
+     * l'intervalle de confiance (classement conservateur).
+     */
+    public List<Evaluation> classement() {
+        List<Evaluation> res = new ArrayList<>();
+        for (Etat e : etats.values()) {
+            synchronized (e) {
+                res.add(e.instantane());
+            }
+        }
+        res.sort(Comparator.comparingDouble(Evaluation::getBorneInf).reversed());
+        return res;
+    }
+
+    /**
+     * Probabilité estimée que {@code a} batte {@code b}, compte tenu de
+     * l'incertitude sur la cote de {@code b}.
+     */
+    public double probabiliteVictoire(String a, String b) {
+        Evaluation ea = evaluation(a);
+        Evaluation eb = evaluation(b);
+        return esperance((ea.cote - COTE_INITIALE) / ECHELLE, (eb.cote - COTE_INITIALE) / ECHELLE,
+                eb.ecart / ECHELLE);
+    }
+
+    /**
+     * Choisit un adversaire informatif pour {@code nom} parmi
+     * {@code candidats} tirés au hasard dans la population : on retient
+     * celui qui maximise l'information de Fisher d'une partie,
+     * g(phi)^2 * E * (1 - E), ce qui privilégie les cotes proches et les
+     * bots encore incertains. Le coût est O(candidats) par partie au lieu
+     * d'un tournoi complet en O(B^2).
+     */
+    public String choisirAdversaire(String nom, List<String> population, int candidats, Random rng) {
+        Evaluation e = evaluation(nom);
+        double mu = (e.cote - COTE_INITIALE) / ECHELLE;
+        String meilleur = null;
+        double meilleureInfo = -1.0;
+        for (int k = 0; k < candidats; k++) {
+            String autre = population.get(rng.nextInt(population.size()));
+            if (autre.equals(nom)) continue;
+            Evaluation o = evaluation(autre);
+            double phiO = o.ecart / ECHELLE;
+            double g = g(phiO);
+            double esp = esperance(mu, (o.cote - COTE_INITIALE) / ECHELLE, phiO);
+            // bonus d'exploration : réduire aussi l'incertitude de l'adversaire
+            double info = g * g * esp * (1.0 - esp) * (1.0 + phiO * phiO);
+            if (info > meilleureInfo) {
+                meilleureInfo = info;
+                meilleur = autre;
+            }
+        }
+        return meilleur;
+    }
+
+    /* ===================== Calculs Glicko-2 ===================== */
+
+    private void mettreAJour(Etat e, double muAdv, double phiAdv, double score) {
+        double g = g(phiAdv);
+        double esp = esperance(e.mu, muAdv, phiAdv);
+        double v = 1.0 / (g * g * esp * (1.0 - esp));
+        double delta = v * g * (score - esp);
+        double sigma = nouvelleVolatilite(e.phi, e.sigma, v, delta);
+        double phiEtoile = Math.sqrt(e.phi * e.phi + sigma * sigma);
+        double phi = 1.0 / Math.sqrt(1.0 / (phiEtoile * phiEtoile) + 1.0 / v);
+        e.mu = e.mu + phi * phi * g * (score - esp);
+        e.phi = Math.max(phi, RD_MIN / ECHELLE);
+        e.sigma = sigma;
+        e.parties++;
+    }
+
+    /** Résolution itérative (méthode d'Illinois) de la nouvelle volatilité. */
+    private double nouvelleVolatilite(double phi, double sigma, double v, double delta) {
+        double a = Math.log(sigma * sigma);
+        double bigA = a;
+        double bigB;
+        double d2 = delta * delta;
+        double p2 = phi * phi;
+        if (d2 > p2 + v) {
+            bigB = Math.log(d2 - p2 - v);
+        } else {
+            int k = 1;
+            while (f(a - k * tau, d2, p2, v, a) < 0) k++;
+            bigB = a - k * tau;
+        }
+        double fA = f(bigA, d2, p2, v, a);
+        double fB = f(bigB, d2, p2, v, a);
+        while (Math.abs(bigB - bigA) > EPSILON) {
+            double bigC = bigA + (bigA - bigB) * fA / (fB - fA);
+            double fC = f(bigC, d2, p2, v, a);
+            if (fC * fB <= 0) {
+                bigA = bigB;
+                fA = fB;
+            } else {
+                fA = fA / 2.0;
+            }
+            bigB = bigC;
+            fB = fC;
+        }
+        return Math.exp(bigA / 2.0);
+    }
+
+    private double f(double x, double d2, double p2, double v, double a) {
+        double ex = Math.exp(x);
+        double den = p2 + v + ex;
+        return ex * (d2 - p2 - v - ex) / (2.0 * den * den) - (x - a) / (tau * tau);
+    }
+
+    private static double g(double phi) {
+        return 1.0 / Math.sqrt(1.0 + 3.0 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    private static double esperance(double mu, double muAdv, double phiAdv) {
+        return 1.0 / (1.0 + Math.exp(-g(phiAdv) * (mu - muAdv)));
+    }
+}
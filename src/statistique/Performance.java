@@ -7,18 +7,35 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.imageio.ImageIO;
 
 import bataillenavale.BatailleNavale;
+import heuristic.FinDePartie;
 import joueurs.MatchResult;
 import joueurs.Bot;
+import joueurs.ReglesPartie;
+import joueurs.SmartBot;
 
 /**
  * Exécute des expériences en self-play : chaque bot joue contre lui-même N fois.
  * Enregistre le nombre de coups nécessaires pour gagner, calcule la moyenne
- * et l'erreur type, écrit un CSV et produit un PNG récapitulatif.
+ * et l'erreur type, écrit un CSV et produit un PNG récapitulatif. Les deux
+ * instances d'un bot sont réinitialisées en place entre les essais.
+ *
+ * Usage : {@code Performance [essais] [taille] [salve]} ; {@code salve} joue la
+ * variante salve (nombre de tirs par tour, ou {@code navires}), et le CSV
+ * indique alors aussi le nombre moyen de tours du vainqueur. Les bots jouent
+ * en parallèle et publient leurs parties dans un {@link PipelineResultats} :
+ * les statistiques sont tenues en flux et les parties ajoutées à
+ * l'{@link EntrepotResultats}.
  */
 public class Performance {
     public static void main(String[] args) throws Exception {
@@ -30,6 +47,14 @@ public class Performance {
         if (args.length > 1) {
             try { taille = Integer.parseInt(args[1]); } catch (NumberFormatException ex) { /* ignore */ }
         }
+        ReglesPartie regles = ReglesPartie.STANDARD;
+        if (args.length > 2) {
+            String salve = args[2];
+            try {
+                regles = regles.avecSalve("navires".equals(salve) ? ReglesPartie.SALVE_NAVIRES_RESTANTS
+                        : Integer.parseInt(salve));
+            } catch (IllegalArgumentException ex) { /* ignore */ }
+        }
 
         final int[] FLOTTE = {5, 4, 3, 3, 2, 2};
         final String[] botTypes = {"uniform", "markov", "montecarlo", "smart"};
@@ -43,36 +68,84 @@ public class Performance {
         double[] means = new double[botTypes.length];
         double[] sds = new double[botTypes.length];
         double[] stderrs = new double[botTypes.length];
+        double[] meanTurns = new double[botTypes.length];
         int[] maxObserved = new int[botTypes.length];
 
-        List<List<Integer>> allMoves = new ArrayList<>();
-        for (int i = 0; i < botTypes.length; i++) allMoves.add(new ArrayList<>());
+        Random graines = new Random();
+        final int B = botTypes.length;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+        // un bot par tâche ; les parties partent dans le pipeline, dont les
+        // destinations tiennent les statistiques et l'entrepôt de résultats
+        ResultSink.Statistiques stats = new ResultSink.Statistiques(B);
+        EntrepotResultats entrepot = new EntrepotResultats(EntrepotResultats.REPERTOIRE, "performance", taille,
+                FLOTTE, regles, Arrays.asList(botTypes));
+        List<ResultSink> sinks = List.of(stats, new ResultSink.Entrepot(entrepot),
+                new ResultSink.Console((long) N * B, 2000));
+        List<Bot[]> paires = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (PipelineResultats pipeline = new PipelineResultats(1 << 12, PipelineResultats.Pression.BLOQUER, sinks)) {
+            List<Future<Bot[]>> futurs = new ArrayList<>();
+            for (int i = 0; i < B; i++) {
+                final int bot = i, essais = N, t = taille;
+                final long graine = graines.nextLong();
+                final ReglesPartie r = regles;
+                futurs.add(pool.submit(() -> {
+                    System.out.printf("Exécution self-play pour %s (%d essais)...\n", labels[bot], essais);
+                    Random alea = new Random(graine);
+                    Bot b1 = BatailleNavale.initBot(t, FLOTTE, botTypes[bot]);
+                    Bot b2 = BatailleNavale.initBot(t, FLOTTE, botTypes[bot]);
+                    for (int k = 0; k < essais && !Thread.currentThread().isInterrupted(); k++) {
+                        long g1 = alea.nextLong();
+                        b1.reinitialiser(FLOTTE, g1);
+                        b2.reinitialiser(FLOTTE, alea.nextLong());
+                        long debut = System.nanoTime();
+                        MatchResult res = b1.jouerAvec(b2, r);
+                        pipeline.publier(bot, bot, res, b1, b2, g1, System.nanoTime() - debut);
+                    }
+                    return new Bot[] { b1, b2 };
+                }));
+            }
+            try {
+                for (Future<Bot[]> f : futurs) paires.add(f.get());
+            } finally {
+                // en cas d'échec, arrêter les autres tâches avant de fermer le pipeline
+                pool.shutdownNow();
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        }
 
-        for (int i = 0; i < botTypes.length; i++) {
-            System.out.printf("Exécution self-play pour %s (%d essais)...\n", labels[i], N);
-            List<Integer> moves = allMoves.get(i);
-            for (int t = 0; t < N; t++) {
-                Bot b1 = BatailleNavale.initBot(taille, FLOTTE, botTypes[i]);
-                Bot b2 = BatailleNavale.initBot(taille, FLOTTE, botTypes[i]);
-                MatchResult res = b1.jouerAvec(b2);
-                moves.add(res.getWinnerMoves());
+        for (int i = 0; i < B; i++) {
+            // en self-play, chaque partie a un vainqueur de ce type : ses coups sont l'échantillon
+            long n = stats.getVictoires(i);
+            means[i] = stats.getMoyenneCoups(i);
+            sds[i] = stats.getEcartTypeCoups(i);
+            stderrs[i] = n > 0 ? sds[i] / Math.sqrt(n) : 0.0;
+            maxObserved[i] = stats.getMaxCoups(i);
+            meanTurns[i] = stats.getMoyenneTours(i);
+            // déclenchements du solveur de fin de partie, cumulés sur les deux instances
+            long appels = 0, declenchements = 0;
+            double millis = 0.0;
+            for (Bot b : paires.get(i)) {
+                FinDePartie fin = (b instanceof SmartBot) ? ((SmartBot) b).getFinDePartie() : null;
+                if (fin == null) continue;
+                appels += fin.getAppels();
+                declenchements += fin.getDeclenchements();
+                millis += fin.getTempsMoyenMillis() * fin.getDeclenchements();
+            }
+            if (appels > 0) {
+                System.out.printf("  %s, fin de partie exacte : %.1f%% des coups, %.2f ms par résolution\n", labels[i],
+                        100.0 * declenchements / appels, declenchements > 0 ? millis / declenchements : 0.0);
             }
-            double sum = 0.0;
-            int max = 0;
-            for (int m : moves) { sum += m; if (m > max) max = m; }
-            double mean = sum / (double) moves.size();
-            double var = 0.0;
-            for (int m : moves) var += (m - mean) * (m - mean);
-            double sd = moves.size() > 1 ? Math.sqrt(var / (moves.size() - 1)) : 0.0;
-            double stderr = sd / Math.sqrt(moves.size());
-            means[i] = mean; sds[i] = sd; stderrs[i] = stderr; maxObserved[i] = max;
         }
+        System.out.println("Exécution " + entrepot.getExecution() + " ajoutée à l'entrepôt : "
+                + EntrepotResultats.REPERTOIRE.getAbsolutePath());
 
         // write CSV with summary stats
         try (PrintWriter pw = new PrintWriter(csv)) {
-            pw.println("bot,trials,mean_moves,std_error");
+            pw.println("bot,trials,mean_moves,std_error,mean_turns");
             for (int i = 0; i < botTypes.length; i++) {
-                pw.printf("%s,%d,%.6f,%.6f\n", labels[i], N, means[i], stderrs[i]);
+                pw.printf("%s,%d,%.6f,%.6f,%.6f\n", labels[i], N, means[i], stderrs[i], meanTurns[i]);
             }
         }
 
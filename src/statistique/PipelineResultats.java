@@ -0,0 +1,200 @@
+package statistique;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import joueurs.Joueur;
+import joueurs.MatchResult;
+
+/**
+ * Pipeline asynchrone de résultats : les threads de jeu publient leurs
+ * parties dans un tampon circulaire préalloué, et chaque
+ * {@link ResultSink} les consomme sur son propre thread.
+ *
+ * Le tampon contient {@code capacite} cases {@link EvenementPartie}
+ * (puissance de deux) créées à la construction. Un producteur réserve un
+ * numéro de séquence par compare-and-set, remplit la case correspondante
+ * en place puis la publie en écrivant ce numéro dans la case (écriture
+ * volatile) : publier ne crée aucun objet et ne prend aucun verrou. Chaque
+ * consommateur suit son propre curseur et reçoit tous les événements, dans
+ * l'ordre ; une case n'est réécrite qu'une fois lue par tous.
+ *
+ * Quand le tampon est plein (consommateur le plus lent en retard de
+ * {@code capacite} événements), la {@link Pression} choisie décide :
+ * {@link Pression#BLOQUER} fait attendre le producteur, sans perte ;
+ * {@link Pression#ABANDONNER} rejette l'événement et le compte
+ * ({@link #getAbandons()}), sans jamais ralentir la simulation. Les attentes
+ * (producteur bloqué, consommateur sans événement) tournent brièvement puis
+ * se garent par {@link LockSupport#parkNanos(long)}.
+ */
+public final class PipelineResultats implements AutoCloseable {
+    private static final int TOURS_AVANT_ATTENTE = 100;
+    private static final long ATTENTE_NANOS = 50_000L;
+
+    /** Politique de contre-pression quand le tampon est plein. */
+    public enum Pression { BLOQUER, ABANDONNER }
+
+    private final EvenementPartie[] cases;
+    private final int masque;
+    private final Pression pression;
+    private final AtomicLong prochaine = new AtomicLong();   // prochaine séquence à réserver
+    private final LongAdder abandons = new LongAdder();
+    private final List<Consommateur> consommateurs = new ArrayList<>();
+    private volatile long minimumConnu;                      // borne inférieure des curseurs
+    private volatile boolean ferme;
+
+    /** Thread consommateur d'une destination. */
+    private final class Consommateur implements Runnable {
+        final ResultSink sink;
+        final Thread thread;
+        volatile long curseur;      // prochaine séquence à lire
+        volatile Throwable erreur;
+
+        Consommateur(ResultSink sink, String nom) {
+            this.sink = sink;
+            this.thread = new Thread(this, nom);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long s = 0;
+            int tours = 0;
+            try {
+                while (true) {
+                    EvenementPartie e = cases[(int) s & masque];
+                    if (e.sequence == s) {
+                        sink.consommer(e);
+                        curseur = ++s;
+                        tours = 0;
+                    } else if (ferme && s >= prochaine.get()) {
+                        // fermé : toutes les séquences réservées ont été publiées (voir close)
+                        break;
+                    } else if (++tours > TOURS_AVANT_ATTENTE) {
+                        LockSupport.parkNanos(ATTENTE_NANOS);
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                }
+            } catch (Throwable t) {
+                // la destination est abandonnée, mais le curseur continue d'avancer
+                // pour ne pas bloquer les producteurs ; l'erreur ressort à la fermeture
+                erreur = t;
+                drainer(s);
+                return;
+            }
+            try {
+                sink.terminer();
+            } catch (Throwable t) {
+                erreur = t;
+            }
+        }
+
+        /** Avance le curseur sans consommer, jusqu'à la fermeture. */
+        private void drainer(long s) {
+            while (!(ferme && s >= prochaine.get())) {
+                if (cases[(int) s & masque].sequence == s) curseur = ++s;
+                else LockSupport.parkNanos(ATTENTE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * @param capacite nombre de cases du tampon, arrondi à la puissance de
+     *                 deux supérieure
+     * @param pression politique quand le tampon est plein
+     * @param sinks    destinations, chacune servie par son propre thread
+     */
+    public PipelineResultats(int capacite, Pression pression, List<? extends ResultSink> sinks) {
+        int n = Integer.highestOneBit(Math.max(2, capacite - 1)) << 1;
+        this.cases = new EvenementPartie[n];
+        for (int i = 0; i < n; i++) cases[i] = new EvenementPartie();
+        this.masque = n - 1;
+        this.pression = pression;
+        int k = 0;
+        for (ResultSink sink : sinks) consommateurs.add(new Consommateur(sink, "resultats-" + k++));
+        for (Consommateur c : consommateurs) c.thread.start();
+    }
+
+    /**
+     * Publie une partie ; appelable depuis plusieurs threads, sans
+     * allocation.
+     *
+     * @param a       indice du premier joueur dans la liste des bots des destinations
+     * @param b       indice du second joueur
+     * @param premier joueur sur lequel {@code jouerAvec} a été appelé
+     * @return faux si l'événement a été abandonné (tampon plein sous
+     *         {@link Pression#ABANDONNER})
+     */
+    public boolean publier(int a, int b, MatchResult res, Joueur premier, Joueur second, long graine,
+            long dureeNanos) {
+        if (ferme) throw new IllegalStateException("Pipeline fermé");
+        long s;
+        int tours = 0;
+        while (true) {
+            s = prochaine.get();
+            long recouvre = s - cases.length; // séquence précédente de la même case
+            if (recouvre >= minimumConnu) minimumConnu = minimum();
+            if (recouvre >= minimumConnu) {
+                if (pression == Pression.ABANDONNER) {
+                    abandons.increment();
+                    return false;
+                }
+                if (++tours > TOURS_AVANT_ATTENTE) LockSupport.parkNanos(ATTENTE_NANOS);
+                else Thread.onSpinWait();
+                continue;
+            }
+            if (prochaine.compareAndSet(s, s + 1)) break;
+        }
+        EvenementPartie e = cases[(int) s & masque];
+        e.remplir(a, b, res, premier, second, graine, dureeNanos);
+        e.sequence = s;
+        return true;
+    }
+
+    /** Plus petit curseur des consommateurs. */
+    private long minimum() {
+        long m = Long.MAX_VALUE;
+        for (Consommateur c : consommateurs) m = Math.min(m, c.curseur);
+        return consommateurs.isEmpty() ? prochaine.get() : m;
+    }
+
+    /** Événements rejetés faute de place. */
+    public long getAbandons() {
+        return abandons.sum();
+    }
+
+    /** Événements publiés. */
+    public long getPublies() {
+        return prochaine.get();
+    }
+
+    /**
+     * Ferme le pipeline : attend que chaque destination ait consommé tous
+     * les événements publiés et se soit terminée. Les producteurs doivent
+     * avoir fini de publier. La première erreur d'une destination est
+     * relancée.
+     */
+    @Override
+    public void close() throws IOException {
+        ferme = true;
+        for (Consommateur c : consommateurs) {
+            try {
+                c.thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Consommateur c : consommateurs) {
+            if (c.erreur instanceof IOException) throw (IOException) c.erreur;
+            if (c.erreur instanceof UncheckedIOException) throw ((UncheckedIOException) c.erreur).getCause();
+            if (c.erreur != null) throw new IllegalStateException("Destination en échec : " + c.sink, c.erreur);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package statistique;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outil de requête sur l'{@link EntrepotResultats} : filtre, regroupe et
+ * agrège les parties de toutes les exécutions enregistrées.
+ *
+ * Chaque partie compte deux fois, une par point de vue (le bot et son
+ * adversaire). Pour chaque groupe on donne le nombre de parties, de
+ * victoires, le taux de victoire, le nombre moyen de coups du bot quand il
+ * gagne (avec son erreur type) et ses coups hors délai.
+ *
+ * Les filtres sur l'exécution (taille, flotte, outil, identifiant, bots
+ * présents) sont résolus sur les métadonnées : les blocs écartés sont
+ * sautés sans être lus. Les segments sont parcourus en parallèle, bloc par
+ * bloc, sans jamais charger plus d'un bloc par thread ; dans un bloc, la clé
+ * de groupe ne dépend que du couple (bot, adversaire), si bien que les
+ * agrégats sont précalculés par exécution et que chaque ligne ne coûte que
+ * deux accès à un tableau.
+ *
+ * Usage : {@code RequeteResultats [cle=valeur ...]} avec
+ * <ul>
+ * <li>{@code par=bot,adversaire,taille,flotte,regles,outil,execution}
+ *     (défaut {@code bot}) ;</li>
+ * <li>les filtres {@code bot=}, {@code adversaire=}, {@code taille=},
+ *     {@code flotte=}, {@code regles=}, {@code outil=}, {@code execution=} ;</li>
+ * <li>{@code repertoire=} (défaut {@code Results/resultats}).</li>
+ * </ul>
+ */
+public class RequeteResultats {
+    private static final List<String> CHAMPS =
+            List.of("bot", "adversaire", "taille", "flotte", "regles", "outil", "execution");
+
+    /** Agrégat d'un groupe. */
+    static final class Agregat {
+        long parties;
+        long victoires;
+        long coups;       // coups du bot, sommés sur ses victoires
+        long coupsCarres;
+        long horsDelai;
+
+        void fusionner(Agregat o) {
+            parties += o.parties;
+            victoires += o.victoires;
+            coups += o.coups;
+            coupsCarres += o.coupsCarres;
+            horsDelai += o.horsDelai;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        File repertoire = EntrepotResultats.REPERTOIRE;
+        List<String> par = List.of("bot");
+        Map<String, String> filtres = new HashMap<>();
+        for (String a : args) {
+            int eg = a.indexOf('=');
+            if (eg <= 0) {
+                System.out.println("Argument ignoré (attendu cle=valeur) : " + a);
+                continue;
+            }
+            String cle = a.substring(0, eg), valeur = a.substring(eg + 1);
+            if (cle.equals("repertoire")) {
+                repertoire = new File(valeur);
+            } else if (cle.equals("par")) {
+                par = List.of(valeur.split(","));
+            } else if (CHAMPS.contains(cle)) {
+                filtres.put(cle, valeur);
+            } else {
+                System.out.println("Champ inconnu ignoré : " + cle);
+            }
+        }
+        for (String champ : par) {
+            if (!CHAMPS.contains(champ)) throw new IllegalArgumentException("Champ de regroupement inconnu : " + champ);
+        }
+
+        long debut = System.nanoTime();
+        Map<Long, EntrepotResultats.Execution> executions = EntrepotResultats.lireExecutions(repertoire);
+        Map<String, Agregat> resultat = executer(repertoire, executions, filtres, par);
+        double ms = (System.nanoTime() - debut) / 1e6;
+
+        long lignes = 0;
+        for (Agregat a : resultat.values()) lignes += a.parties;
+        System.out.printf(Locale.ROOT, "%d exécutions, %d points de vue agrégés en %.1f ms\n",
+                executions.size(), lignes, ms);
+        System.out.printf("%-40s %10s %10s %8s %10s %8s %10s\n", String.join("/", par), "parties", "victoires",
+                "taux", "coups", "stderr", "hors_délai");
+        for (Map.Entry<String, Agregat> e : resultat.entrySet()) {
+            Agregat a = e.getValue();
+            double moyenne = a.victoires > 0 ? a.coups / (double) a.victoires : 0.0;
+            double variance = a.victoires > 1
+                    ? (a.coupsCarres - a.victoires * moyenne * moyenne) / (a.victoires - 1) : 0.0;
+            System.out.printf(Locale.ROOT, "%-40s %10d %10d %8.4f %10.3f %8.3f %10d\n", e.getKey(), a.parties,
+                    a.victoires, a.parties > 0 ? a.victoires / (double) a.parties : 0.0, moyenne,
+                    a.victoires > 0 ? Math.sqrt(Math.max(0.0, variance) / a.victoires) : 0.0, a.horsDelai);
+        }
+    }
+
+    /**
+     * Agrège les segments du répertoire : des agrégats locaux par segment,
+     * fusionnés à la fin, trié par clé de groupe.
+     */
+    static Map<String, Agregat> executer(File repertoire, Map<Long, EntrepotResultats.Execution> executions,
+            Map<String, String> filtres, List<String> par) {
+        // exécutions retenues et, pour chacune, la clé de chaque couple (bot, adversaire)
+        Map<Long, String[][]> cles = new HashMap<>();
+        for (EntrepotResultats.Execution e : executions.values()) {
+            if (!garder(e, filtres)) continue;
+            int n = e.bots.size();
+            String[][] k = new String[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (!accepte(filtres, "bot", e.bots.get(i)) || !accepte(filtres, "adversaire", e.bots.get(j))) {
+                        continue;
+                    }
+                    List<String> valeurs = new ArrayList<>();
+                    for (String champ : par) valeurs.add(valeur(e, champ, i, j));
+                    k[i][j] = String.join("/", valeurs);
+                }
+            }
+            cles.put(e.id, k);
+        }
+
+        Map<String, Agregat> total = EntrepotResultats.segments(repertoire).parallelStream()
+                .map(segment -> {
+                    Map<String, Agregat> local = new HashMap<>();
+                    Map<Long, Agregat[][]> tables = new HashMap<>();
+                    EntrepotResultats.parcourir(segment, cles::containsKey, b -> {
+                        Agregat[][] t = tables.computeIfAbsent(b.execution, id -> table(cles.get(id), local));
+                        agreger(b, t);
+                    });
+                    return local;
+                })
+                .reduce(new HashMap<>(), (x, y) -> {
+                    Map<String, Agregat> m = new HashMap<>(x);
+                    for (Map.Entry<String, Agregat> e : y.entrySet()) {
+                        m.merge(e.getKey(), e.getValue(), (a, b) -> {
+                            Agregat s = new Agregat();
+                            s.fusionner(a);
+                            s.fusionner(b);
+                            return s;
+                        });
+                    }
+                    return m;
+                });
+        total.values().removeIf(a -> a.parties == 0);
+        return new TreeMap<>(total);
+    }
+
+    /** Agrégats du couple (bot, adversaire) d'une exécution, partagés entre couples de même clé. */
+    private static Agregat[][] table(String[][] cles, Map<String, Agregat> local) {
+        Agregat[][] t = new Agregat[cles.length][];
+        for (int i = 0; i < cles.length; i++) {
+            t[i] = new Agregat[cles[i].length];
+            for (int j = 0; j < cles[i].length; j++) {
+                if (cles[i][j] != null) t[i][j] = local.computeIfAbsent(cles[i][j], k -> new Agregat());
+            }
+        }
+        return t;
+    }
+
+    /** Compte chaque partie du bloc du point de vue de A puis de B. */
+    private static void agreger(EntrepotResultats.Bloc b, Agregat[][] t) {
+        for (int l = 0; l < b.lignes; l++) {
+            int a = b.botA[l], c = b.botB[l];
+            boolean gagneA = b.vainqueur[l] == 0;
+            int coups = b.coupsVainqueur[l];
+            Agregat pa = t[a][c];
+            if (pa != null) {
+                pa.parties++;
+                pa.horsDelai += b.depassementsA[l];
+                if (gagneA) {
+                    pa.victoires++;
+                    pa.coups += coups;
+                    pa.coupsCarres += (long) coups * coups;
+                }
+            }
+            Agregat pb = t[c][a];
+            if (pb != null) {
+                pb.parties++;
+                pb.horsDelai += b.depassementsB[l];
+                if (!gagneA) {
+                    pb.victoires++;
+                    pb.coups += coups;
+                    pb.coupsCarres += (long) coups * coups;
+                }
+            }
+        }
+    }
+
+    private static boolean garder(EntrepotResultats.Execution e, Map<String, String> filtres) {
+        if (!accepte(filtres, "taille", String.valueOf(e.taille))) return false;
+        if (!accepte(filtres, "flotte", e.flotte)) return false;
+        if (!accepte(filtres, "regles", e.regles)) return false;
+        if (!accepte(filtres, "outil", e.outil)) return false;
+        if (!accepte(filtres, "execution", String.valueOf(e.id))) return false;
+        // sans le bot (ou l'adversaire) demandé, l'exécution entière est sautée
+        if (filtres.containsKey("bot") && !e.bots.contains(filtres.get("bot"))) return false;
+        return !filtres.containsKey("adversaire") || e.bots.contains(filtres.get("adversaire"));
+    }
+
+    private static boolean accepte(Map<String, String> filtres, String champ, String valeur) {
+        String f = filtres.get(champ);
+        return f == null || f.equals(valeur);
+    }
+
+    private static String valeur(EntrepotResultats.Execution e, String champ, int bot, int adversaire) {
+        switch (champ) {
+            case "bot": return e.bots.get(bot);
+            case "adversaire": return e.bots.get(adversaire);
+            case "taille": return String.valueOf(e.taille);
+            case "flotte": return e.flotte;
+            case "regles": return e.regles;
+            case "outil": return e.outil;
+            default: return String.valueOf(e.id);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package statistique;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Destination des résultats de parties publiés dans un
+ * {@link PipelineResultats}. Chaque destination a son propre thread
+ * consommateur : {@link #consommer(EvenementPartie)} est toujours appelée
+ * depuis ce thread, dans l'ordre de publication, et n'a donc pas besoin de
+ * synchronisation. {@link #terminer()} est appelée sur ce même thread
+ * quand le pipeline se ferme, après le dernier événement.
+ *
+ * Implémentations fournies : {@link Csv} (une ligne par partie),
+ * {@link Entrepot} (journal binaire de l'{@link EntrepotResultats}),
+ * {@link Statistiques} (moyennes et variances en flux) et {@link Console}
+ * (progression périodique).
+ */
+public interface ResultSink {
+
+    /** Traite un événement ; la case est réutilisée dès le retour. */
+    void consommer(EvenementPartie e) throws IOException;
+
+    /** Fin du flux : vider les tampons, fermer les fichiers. */
+    default void terminer() throws IOException {
+    }
+
+    /** Une ligne CSV par partie, écrite à travers un tampon. */
+    final class Csv implements ResultSink {
+        private final PrintWriter pw;
+        private final List<String> bots;
+
+        public Csv(File fichier, List<String> bots) throws IOException {
+            this.bots = bots;
+            this.pw = new PrintWriter(Files.newBufferedWriter(fichier.toPath(), StandardCharsets.UTF_8));
+            pw.println("bot_a,bot_b,winner,total_moves,winner_moves,winner_turns,timeouts_a,timeouts_b,seed,duration_ms");
+        }
+
+        @Override
+        public void consommer(EvenementPartie e) {
+            pw.printf(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%d,%d,%d,%.3f\n", bots.get(e.botA), bots.get(e.botB),
+                    bots.get(e.vainqueur == 0 ? e.botA : e.botB), e.coups, e.coupsVainqueur, e.toursVainqueur,
+                    e.depassementsA, e.depassementsB, e.graine, e.dureeNanos / 1e6);
+        }
+
+        @Override
+        public void terminer() {
+            pw.close();
+        }
+    }
+
+    /** Journal binaire : ajoute chaque partie à une exécution de l'entrepôt. */
+    final class Entrepot implements ResultSink {
+        private final EntrepotResultats entrepot;
+
+        public Entrepot(EntrepotResultats entrepot) {
+            this.entrepot = entrepot;
+        }
+
+        @Override
+        public void consommer(EvenementPartie e) throws IOException {
+            entrepot.ajouter(e.botA, e.botB, e.vainqueur, e.coups, e.coupsVainqueur, e.toursVainqueur,
+                    e.depassementsA, e.depassementsB);
+        }
+
+        @Override
+        public void terminer() throws IOException {
+            entrepot.close();
+        }
+    }
+
+    /**
+     * Statistiques en flux par bot : parties, victoires, hors délai, et
+     * moyenne / variance (Welford) des coups du bot quand il gagne. Les
+     * lectures se font après {@link PipelineResultats#close()}.
+     */
+    final class Statistiques implements ResultSink {
+        private final long[] parties;
+        private final long[] victoires;
+        private final long[] horsDelai;
+        private final double[] moyenne;
+        private final double[] m2;
+        private final long[] tours;
+        private final int[] maxCoups;
+        private final long[][] victoiresContre;
+
+        public Statistiques(int bots) {
+            parties = new long[bots];
+            victoires = new long[bots];
+            horsDelai = new long[bots];
+            moyenne = new double[bots];
+            m2 = new double[bots];
+            tours = new long[bots];
+            maxCoups = new int[bots];
+            victoiresContre = new long[bots][bots];
+        }
+
+        @Override
+        public void consommer(EvenementPartie e) {
+            int g = e.vainqueur == 0 ? e.botA : e.botB;
+            int p = e.vainqueur == 0 ? e.botB : e.botA;
+            parties[e.botA]++;
+            parties[e.botB]++;
+            horsDelai[e.botA] += e.depassementsA;
+            horsDelai[e.botB] += e.depassementsB;
+            victoiresContre[g][p]++;
+            tours[g] += e.toursVainqueur;
+            maxCoups[g] = Math.max(maxCoups[g], e.coupsVainqueur);
+            long n = ++victoires[g];
+            double d = e.coupsVainqueur - moyenne[g];
+            moyenne[g] += d / n;
+            m2[g] += d * (e.coupsVainqueur - moyenne[g]);
+        }
+
+        public long getParties(int bot) {
+            return parties[bot];
+        }
+
+        public long getVictoires(int bot) {
+            return victoires[bot];
+        }
+
+        /** Victoires du bot i contre le bot j. */
+        public long getVictoires(int i, int j) {
+            return victoiresContre[i][j];
+        }
+
+        public long getHorsDelai(int bot) {
+            return horsDelai[bot];
+        }
+
+        /** Nombre moyen de coups du bot sur ses victoires. */
+        public double getMoyenneCoups(int bot) {
+            return moyenne[bot];
+        }
+
+        /** Écart type des coups du bot sur ses victoires. */
+        public double getEcartTypeCoups(int bot) {
+            return victoires[bot] > 1 ? Math.sqrt(m2[bot] / (victoires[bot] - 1)) : 0.0;
+        }
+
+        /** Plus grand nombre de coups du bot sur une victoire. */
+        public int getMaxCoups(int bot) {
+            return maxCoups[bot];
+        }
+
+        /** Nombre moyen de tours du bot sur ses victoires. */
+        public double getMoyenneTours(int bot) {
+            return victoires[bot] > 0 ? tours[bot] / (double) victoires[bot] : 0.0;
+        }
+    }
+
+    /** Affiche la progression au plus une fois par intervalle. */
+    final class Console implements ResultSink {
+        private final long intervalleNanos;
+        private final long attendues;
+        private long recues;
+        private long affichees = -1;
+        private long dernier = System.nanoTime();
+
+        /**
+         * @param attendues nombre total de parties prévues (0 si inconnu)
+         */
+        public Console(long attendues, long intervalleMillis) {
+            this.attendues = attendues;
+            this.intervalleNanos = intervalleMillis * 1_000_000L;
+        }
+
+        @Override
+        public void consommer(EvenementPartie e) {
+            recues++;
+            long maintenant = System.nanoTime();
+            if (maintenant - dernier >= intervalleNanos) {
+                dernier = maintenant;
+                afficher();
+            }
+        }
+
+        @Override
+        public void terminer() {
+            if (affichees != recues) afficher();
+        }
+
+        private void afficher() {
+            affichees = recues;
+            if (attendues > 0) {
+                System.out.printf(Locale.ROOT, "  %d / %d parties (%.1f%%)\n", recues, attendues, 100.0 * recues / attendues);
+            } else {
+                System.out.printf("  %d parties\n", recues);
+            }
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package statistique;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Moteur de simulation par lots pour les statistiques de self-play massives.
+ *
+ * Au lieu de dérouler une partie objet par objet ({@code Bot}, grilles,
+ * {@code Coordonnee}...), le moteur fait avancer {@code lot} plateaux
+ * indépendants en parallèle, coup par coup (« lockstep »), dans une
+ * disposition en tableaux de structures inversée : chaque ligne d'un plateau
+ * est un bitboard {@code long} (bit c = colonne c) et tous les plateaux sont
+ * rangés bout à bout dans les mêmes tableaux ({@code navires}, {@code tirs},
+ * ...), avec des compteurs par plateau. Les opérations de tir, de placement
+ * et de carte de chaleur travaillent sur une ligne entière (jusqu'à 64 cases)
+ * par opération.
+ *
+ * Deux politiques sont disponibles :
+ * <ul>
+ * <li>{@link Politique#UNIFORME} : case non tirée tirée au hasard, identique
+ *     au {@code Bot} de base ;</li>
+ * <li>{@link Politique#MARKOV} : la heatmap de l'heuristique {@code Markov}
+ *     (pondération de parité, renfort des placements couvrant une touche non
+ *     coulée) appliquée à chaque coup, sans l'automate hunt/target de
+ *     {@code SmartBot}.</li>
+ * </ul>
+ *
+ * Une partie de self-play est reconstituée à partir de deux plateaux : les
+ * tirs d'un bot ne dépendent pas de ceux de l'adversaire, donc le joueur qui
+ * commence gagne si son nombre de coups pour tout couler est inférieur ou
+ * égal à celui de l'adversaire, et le nombre de coups du vainqueur est le
+ * minimum des deux.
+ *
+ * Usage : {@code SimulationLot [parties] [taille] [uniform|markov] [lot] [threads]}.
+ */
+public class SimulationLot {
+
+    /** Politique de tir simulée. */
+    public enum Politique { UNIFORME, MARKOV }
+
+    // Réglages de Markov (valeurs par défaut de heuristic.Markov)
+    private static final int PARITE_NUM = 3, PARITE_DEN = 2, HORS_PARITE_DIV = 2;
+    private static final int BOOST_MIN = 3, BOOST_MAX = 8, BOOST_FACTEUR = 2;
+
+    private final int N;
+    private final int[] flotte;
+    private final int S;
+    private final int lot;
+    private final Politique politique;
+    private final long plein;
+
+    // --- état par plateau, indicé g * N + ligne ---
+    private final long[] navires;   // cases occupées
+    private final long[] tirs;      // cases tirées
+    private final long[] nonCoules; // touches sur des navires pas encore coulés
+    private final long[] coules;    // cases des navires coulés
+    // --- état par navire, indicé g * S + i ---
+    private final int[] navLigne, navCol, navTouches;
+    private final boolean[] navVertical;
+    // --- compteurs par plateau ---
+    private final int[] coups;
+    private final int[] restantes; // cases de navire non touchées
+    private final long[] alea;     // état SplitMix64 propre au plateau
+    private final int[] actifs;    // plateaux en cours (compactés)
+    // --- tampons de la politique Markov ---
+    private final int[] carte;
+    private final int[] contrainte;
+
+    public SimulationLot(int taille, int[] flotte, int lot, Politique politique) {
+        if (taille < 1 || taille > 64) {
+            throw new IllegalArgumentException("Taille de grille non supportée par les bitboards : " + taille);
+        }
+        for (int L : flotte) {
+            if (L < 1 || L > taille) throw new IllegalArgumentException("Longueur de navire invalide : " + L);
+        }
+        this.N = taille;
+        this.flotte = flotte.clone();
+        this.S = flotte.length;
+        this.lot = Math.max(1, lot);
+        this.politique = politique;
+        this.plein = (taille == 64) ? -1L : (1L << taille) - 1;
+        this.navires = new long[this.lot * N];
+        this.tirs = new long[this.lot * N];
+        this.nonCoules = new long[this.lot * N];
+        this.coules = new long[this.lot * N];
+        this.navLigne = new int[this.lot * S];
+        this.navCol = new int[this.lot * S];
+        this.navTouches = new int[this.lot * S];
+        this.navVertical = new boolean[this.lot * S];
+        this.coups = new int[this.lot];
+        this.restantes = new int[this.lot];
+        this.alea = new long[this.lot];
+        this.actifs = new int[this.lot];
+        this.carte = new int[N * N];
+        this.contrainte = new int[N * N];
+    }
+
+    public int getLot() {
+        return lot;
+    }
+
+    /**
+     * Simule {@code lot} plateaux jusqu'à ce que toutes leurs flottes soient
+     * coulées. Le tableau retourné (réutilisé d'un appel à l'autre) contient
+     * le nombre de coups nécessaires pour chaque plateau.
+     */
+    public int[] simuler(long graine) {
+        SplittableRandom germe = new SplittableRandom(graine);
+        for (int g = 0; g < lot; g++) {
+            alea[g] = germe.nextLong();
+            placer(g);
+            coups[g] = 0;
+            actifs[g] = g;
+        }
+        int nbActifs = lot;
+        while (nbActifs > 0) {
+            for (int a = 0; a < nbActifs; ) {
+                int g = actifs[a];
+                int cellule = (politique == Politique.UNIFORME) ? choisirUniforme(g) : choisirMarkov(g);
+                tirer(g, cellule / N, cellule % N);
+                if (restantes[g] == 0) {
+                    actifs[a] = actifs[--nbActifs]; // plateau terminé : compacter
+                } else {
+                    a++;
+                }
+            }
+        }
+        return coups;
+    }
+
+    /* ===================== Placement ===================== */
+
+    /**
+     * Place la flotte comme {@code GrilleNavale.placementAuto} : position et
+     * orientation tirées au hasard jusqu'à obtenir un placement sans
+     * chevauchement ni contact orthogonal avec un navire déjà posé.
+     */
+    private void placer(int g) {
+        int base = g * N;
+        for (int r = 0; r < N; r++) {
+            navires[base + r] = 0L;
+            tirs[base + r] = 0L;
+            nonCoules[base + r] = 0L;
+            coules[base + r] = 0L;
+        }
+        int total = 0;
+        for (int i = 0; i < S; i++) {
+            int L = flotte[i];
+            int s = g * S + i;
+            while (true) {
+                int r = aleatoire(g, N), c = aleatoire(g, N);
+                boolean vertical = aleatoire(g, 2) == 1;
+                if ((vertical ? r : c) + L > N) continue;
+                if (!placementLibre(base, r, c, L, vertical)) continue;
+                if (vertical) {
+                    long b = 1L << c;
+                    for (int k = 0; k < L; k++) navires[base + r + k] |= b;
+                } else {
+                    navires[base + r] |= segment(c, L);
+                }
+                navLigne[s] = r;
+                navCol[s] = c;
+                navVertical[s] = vertical;
+                navTouches[s] = 0;
+                break;
+            }
+            total += L;
+        }
+        restantes[g] = total;
+    }
+
+    private boolean placementLibre(int base, int r, int c, int L, boolean vertical) {
+        if (vertical) {
+            long b = 1L << c;
+            long voisinage = b | (b << 1) | (b >>> 1);
+            for (int k = 0; k < L; k++) {
+                if ((navires[base + r + k] & voisinage) != 0) return false;
+            }
+            if (r > 0 && (navires[base + r - 1] & b) != 0) return false;
+            return r + L >= N || (navires[base + r + L] & b) == 0;
+        }
+        long m = segment(c, L);
+        if ((navires[base + r] & (m | (m << 1) | (m >>> 1))) != 0) return false;
+        if (r > 0 && (navires[base + r - 1] & m) != 0) return false;
+        return r + 1 >= N || (navires[base + r + 1] & m) == 0;
+    }
+
+    /* ===================== Résolution d'un tir ===================== */
+
+    private void tirer(int g, int r, int c) {
+        int i = g * N + r;
+        long bit = 1L << c;
+        tirs[i] |= bit;
+        coups[g]++;
+        if ((navires[i] & bit) == 0) return;
+        restantes[g]--;
+        nonCoules[i] |= bit;
+        // retrouver le navire touché pour détecter qu'il est coulé
+        for (int s = g * S, fin = s + S; s < fin; s++) {
+            int L = flotte[s - g * S];
+            boolean dedans = navVertical[s]
+                    ? (c == navCol[s] && r >= navLigne[s] && r < navLigne[s] + L)
+                    : (r == navLigne[s] && c >= navCol[s] && c < navCol[s] + L);
+            if (!dedans) continue;
+            if (++navTouches[s] == L) {
+                int base = g * N;
+                if (navVertical[s]) {
+                    long b = 1L << navCol[s];
+                    for (int k = 0; k < L; k++) {
+                        nonCoules[base + navLigne[s] + k] &= ~b;
+                        coules[base + navLigne[s] + k] |= b;
+                    }
+                } else {
+                    long m = segment(navCol[s], L);
+                    nonCoules[base + navLigne[s]] &= ~m;
+                    coules[base + navLigne[s]] |= m;
+                }
+            }
+            return;
+        }
+    }
+
+    /* ===================== Politiques ===================== */
+
+    /** Case non tirée choisie uniformément (indice ligne * N + colonne). */
+    private int choisirUniforme(int g) {
+        int base = g * N;
+        int libres = 0;
+        for (int r = 0; r < N; r++) libres += Long.bitCount(~tirs[base + r] & plein);
+        int k = aleatoire(g, libres);
+        for (int r = 0; r < N; r++) {
+            long libre = ~tirs[base + r] & plein;
+            int n = Long.bitCount(libre);
+            if (k < n) return r * N + kiemeBit(libre, k);
+            k -= n;
+        }
+        throw new IllegalStateException("Aucune case libre");
+    }
+
+    /**
+     * Heatmap Markov calculée ligne par ligne sur les bitboards : les départs
+     * valides d'un navire horizontal de longueur L dans une ligne sont le ET
+     * de L décalages de la ligne des cases libres, et ceux d'un navire
+     * vertical le ET de L lignes consécutives (toutes les colonnes à la fois).
+     */
+    private int choisirMarkov(int g) {
+        int base = g * N;
+        Arrays.fill(carte, 0);
+        int minLen = Integer.MAX_VALUE;
+        for (int i = 0; i < S; i++) {
+            if (navTouches[g * S + i] == flotte[i]) continue; // navire coulé
+            int L = flotte[i];
+            if (L < minLen) minLen = L;
+            accumuler(carte, base, L, false);
+        }
+        if (minLen > 1 && minLen != Integer.MAX_VALUE) {
+            for (int r = 0; r < N; r++) {
+                for (int c = 0; c < N; c++) {
+                    int v = carte[r * N + c];
+                    if (v == 0) continue;
+                    carte[r * N + c] = ((r + c) % minLen == 0) ? v * PARITE_NUM / PARITE_DEN + 1 : v / HORS_PARITE_DIV;
+                }
+            }
+        }
+        boolean cible = false;
+        for (int r = 0; r < N && !cible; r++) cible = nonCoules[base + r] != 0;
+        if (cible) {
+            Arrays.fill(contrainte, 0);
+            for (int i = 0; i < S; i++) {
+                if (navTouches[g * S + i] == flotte[i]) continue;
+                accumuler(contrainte, base, flotte[i], true);
+            }
+            int boost = Math.max(BOOST_MIN, Math.min(BOOST_MAX, minLen * BOOST_FACTEUR));
+            for (int k = 0; k < N * N; k++) carte[k] += contrainte[k] * boost;
+        }
+        // meilleure case non tirée, ex aequo départagés uniformément
+        int meilleur = -1, ex = 0;
+        for (int r = 0; r < N; r++) {
+            long libre = ~tirs[base + r] & plein;
+            while (libre != 0) {
+                int c = Long.numberOfTrailingZeros(libre);
+                libre &= libre - 1;
+                int v = carte[r * N + c];
+                if (v > meilleur) { meilleur = v; ex = 1; } else if (v == meilleur) ex++;
+            }
+        }
+        int k = aleatoire(g, ex);
+        for (int r = 0; r < N; r++) {
+            long libre = ~tirs[base + r] & plein;
+            while (libre != 0) {
+                int c = Long.numberOfTrailingZeros(libre);
+                libre &= libre - 1;
+                if (carte[r * N + c] == meilleur && k-- == 0) return r * N + c;
+            }
+        }
+        throw new IllegalStateException("Aucune case libre");
+    }
+
+    /**
+     * Ajoute à {@code map} la couverture des placements d'un navire de
+     * longueur L. Sans contrainte, les placements évitent toute case tirée ;
+     * avec contrainte, ils évitent seulement l'eau et les navires coulés et
+     * doivent couvrir au moins une touche non coulée. Seules les cases non
+     * tirées sont incrémentées.
+     */
+    private void accumuler(int[] map, int base, int L, boolean contraint) {
+        if (L > N) return;
+        long departs = (N - L + 1 == 64) ? -1L : (1L << (N - L + 1)) - 1;
+        for (int r = 0; r < N; r++) {
+            long libre = ~tirs[base + r] & plein;
+            long posable = contraint ? ~(tirs[base + r] & ~nonCoules[base + r]) & plein : libre;
+            long s = departs, couvre = 0L;
+            for (int k = 0; k < L; k++) {
+                s &= posable >>> k;
+                couvre |= nonCoules[base + r] >>> k;
+            }
+            if (contraint) s &= couvre;
+            if (s == 0) continue;
+            for (int k = 0; k < L; k++) incrementer(map, r, (s << k) & libre);
+        }
+        for (int r = 0; r + L <= N; r++) {
+            long s = plein, couvre = 0L;
+            for (int k = 0; k < L; k++) {
+                int i = base + r + k;
+                s &= contraint ? ~(tirs[i] & ~nonCoules[i]) : ~tirs[i];
+                couvre |= nonCoules[i];
+            }
+            s &= plein;
+            if (contraint) s &= couvre;
+            if (s == 0) continue;
+            for (int k = 0; k < L; k++) incrementer(map, r + k, s & ~tirs[base + r + k]);
+        }
+    }
+
+    private void incrementer(int[] map, int r, long bits) {
+        int o = r * N;
+        while (bits != 0) {
+            map[o + Long.numberOfTrailingZeros(bits)]++;
+            bits &= bits - 1;
+        }
+    }
+
+    /* ===================== Utilitaires ===================== */
+
+    private static long segment(int c, int L) {
+        return ((L == 64) ? -1L : (1L << L) - 1) << c;
+    }
+
+    private static int kiemeBit(long m, int k) {
+        for (int i = 0; i < k; i++) m &= m - 1;
+        return Long.numberOfTrailingZeros(m);
+    }
+
+    /** Entier dans [0, borne) tiré du générateur SplitMix64 du plateau g. */
+    private int aleatoire(int g, int borne) {
+        long z = (alea[g] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) (((z >>> 32) * borne) >>> 32);
+    }
+
+    /* ===================== Exécutable ===================== */
+
+    public static void main(String[] args) throws Exception {
+        long parties = 1_000_000;
+        int taille = 10;
+        Politique politique = Politique.UNIFORME;
+        int lot = 1024;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        if (args.length > 0) {
+            try { parties = Long.parseLong(args[0]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 1) {
+            try { taille = Integer.parseInt(args[1]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 2) {
+            String p = args[2].trim().toLowerCase();
+            if (p.equals("markov") || p.equals("markow")) politique = Politique.MARKOV;
+            else if (!p.equals("uniform")) throw new IllegalArgumentException("Politique inconnue : " + args[2]);
+        }
+        if (args.length > 3) {
+            try { lot = Math.max(2, Integer.parseInt(args[3]) & ~1); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 4) {
+            try { threads = Math.max(1, Integer.parseInt(args[4])); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+
+        final int[] FLOTTE = {5, 4, 3, 3, 2, 2};
+        final int partiesParLot = lot / 2;
+        final long nbLots = (parties + partiesParLot - 1) / partiesParLot;
+        System.out.printf(Locale.ROOT, "Simulation par lots : %s, %d parties, grille=%d, lot=%d plateaux, threads=%d\n",
+                politique, nbLots * partiesParLot, taille, lot, threads);
+
+        final int tailleFinale = taille;
+        final int lotFinal = lot;
+        final Politique politiqueFinale = politique;
+        final long graineBase = new SplittableRandom().nextLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futurs = new ArrayList<>();
+        long debut = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final int tache = t;
+            final int nbThreads = threads;
+            futurs.add(pool.submit(() -> {
+                // un moteur par thread, réutilisé pour tous ses lots
+                SimulationLot sim = new SimulationLot(tailleFinale, FLOTTE, lotFinal, politiqueFinale);
+                long n = 0, somme = 0, sommeCarres = 0;
+                for (long l = tache; l < nbLots; l += nbThreads) {
+                    int[] c = sim.simuler(graineBase + l * 0x9E3779B97F4A7C15L);
+                    for (int p = 0; p + 1 < lotFinal; p += 2) {
+                        int gagnant = (c[p] <= c[p + 1]) ? c[p] : c[p + 1];
+                        n++;
+                        somme += gagnant;
+                        sommeCarres += (long) gagnant * gagnant;
+                    }
+                }
+                return new long[] {n, somme, sommeCarres};
+            }));
+        }
+        long n = 0, somme = 0, sommeCarres = 0;
+        for (Future<long[]> f : futurs) {
+            long[] r = f.get();
+            n += r[0];
+            somme += r[1];
+            sommeCarres += r[2];
+        }
+        pool.shutdown();
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        double moyenne = (double) somme / n;
+        double variance = n > 1 ? (sommeCarres - n * moyenne * moyenne) / (n - 1) : 0.0;
+        double stderr = Math.sqrt(Math.max(0.0, variance) / n);
+        double parHeure = n / secondes * 3600.0;
+        System.out.printf(Locale.ROOT, "coups du vainqueur : moyenne=%.4f (stderr=%.4f)\n", moyenne, stderr);
+        System.out.printf(Locale.ROOT, "débit : %.0f parties/s, soit %.1f millions de parties/heure\n",
+                n / secondes, parHeure / 1e6);
+
+        File outDir = new File("Results");
+        outDir.mkdirs();
+        File csv = new File(outDir, "simulation_lot.csv");
+        try (PrintWriter pw = new PrintWriter(csv)) {
+            pw.println("policy,board_size,games,mean_moves,std_error,games_per_hour");
+            pw.printf(Locale.ROOT, "%s,%d,%d,%.6f,%.6f,%.0f\n", politique.name().toLowerCase(), taille, n, moyenne,
+                    stderr, parHeure);
+        }
+        System.out.println("Fichier CSV écrit : " + csv.getAbsolutePath());
+    }
+}
@@ -2,17 +2,50 @@ package statistique;
 
 import java.io.File;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import bataillenavale.BatailleNavale;
 import joueurs.Bot;
+import joueurs.ReglesPartie;
 
 /**
  * Exécuteur de tournoi simple qui fait jouer tous les types de bots entre eux
  * (y compris en self-play) N fois, écrit un résumé CSV et génère une table
  * lisible des résultats avec le classement.
+ *
+ * Usage : {@code Tournament [parties] [taille] [budget_ms] [reserve_ms] [salve]}.
+ * {@code budget_ms} et {@code reserve_ms} imposent une pendule (budget par
+ * coup, réserve par partie) ; les coups hors délai sont comptés par bot.
+ * {@code salve} joue la variante salve : un nombre fixe de tirs par tour, ou
+ * {@code navires} pour autant de tirs que de navires encore à flot.
+ *
+ * Les confrontations se jouent en parallèle (un thread par cœur), sauf sous
+ * pendule où elles se jouent une à une pour ne pas fausser les temps. Chaque
+ * partie est publiée dans un {@link PipelineResultats} dont les
+ * destinations, sur leurs propres threads, tiennent les statistiques du
+ * classement, ajoutent la partie à l'{@link EntrepotResultats} (exécutions
+ * successives, interrogées par {@link RequeteResultats}), l'écrivent dans
+ * {@code tournament_games.csv} et affichent la progression.
+ *
+ * Chaque confrontation réutilise la même paire de bots d'une partie à
+ * l'autre ({@link Bot#reinitialiser(int[], long)}) plutôt que d'en allouer
+ * une nouvelle par partie.
  */
 public class Tournament {
+    private static final int CAPACITE_PIPELINE = 1 << 12;
+
+    /** Flotte, bots et libellés du tournoi, partagés avec {@link TournoiAnalytique}. */
+    static final int[] FLOTTE = {5, 4, 3, 3, 2, 2};
+    static final String[] BOTS = {"uniform", "markov", "montecarlo", "smart"};
+    static final String[] LIBELLES = {"Uniforme", "Markov", "MonteCarlo", "Intelligent"};
+
     public static void main(String[] args) throws Exception {
         int N = 100; // games per pairing
         int taille = 10;
@@ -22,34 +55,96 @@ public class Tournament {
         if (args.length > 1) {
             try { taille = Integer.parseInt(args[1]); } catch (NumberFormatException ex) { /* ignore */ }
         }
+        ReglesPartie regles = ReglesPartie.STANDARD;
+        if (args.length > 2) {
+            try { regles = regles.avecBudgetParCoup(Long.parseLong(args[2])); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 3) {
+            try { regles = regles.avecReserve(Long.parseLong(args[3])); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 4) {
+            String salve = args[4];
+            try {
+                regles = regles.avecSalve("navires".equals(salve) ? ReglesPartie.SALVE_NAVIRES_RESTANTS
+                        : Integer.parseInt(salve));
+            } catch (IllegalArgumentException ex) { /* ignore */ }
+        }
 
-        final int[] FLOTTE = {5, 4, 3, 3, 2, 2};
-        final String[] botTypes = {"uniform", "markov", "montecarlo", "smart"};
-        final String[] labels = {"Uniforme", "Markov", "MonteCarlo", "Intelligent"};
+        final String[] botTypes = BOTS;
+        final String[] labels = LIBELLES;
 
         final int B = botTypes.length;
         final int[][] wins = new int[B][B]; // wins[i][j] = nombre de victoires du bot i contre le bot j
+        final int[] timeouts = new int[B]; // coups hors délai par bot (sous pendule)
 
         System.out.println("Tournoi : " + B + " bots, " + N + " parties par confrontation, grille=" + taille);
+        if (regles.getBudgetParCoupMillis() > 0 || regles.getReserveMillis() > 0) {
+            System.out.println("Pendule : budget=" + regles.getBudgetParCoupMillis() + " ms/coup, réserve="
+                    + regles.getReserveMillis() + " ms/partie");
+        }
+        if (regles.getSalve() != 1) {
+            System.out.println("Salve : " + (regles.getSalve() == ReglesPartie.SALVE_NAVIRES_RESTANTS
+                    ? "un tir par navire à flot" : regles.getSalve() + " tirs par tour"));
+        }
 
         File outDir = new File("Results");
         outDir.mkdirs();
+        Random graines = new Random();
+        List<String> ids = Arrays.asList(botTypes);
+        // sous pendule, des parties simultanées se disputeraient le processeur
+        // et fausseraient les dépassements : elles se jouent alors une à une
+        boolean pendule = regles.getBudgetParCoupMillis() > 0 || regles.getReserveMillis() > 0;
+        int threads = pendule ? 1 : Math.max(1, Runtime.getRuntime().availableProcessors());
 
-        // jouer chaque confrontation non ordonnée une fois (sans self-play)
-        for (int i = 0; i < B; i++) {
-            for (int j = i + 1; j < B; j++) {
-                System.out.printf("Parties %s vs %s (%d parties)...\n", labels[i], labels[j], N);
-                for (int k = 0; k < N; k++) {
-                    Bot b1 = BatailleNavale.initBot(taille, FLOTTE, botTypes[i]);
-                    Bot b2 = BatailleNavale.initBot(taille, FLOTTE, botTypes[j]);
-                    joueurs.MatchResult result = b1.jouerAvec(b2);
-                    if (result.getWinner() == b1) {
-                        wins[i][j]++;
-                    } else {
-                        wins[j][i]++;
-                    }
+        // chaque confrontation non ordonnée (sans self-play) est une tâche ; les
+        // parties partent dans le pipeline, consommé par les destinations
+        ResultSink.Statistiques stats = new ResultSink.Statistiques(B);
+        EntrepotResultats entrepot = new EntrepotResultats(EntrepotResultats.REPERTOIRE, "tournament", taille,
+                FLOTTE, regles, ids);
+        File partiesCsv = new File(outDir, "tournament_games.csv");
+        List<ResultSink> sinks = List.of(stats, new ResultSink.Entrepot(entrepot), new ResultSink.Csv(partiesCsv, ids),
+                new ResultSink.Console((long) N * B * (B - 1) / 2, 2000));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (PipelineResultats pipeline = new PipelineResultats(CAPACITE_PIPELINE, PipelineResultats.Pression.BLOQUER,
+                sinks)) {
+            List<Future<?>> futurs = new ArrayList<>();
+            for (int i = 0; i < B; i++) {
+                for (int j = i + 1; j < B; j++) {
+                    final int a = i, b = j;
+                    final long graine = graines.nextLong();
+                    final ReglesPartie r = regles;
+                    final int t = taille, parties = N;
+                    futurs.add(pool.submit(() -> {
+                        System.out.printf("Parties %s vs %s (%d parties)...\n", labels[a], labels[b], parties);
+                        Random alea = new Random(graine);
+                        Bot b1 = BatailleNavale.initBot(t, FLOTTE, botTypes[a]);
+                        Bot b2 = BatailleNavale.initBot(t, FLOTTE, botTypes[b]);
+                        for (int k = 0; k < parties && !Thread.currentThread().isInterrupted(); k++) {
+                            long g1 = alea.nextLong();
+                            b1.reinitialiser(FLOTTE, g1);
+                            b2.reinitialiser(FLOTTE, alea.nextLong());
+                            long debut = System.nanoTime();
+                            joueurs.MatchResult result = b1.jouerAvec(b2, r);
+                            pipeline.publier(a, b, result, b1, b2, g1, System.nanoTime() - debut);
+                        }
+                        return null;
+                    }));
                 }
             }
+            try {
+                for (Future<?> f : futurs) f.get();
+            } finally {
+                // en cas d'échec, arrêter les autres tâches avant de fermer le pipeline
+                pool.shutdownNow();
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        }
+        System.out.println("Exécution " + entrepot.getExecution() + " ajoutée à l'entrepôt : "
+                + EntrepotResultats.REPERTOIRE.getAbsolutePath());
+        System.out.println("Fichier CSV des parties écrit : " + partiesCsv.getAbsolutePath());
+        for (int i = 0; i < B; i++) {
+            timeouts[i] = (int) stats.getHorsDelai(i);
+            for (int j = 0; j < B; j++) wins[i][j] = (int) stats.getVictoires(i, j);
         }
 
         int[] totalWins = new int[B];
@@ -94,9 +189,9 @@ public class Tournament {
         // write summary CSV
         File sumCsv = new File(outDir, "tournament_summary.csv");
         try (PrintWriter pw = new PrintWriter(sumCsv)) {
-            pw.println("bot,games_played,wins,win_rate,standard_error,rank");
+            pw.println("bot,games_played,wins,win_rate,standard_error,rank,timeouts");
             for (int i = 0; i < B; i++) {
-                pw.printf("%s,%d,%d,%.6f,%.6f,%d\n", labels[i], gamesPerBot, totalWins[i], rate[i], stderr[i], rank[i]);
+                pw.printf("%s,%d,%d,%.6f,%.6f,%d,%d\n", labels[i], gamesPerBot, totalWins[i], rate[i], stderr[i], rank[i], timeouts[i]);
             }
         }
 
@@ -128,7 +223,7 @@ public class Tournament {
         System.out.println("Classement :");
         for (int pos = 0; pos < B; pos++) {
             int i = idx[pos];
-            System.out.printf("%d. %s — taux_victoire=%.4f (stderr=%.4f)\n", pos + 1, labels[i], rate[i], stderr[i]);
+            System.out.printf("%d. %s — taux_victoire=%.4f (stderr=%.4f), hors_délai=%d\n", pos + 1, labels[i], rate[i], stderr[i], timeouts[i]);
         }
     }
 }
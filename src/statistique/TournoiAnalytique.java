@@ -0,0 +1,250 @@
+package statistique;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import bataillenavale.BatailleNavale;
+import joueurs.Bot;
+import joueurs.ReglesPartie;
+
+/**
+ * Matrice des victoires d'un tournoi calculée à partir des seules
+ * distributions du nombre de tours nécessaires à chaque bot pour couler
+ * une flotte.
+ *
+ * Dans {@code Joueur.jouerAvec}, les attaques d'un bot ne dépendent que de
+ * la grille adverse et de ses propres résultats, jamais de l'avancement de
+ * l'adversaire : si T_A et T_B sont les nombres de tours dont A et B ont
+ * besoin, A (qui joue en premier) gagne exactement quand T_A <= T_B, et
+ * T_A, T_B sont indépendants. Il suffit donc d'estimer la loi de T pour
+ * chaque bot ({@link joueurs.Joueur#attaquerSeul}, N parties par bot, soit
+ * O(B·N) parties au lieu des O(B²·N) d'un tournoi), puis pour chaque couple
+ * P(A premier gagne) = Σ_t P(T_A = t) P(T_B >= t), en O(taille²) grâce aux
+ * fonctions de survie cumulées.
+ *
+ * L'estimateur est une U-statistique à deux échantillons (celle de
+ * Mann-Whitney) ; son intervalle de confiance à 95 % vient de la variance
+ * de DeLong, calculée elle aussi sur les histogrammes. Pour un bot contre
+ * lui-même, on utilise la U-statistique à un échantillon sur les couples
+ * distincts. La matrice est aussi donnée en premier joueur alterné
+ * ((P(T_A <= T_B) + P(T_A < T_B)) / 2).
+ *
+ * L'indépendance cesse sous pendule, et en salve {@code navires} (le nombre
+ * de tirs d'un tour dépend alors des navires que l'adversaire a coulés) :
+ * seules les salves de taille fixe sont acceptées.
+ *
+ * Usage : {@code TournoiAnalytique [parties] [taille] [salve]}.
+ */
+public class TournoiAnalytique {
+    private static final double Z95 = 1.959963984540054;
+
+    /** Probabilité estimée et bornes de son intervalle de confiance à 95 %. */
+    static final class Estimation {
+        final double p;
+        final double bas;
+        final double haut;
+
+        Estimation(double p, double variance) {
+            double e = Z95 * Math.sqrt(Math.max(0.0, variance));
+            this.p = p;
+            this.bas = Math.max(0.0, p - e);
+            this.haut = Math.min(1.0, p + e);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int N = 1000;
+        int taille = 10;
+        if (args.length > 0) {
+            try { N = Integer.parseInt(args[0]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        if (args.length > 1) {
+            try { taille = Integer.parseInt(args[1]); } catch (NumberFormatException ex) { /* ignore */ }
+        }
+        ReglesPartie regles = ReglesPartie.STANDARD;
+        if (args.length > 2) {
+            if ("navires".equals(args[2])) {
+                System.out.println("Salve navires ignorée : le nombre de tirs d'un tour dépendrait de l'adversaire,"
+                        + " et les joueurs ne seraient plus indépendants");
+            } else {
+                try {
+                    regles = regles.avecSalve(Integer.parseInt(args[2]));
+                } catch (IllegalArgumentException ex) {
+                    System.out.println("Salve ignorée (un nombre de tirs par tour strictement positif est attendu) : "
+                            + args[2]);
+                }
+            }
+        }
+
+        // mêmes bots et même flotte que le tournoi dont la matrice est la prédiction
+        final int[] FLOTTE = Tournament.FLOTTE;
+        final String[] botTypes = Tournament.BOTS;
+        final String[] labels = Tournament.LIBELLES;
+        final int B = botTypes.length;
+
+        System.out.println("Tournoi analytique : " + B + " bots, " + N + " parties seules par bot, grille=" + taille
+                + (regles.getSalve() != 1 ? ", salve=" + regles.getSalve() : ""));
+        long[][] histogrammes = new long[B][];
+        Random graines = new Random();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<long[]>> futurs = new ArrayList<>();
+            for (int i = 0; i < B; i++) {
+                final String type = botTypes[i];
+                final long graine = graines.nextLong();
+                final int parties = N, t = taille;
+                final ReglesPartie r = regles;
+                futurs.add(pool.submit(() -> distribution(type, t, FLOTTE, r, parties, graine)));
+            }
+            for (int i = 0; i < B; i++) histogrammes[i] = futurs.get(i).get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Estimation[][] premier = new Estimation[B][B];
+        double[][] alterne = new double[B][B];
+        for (int i = 0; i < B; i++) {
+            for (int j = 0; j < B; j++) {
+                premier[i][j] = (i == j) ? contreSoi(histogrammes[i]) : victoire(histogrammes[i], histogrammes[j]);
+                alterne[i][j] = (i == j) ? 0.5 : 0.5 * (premier[i][j].p + 1.0 - victoire(histogrammes[j], histogrammes[i]).p);
+            }
+        }
+
+        // taux attendu du tournoi classique : confrontations i < j, i jouant en premier
+        double[] taux = new double[B];
+        for (int i = 0; i < B; i++) {
+            double s = 0.0;
+            for (int j = 0; j < B; j++) {
+                if (j > i) s += premier[i][j].p;
+                else if (j < i) s += 1.0 - premier[j][i].p;
+            }
+            taux[i] = B > 1 ? s / (B - 1) : 0.0;
+        }
+        Integer[] idx = new Integer[B];
+        for (int i = 0; i < B; i++) idx[i] = i;
+        Arrays.sort(idx, (a, b) -> Double.compare(taux[b], taux[a]));
+
+        File outDir = new File("Results");
+        outDir.mkdirs();
+        File csv = new File(outDir, "tournament_analytic.csv");
+        try (PrintWriter pw = new PrintWriter(csv)) {
+            pw.println("bot,opponent,p_first_wins,ci_low,ci_high,p_alternating");
+            for (int i = 0; i < B; i++) {
+                for (int j = 0; j < B; j++) {
+                    Estimation e = premier[i][j];
+                    pw.printf(Locale.ROOT, "%s,%s,%.6f,%.6f,%.6f,%.6f\n", labels[i], labels[j], e.p, e.bas, e.haut,
+                            alterne[i][j]);
+                }
+            }
+        }
+
+        System.out.println("P(ligne, jouant en premier, bat colonne) [IC 95 %] :");
+        System.out.printf("%14s", "");
+        for (int j = 0; j < B; j++) System.out.printf("%24s", labels[j]);
+        System.out.println();
+        for (int i = 0; i < B; i++) {
+            System.out.printf("%14s", labels[i]);
+            for (int j = 0; j < B; j++) {
+                Estimation e = premier[i][j];
+                System.out.printf(Locale.ROOT, "%24s", String.format(Locale.ROOT, "%.3f [%.3f,%.3f]", e.p, e.bas, e.haut));
+            }
+            System.out.println();
+        }
+        System.out.println("Classement (taux de victoire attendu du tournoi) :");
+        for (int pos = 0; pos < B; pos++) {
+            int i = idx[pos];
+            System.out.printf(Locale.ROOT, "%d. %s — taux_victoire=%.4f, tours moyens=%.2f\n", pos + 1, labels[i],
+                    taux[i], moyenne(histogrammes[i]));
+        }
+        System.out.println("Fichier CSV analytique écrit : " + csv.getAbsolutePath());
+    }
+
+    /**
+     * Histogramme du nombre de tours dont le bot a besoin pour couler une
+     * flotte placée au hasard : h[t] = nombre de parties finies en t tours.
+     */
+    static long[] distribution(String type, int taille, int[] flotte, ReglesPartie regles, int parties, long graine) {
+        Random alea = new Random(graine);
+        Bot attaquant = BatailleNavale.initBot(taille, flotte, type);
+        Bot cible = BatailleNavale.initBot(taille, flotte, "uniform");
+        long[] h = new long[taille * taille + 1];
+        for (int k = 0; k < parties; k++) {
+            attaquant.reinitialiser(flotte, alea.nextLong());
+            cible.reinitialiser(flotte, alea.nextLong());
+            h[attaquant.attaquerSeul(cible, regles).getWinnerTurns()]++;
+        }
+        return h;
+    }
+
+    /**
+     * P(T_A <= T_B) pour deux échantillons indépendants, avec la variance de
+     * DeLong : var = s²(S_B(X_a)) / m + s²(F_A(Y_b)) / n, où S_B(x) est la
+     * part de l'échantillon B supérieure ou égale à x et F_A(y) celle de
+     * l'échantillon A inférieure ou égale à y.
+     */
+    static Estimation victoire(long[] a, long[] b) {
+        int T = Math.max(a.length, b.length);
+        double m = somme(a), n = somme(b);
+        if (m == 0 || n == 0) return new Estimation(0.0, 0.0);
+        double[] survieB = new double[T + 1];   // P(T_B >= t)
+        for (int t = T - 1; t >= 0; t--) survieB[t] = survieB[t + 1] + (t < b.length ? b[t] : 0) / n;
+        double[] repartA = new double[T];       // P(T_A <= t)
+        double cumul = 0.0;
+        for (int t = 0; t < T; t++) {
+            cumul += (t < a.length ? a[t] : 0) / m;
+            repartA[t] = cumul;
+        }
+        double p = 0.0, s10 = 0.0, s01 = 0.0;
+        for (int t = 0; t < T; t++) {
+            long ca = t < a.length ? a[t] : 0, cb = t < b.length ? b[t] : 0;
+            p += ca / m * survieB[t];
+            s10 += ca * survieB[t] * survieB[t];
+            s01 += cb * repartA[t] * repartA[t];
+        }
+        // variances empiriques (dénominateur m - 1, n - 1) des composantes
+        double v10 = m > 1 ? (s10 - m * p * p) / (m - 1) : 0.0;
+        double v01 = n > 1 ? (s01 - n * p * p) / (n - 1) : 0.0;
+        return new Estimation(p, v10 / m + v01 / n);
+    }
+
+    /**
+     * Un bot contre lui-même : P(T <= T') = (1 + P(T = T')) / 2, estimée sur
+     * les couples distincts de l'échantillon, de variance 4 Var(h1(X)) / n
+     * avec h1(x) = (1 + P(T = x)) / 2.
+     */
+    static Estimation contreSoi(long[] h) {
+        double n = somme(h);
+        if (n < 2) return new Estimation(0.5, 0.0);
+        double egalites = 0.0, moyenne = 0.0, carres = 0.0;
+        for (long c : h) {
+            egalites += c * (c - 1.0);
+            double q = c / n;               // P(T = x) pour les x de cette classe
+            moyenne += c * q;
+            carres += c * q * q;
+        }
+        double p = 0.5 * (1.0 + egalites / (n * (n - 1.0)));
+        double variance = (carres - moyenne * moyenne / n) / (n - 1.0); // Var(P(T = X))
+        return new Estimation(p, variance / n); // 4 Var(h1) / n, h1 = (1 + q) / 2
+    }
+
+    private static double somme(long[] h) {
+        double s = 0.0;
+        for (long c : h) s += c;
+        return s;
+    }
+
+    private static double moyenne(long[] h) {
+        double s = 0.0, n = somme(h);
+        for (int t = 0; t < h.length; t++) s += (double) t * h[t];
+        return n > 0 ? s / n : 0.0;
+    }
+}